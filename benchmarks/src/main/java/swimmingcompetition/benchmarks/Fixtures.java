@@ -0,0 +1,68 @@
+/*
+ * Fixtures.java
+ * Builds the swimmers and competitions used by the benchmarks.
+ */
+package swimmingcompetition.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import swimmingcompetition.simulator.Gender;
+import swimmingcompetition.simulator.Judge;
+import swimmingcompetition.simulator.MaleSwimmer;
+import swimmingcompetition.simulator.Spectator;
+import swimmingcompetition.simulator.Stroke;
+import swimmingcompetition.simulator.SupportingStaffMember;
+import swimmingcompetition.simulator.Swimmer;
+import swimmingcompetition.simulator.SwimmingCompetition;
+
+/**
+ *
+ * @author Wickramaranga
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /**
+     * Creates male swimmers.
+     *
+     * @param count number of swimmers.
+     * @return list of new swimmers.
+     */
+    static List<Swimmer> swimmers(int count) {
+        List<Swimmer> swimmers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            swimmers.add(new MaleSwimmer("Swimmer " + i));
+        }
+        return swimmers;
+    }
+
+    /**
+     * Creates a competition and runs rounds on it in simulated time. Rounds
+     * are seeded by their number, so every call builds the same history.
+     *
+     * @param laneCount number of lanes, which is also the number of swimmers.
+     * @param rounds number of finished rounds.
+     * @return the competition after its last round.
+     */
+    static SwimmingCompetition competition(int laneCount, int rounds) {
+        List<Swimmer> swimmers = swimmers(laneCount);
+        // No spectators, they print every finish.
+        SwimmingCompetition competition = new SwimmingCompetition(
+                Collections.singletonList(new Judge("Judge")),
+                Collections.<Spectator>emptyList(),
+                swimmers,
+                Collections.singletonList(new SupportingStaffMember("Staff")),
+                laneCount, 100);
+        for (int round = 0; round < rounds; round++) {
+            competition.prepare(Gender.MALE, Stroke.values()[round % Stroke.values().length],
+                                swimmers, round);
+            competition.runHeadless();
+        }
+        return competition;
+    }
+
+}
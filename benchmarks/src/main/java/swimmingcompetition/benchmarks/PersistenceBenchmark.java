@@ -0,0 +1,137 @@
+/*
+ * PersistenceBenchmark.java
+ * Measures saving and loading competitions with many finished rounds.
+ */
+package swimmingcompetition.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import swimmingcompetition.persistence.Compression;
+import swimmingcompetition.persistence.Persistence;
+import swimmingcompetition.simulator.SwimmingCompetition;
+
+/**
+ * Files are written under a unique name to a storage directory of the
+ * benchmark, given to the forked JVM, which is deleted afterwards. The user's
+ * own storage directory is never touched.
+ *
+ * @author Wickramaranga
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector",
+                                  "-D" + Persistence.SAVE_PATH_PROPERTY + "="
+                                  + PersistenceBenchmark.SAVE_PATH})
+public class PersistenceBenchmark {
+
+    /*package*/ static final String SAVE_PATH = "target/jmh-saves/";
+
+    @Param({"10", "100", "1000"})
+    public int rounds;
+
+    @Param({"8"})
+    public int lanes;
+
+    @Param({"NONE", "DEFLATE_FAST", "DEFLATE", "DEFLATE_BEST", "LZ"})
+    public Compression compression;
+
+    private SwimmingCompetition competition;
+    private String fileName;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if (!Persistence.SAVE_PATH.equals(SAVE_PATH)) { // Not forked.
+            throw new IllegalStateException("Saving to " + Persistence.SAVE_PATH);
+        }
+        competition = Fixtures.competition(lanes, rounds);
+        fileName = "jmh-" + UUID.randomUUID();
+        Persistence.setCompression(compression);
+        Files.createDirectories(Paths.get(SAVE_PATH));
+        Persistence.saveFile(competition, fileName);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Path directory = Paths.get(SAVE_PATH);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Saves over the file already holding every round, so nothing is
+     * appended.
+     */
+    @Benchmark
+    public void save() throws IOException {
+        Persistence.saveFile(competition, fileName);
+    }
+
+    /**
+     * Saves every round into a new file.
+     */
+    @Benchmark
+    public void rewrite() throws IOException {
+        Persistence.removeFile(fileName);
+        Persistence.saveFile(competition, fileName);
+    }
+
+    @Benchmark
+    public Object load() throws IOException {
+        return Persistence.loadFile(fileName);
+    }
+
+    /**
+     * Loads the file and reads every round, decompressing every block.
+     */
+    @Benchmark
+    public long readRounds() throws IOException {
+        SwimmingCompetition loaded = Persistence.loadFile(fileName);
+        long total = 0;
+        for (int round = 0; round < loaded.getOldScoreboardCount(); round++) {
+            total += loaded.getOldSeed(round);
+        }
+        return total;
+    }
+
+    /**
+     * Checks every block of the file against its checksum.
+     */
+    @Benchmark
+    public int verify() throws IOException {
+        return Persistence.verifyFile(fileName);
+    }
+
+    @Benchmark
+    public Object roundTrip() throws IOException {
+        Persistence.saveFile(competition, fileName);
+        return Persistence.loadFile(fileName);
+    }
+
+}
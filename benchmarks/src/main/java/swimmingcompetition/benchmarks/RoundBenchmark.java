@@ -0,0 +1,80 @@
+/*
+ * RoundBenchmark.java
+ * Measures whole rounds simulated through the swimming pool and through the
+ * competition.
+ */
+package swimmingcompetition.benchmarks;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import swimmingcompetition.simulator.Gender;
+import swimmingcompetition.simulator.Scoreboard;
+import swimmingcompetition.simulator.Stroke;
+import swimmingcompetition.simulator.Swimmer;
+import swimmingcompetition.simulator.SwimmingCompetition;
+import swimmingcompetition.simulator.SwimmingPool;
+
+/**
+ *
+ * @author Wickramaranga
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class RoundBenchmark {
+
+    @Param({"8", "64"})
+    public int lanes;
+
+    private List<Swimmer> swimmers;
+    private SwimmingPool pool;
+    private SwimmingCompetition competition;
+    private long seed;
+
+    @Setup
+    public void setUp() {
+        swimmers = Fixtures.swimmers(lanes);
+        pool = new SwimmingPool(lanes, 100);
+        competition = Fixtures.competition(lanes, 0);
+    }
+
+    /**
+     * A round in the pool alone.
+     */
+    @Benchmark
+    public Scoreboard pool() {
+        pool.prepare(Gender.MALE, Stroke.FREESTYLE, swimmers, seed++);
+        Scoreboard scoreboard = new Scoreboard(lanes, seed, null);
+        pool.setScoreboard(scoreboard);
+        pool.simulate();
+        return scoreboard;
+    }
+
+    /**
+     * A round of the competition, including keeping the round history and
+     * the race log.
+     */
+    @Benchmark
+    public List<Date> competition() {
+        competition.prepare(Gender.MALE, Stroke.FREESTYLE, swimmers, seed++);
+        return competition.runHeadless();
+    }
+
+}
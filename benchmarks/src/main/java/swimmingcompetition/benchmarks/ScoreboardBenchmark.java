@@ -0,0 +1,98 @@
+/*
+ * ScoreboardBenchmark.java
+ * Measures reporting finishes to a scoreboard shared by several lane
+ * threads.
+ */
+package swimmingcompetition.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import swimmingcompetition.simulator.Observable;
+import swimmingcompetition.simulator.Observer;
+import swimmingcompetition.simulator.ObserverDispatcher;
+import swimmingcompetition.simulator.Scoreboard;
+import swimmingcompetition.simulator.SimulatedClock;
+import swimmingcompetition.simulator.Swimmer;
+
+/**
+ * A scoreboard keeps every finish, so each iteration reports a fixed batch of
+ * finishes per thread to a fresh scoreboard instead of running for a fixed
+ * time. Observers spend a little CPU on each finish, on the lane thread or
+ * through a dispatcher.
+ *
+ * @author Wickramaranga
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10, batchSize = ScoreboardBenchmark.BATCH)
+@Measurement(iterations = 20, batchSize = ScoreboardBenchmark.BATCH)
+@Fork(value = 2, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class ScoreboardBenchmark {
+
+    /*package*/ static final int BATCH = 100000;
+    private static final int MAX_THREADS = 4;
+
+    @Param({"0", "100"})
+    public int observers;
+
+    @Param({"false", "true"})
+    public boolean dispatched;
+
+    private Scoreboard scoreboard;
+    private Swimmer swimmer;
+
+    @Setup(Level.Trial)
+    public void createSwimmer() {
+        swimmer = Fixtures.swimmers(1).get(0);
+    }
+
+    @Setup(Level.Iteration)
+    public void createScoreboard() {
+        // Room for a batch from every thread.
+        scoreboard = new Scoreboard(MAX_THREADS * BATCH, 0, null);
+        scoreboard.setClock(new SimulatedClock(0));
+        for (int i = 0; i < observers; i++) {
+            scoreboard.subscribe(new Observer() {
+                @Override
+                public void update(Observable sender, Object arg) {
+                    Blackhole.consumeCPU(100);
+                }
+            });
+        }
+        if (dispatched) {
+            scoreboard.setDispatcher(new ObserverDispatcher());
+        }
+        scoreboard.notifyStart();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Scoreboard notifyFinishUncontended() {
+        scoreboard.notifyFinish(swimmer);
+        return scoreboard;
+    }
+
+    @Benchmark
+    @Threads(MAX_THREADS)
+    public Scoreboard notifyFinishContended() {
+        scoreboard.notifyFinish(swimmer);
+        return scoreboard;
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * StepKernelBenchmark.java
+ * Compares the scalar and the vector step kernels, alone and within whole
+ * simulated rounds.
+ */
+package swimmingcompetition.benchmarks;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import swimmingcompetition.simulator.Gender;
+import swimmingcompetition.simulator.ScalarStepKernel;
+import swimmingcompetition.simulator.Scoreboard;
+import swimmingcompetition.simulator.SimulatedClock;
+import swimmingcompetition.simulator.SimulationEngine;
+import swimmingcompetition.simulator.StepKernel;
+import swimmingcompetition.simulator.Stroke;
+import swimmingcompetition.simulator.Swimmer;
+import swimmingcompetition.simulator.SwimmingPool;
+import swimmingcompetition.simulator.VectorStepKernel;
+
+/**
+ *
+ * @author Wickramaranga
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class StepKernelBenchmark {
+
+    @Param({"8", "64", "512"})
+    public int lanes;
+
+    @Param({"scalar", "vector"})
+    public String kernel;
+
+    private StepKernel stepKernel;
+    private double[] positions;
+    private double[] velocities;
+    private SwimmingPool pool;
+    private List<Swimmer> swimmers;
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        stepKernel = "vector".equals(kernel) ? new VectorStepKernel() : new ScalarStepKernel();
+        SplittableRandom random = new SplittableRandom(42);
+        positions = new double[lanes];
+        velocities = new double[lanes];
+        for (int i = 0; i < lanes; i++) {
+            velocities[i] = 0.25 + random.nextDouble() * 0.4;
+        }
+
+        swimmers = Fixtures.swimmers(lanes);
+        pool = new SwimmingPool(lanes, 100);
+        pool.setStepKernel(stepKernel);
+    }
+
+    /**
+     * Bulk position update only.
+     */
+    @Benchmark
+    public double[] accumulate() {
+        stepKernel.accumulate(positions, velocities, 0.25, lanes);
+        return positions;
+    }
+
+    /**
+     * A whole round in simulated time, where random sampling is included.
+     */
+    @Benchmark
+    public Scoreboard round() {
+        pool.prepare(Gender.MALE, Stroke.FREESTYLE, swimmers, seed++);
+        Scoreboard scoreboard = new Scoreboard(lanes, seed, null);
+        pool.setScoreboard(scoreboard);
+        new SimulationEngine(pool, new SimulatedClock(0)).run();
+        return scoreboard;
+    }
+
+}
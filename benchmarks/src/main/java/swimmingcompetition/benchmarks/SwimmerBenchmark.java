@@ -0,0 +1,56 @@
+/*
+ * SwimmerBenchmark.java
+ * Measures the cost of a single swimming step of a swimmer.
+ */
+package swimmingcompetition.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import swimmingcompetition.simulator.Stroke;
+import swimmingcompetition.simulator.Swimmer;
+
+/**
+ *
+ * @author Wickramaranga
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class SwimmerBenchmark {
+
+    @Param({"FREESTYLE", "BUTTERFLYSTROKE", "BREASTSTROKE", "BACKSTROKE"})
+    public Stroke stroke;
+
+    private Swimmer swimmer;
+    private SplittableRandom random;
+    private double roundSpeedFactor;
+
+    @Setup
+    public void setUp() {
+        swimmer = Fixtures.swimmers(1).get(0);
+        random = new SplittableRandom(42);
+        roundSpeedFactor = swimmer.nextRoundSpeedFactor(random);
+    }
+
+    @Benchmark
+    public double swim() {
+        return swimmer.swim(stroke, roundSpeedFactor, random);
+    }
+
+}
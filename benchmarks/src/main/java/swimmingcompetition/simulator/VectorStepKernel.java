@@ -0,0 +1,35 @@
+/*
+ * VectorStepKernel.java
+ * Step kernel which advances several lanes per instruction using the JDK
+ * Vector API. Loaded by StepKernels when available.
+ */
+package swimmingcompetition.simulator;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ *
+ * @author Wickramaranga
+ */
+public class VectorStepKernel implements StepKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void accumulate(double[] positions, double[] velocities, double factor,
+                           int count) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(count); i < bound; i += SPECIES.length()) {
+            DoubleVector velocity = DoubleVector.fromArray(SPECIES, velocities, i);
+            // Multiply then add (no fma), to round exactly like the scalar loop.
+            DoubleVector.fromArray(SPECIES, positions, i)
+                    .add(velocity.mul(factor))
+                    .intoArray(positions, i);
+        }
+        for (; i < count; i++) { // Lanes which do not fill a whole vector.
+            positions[i] += factor * velocities[i];
+        }
+    }
+
+}
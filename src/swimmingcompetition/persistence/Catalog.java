@@ -0,0 +1,404 @@
+/*
+ * Catalog.java
+ * Summaries of the competitions saved in a directory, kept in a file so they
+ * can be listed without reading the directory again.
+ */
+package swimmingcompetition.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import swimmingcompetition.simulator.Observable;
+
+/**
+ * Every entry keeps the time of modification and the size of its file, so a
+ * file whose entry is out of date is found from its attributes alone, and
+ * only its header is read again.
+ * <p>
+ * A catalog found on the disk is used as it is, and checked against the
+ * directory in the background. Without one, the headers of all files are
+ * read in parallel, also in the background. Once watching, changes to the
+ * directory are applied to the catalog as they happen and the catalog file is
+ * written when the directory has been quiet for a second. Observers are told the name of each
+ * competition that changed, from the watching thread.
+ *
+ * @author Wickramaranga
+ */
+public class Catalog extends Observable {
+
+    /**
+     * Name of the catalog file in the directory.
+     */
+    public static final String CATALOG_NAME = "catalog.w-scc";
+
+    private static final int MAGIC = 0x57534343; // "WSCC"
+    private static final short VERSION = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long QUIET_MILLIS = 1000; // Before writing the catalog.
+    private static final Logger LOGGER = Logger.getLogger(Catalog.class.getName());
+
+    private static final class Entry {
+
+        final long modified;
+        final long size;
+        final CompetitionSummary summary;
+
+        Entry(long modified, long size, CompetitionSummary summary) {
+            this.modified = modified;
+            this.size = size;
+            this.summary = summary;
+        }
+
+    }
+
+    private final Path directory;
+    private final Path file;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile boolean dirty;
+    private WatchService watchService;
+
+    private Catalog(Path directory) {
+        this.directory = directory;
+        this.file = directory.resolve(CATALOG_NAME);
+    }
+
+    /**
+     * Opens the catalog of a directory and starts watching the directory.
+     * Returns at once: the directory is scanned in the background, and
+     * observers are told when the scan changed the catalog. Without a catalog
+     * file, the catalog is empty until then.
+     *
+     * @param directory directory of saved competitions.
+     * @return the catalog.
+     */
+    public static Catalog open(Path directory) {
+        final Catalog catalog = new Catalog(directory);
+        boolean found = catalog.read();
+        catalog.watch();
+        // Cold, the files are read; otherwise changes made while nobody was
+        // watching are picked up.
+        Thread scanner = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                catalog.scan();
+            }
+        }, found ? "Catalog reconciler" : "Catalog scanner");
+        scanner.setDaemon(true);
+        scanner.start();
+        return catalog;
+    }
+
+    /**
+     * Gets the summaries of the saved competitions.
+     *
+     * @return the summaries, ordered by name.
+     */
+    public List<CompetitionSummary> getSummaries() {
+        List<CompetitionSummary> summaries = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            summaries.add(entry.summary);
+        }
+        Collections.sort(summaries, new Comparator<CompetitionSummary>() {
+            @Override
+            public int compare(CompetitionSummary a, CompetitionSummary b) {
+                return a.getName().compareTo(b.getName());
+            }
+        });
+        return summaries;
+    }
+
+    /**
+     * Reads the summary of a competition again, after it has been saved or
+     * removed.
+     *
+     * @param name name of the competition.
+     */
+    public void refresh(String name) {
+        if (refreshEntry(name)) {
+            dirty = true;
+            notifyObservers(this, name);
+        }
+    }
+
+    /**
+     * Stops watching the directory and writes the catalog if it has changed.
+     */
+    public synchronized void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ex) {
+                LOGGER.log(Level.FINE, null, ex);
+            }
+            watchService = null;
+        }
+        if (dirty) {
+            write();
+        }
+    }
+
+    @Override
+    public void notifyObservers(Observable o, Object arg) {
+        getSubscribers().deliver(o, arg); // Not the EDT.
+    }
+
+    // Brings the entries up to date with the directory, reading the headers
+    // of the files which changed on all processors.
+    private void scan() {
+        final List<Path> changed = new ArrayList<>();
+        Set<String> present = new HashSet<>();
+        try (DirectoryStream<Path> files
+                = Files.newDirectoryStream(directory, "*" + Persistence.EXTENSION)) {
+            for (Path path : files) {
+                String name = nameOf(path);
+                present.add(name);
+                Entry entry = entries.get(name);
+                if (entry == null || isStale(entry, path)) {
+                    changed.add(path);
+                }
+            }
+        } catch (NoSuchFileException ex) {
+            // Nothing saved yet.
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, "Cannot list " + directory, ex);
+            return;
+        }
+        boolean removed = false;
+        for (Map.Entry<String, Entry> named : entries.entrySet()) {
+            // The watcher may have added the file since it was listed; its
+            // entry is then kept, even if put just now.
+            String name = named.getKey();
+            if (!present.contains(name)
+                && !Files.exists(directory.resolve(name + Persistence.EXTENSION))
+                && entries.remove(name, named.getValue())) {
+                removed = true;
+            }
+        }
+
+        int threads = Math.max(1, Math.min(changed.size() / 64,
+                                           Runtime.getRuntime().availableProcessors()));
+        ExecutorService readers = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Catalog scanner");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int first = t;
+            final int step = threads;
+            results.add(readers.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    for (int i = first; i < changed.size(); i += step) {
+                        refreshEntry(nameOf(changed.get(i)));
+                    }
+                    return null;
+                }
+            }));
+        }
+        readers.shutdown();
+        for (Future<?> result : results) {
+            try {
+                result.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException ex) {
+                LOGGER.log(Level.WARNING, "Cannot read headers", ex.getCause());
+            }
+        }
+
+        if (removed || !changed.isEmpty()) {
+            dirty = true;
+            notifyObservers(this, null); // Anything may have changed.
+        }
+    }
+
+    private boolean isStale(Entry entry, Path path) {
+        try {
+            BasicFileAttributes attributes
+                    = Files.readAttributes(path, BasicFileAttributes.class);
+            return attributes.lastModifiedTime().toMillis() != entry.modified
+                   || attributes.size() != entry.size;
+        } catch (IOException ex) {
+            return true; // Changing right now.
+        }
+    }
+
+    // Returns whether the entry changed.
+    private boolean refreshEntry(String name) {
+        Path path = directory.resolve(name + Persistence.EXTENSION);
+        try {
+            BasicFileAttributes attributes
+                    = Files.readAttributes(path, BasicFileAttributes.class);
+            CompetitionSummary summary = Persistence.readSummary(path, name);
+            if (summary == null) {
+                return entries.remove(name) != null;
+            }
+            entries.put(name, new Entry(attributes.lastModifiedTime().toMillis(),
+                                        attributes.size(), summary));
+            return true;
+        } catch (IOException ex) { // Removed.
+            return entries.remove(name) != null;
+        }
+    }
+
+    private synchronized void watch() {
+        try {
+            Files.createDirectories(directory);
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                               StandardWatchEventKinds.ENTRY_MODIFY,
+                               StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException | UnsupportedOperationException ex) {
+            LOGGER.log(Level.INFO, "Not watching " + directory, ex);
+            watchService = null;
+            return;
+        }
+        final WatchService service = watchService;
+        Thread watcher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                follow(service);
+            }
+        }, "Catalog watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void follow(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    if (dirty) {
+                        write();
+                    }
+                    continue;
+                }
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        scan(); // Events lost.
+                    } else {
+                        String fileName = event.context().toString();
+                        if (fileName.endsWith(Persistence.EXTENSION)) {
+                            refresh(fileName.substring(
+                                    0, fileName.length() - Persistence.EXTENSION.length()));
+                        }
+                    }
+                }
+                if (!key.reset()) {
+                    return; // Directory gone.
+                }
+            }
+        } catch (ClosedWatchServiceException ex) {
+            // Closed.
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean read() {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(
+                     Channels.newInputStream(channel), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+                throw new StreamCorruptedException("Not a catalog.");
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                long modified = in.readLong();
+                long size = in.readLong();
+                CompetitionSummary summary = new CompetitionSummary(
+                        name, in.readInt(), in.readInt(), in.readInt(), in.readInt(),
+                        in.readLong(), size);
+                entries.put(name, new Entry(modified, size, summary));
+            }
+            return true;
+        } catch (NoSuchFileException ex) {
+            return false;
+        } catch (IOException ex) {
+            LOGGER.log(Level.INFO, "Catalog not usable, scanning " + directory, ex);
+            entries.clear();
+            return false;
+        }
+    }
+
+    private synchronized void write() {
+        dirty = false; // Changes from now on are written next time.
+        Path written = directory.resolve(CATALOG_NAME + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(written, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                         Channels.newOutputStream(channel), BUFFER_SIZE))) {
+                List<Map.Entry<String, Entry>> snapshot = new ArrayList<>(entries.entrySet());
+                out.writeInt(MAGIC);
+                out.writeShort(VERSION);
+                out.writeInt(snapshot.size());
+                for (Map.Entry<String, Entry> named : snapshot) {
+                    Entry entry = named.getValue();
+                    CompetitionSummary summary = entry.summary;
+                    out.writeUTF(named.getKey());
+                    out.writeLong(entry.modified);
+                    out.writeLong(entry.size);
+                    out.writeInt(summary.getPoolLength());
+                    out.writeInt(summary.getLaneCount());
+                    out.writeInt(summary.getSwimmerCount());
+                    out.writeInt(summary.getRoundCount());
+                    out.writeLong(summary.getLastModified());
+                }
+            }
+            Files.move(written, file, StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            dirty = true;
+            LOGGER.log(Level.WARNING, "Cannot write " + file, ex);
+        }
+    }
+
+    private static String nameOf(Path path) {
+        String fileName = path.getFileName().toString();
+        return fileName.substring(0, fileName.length() - Persistence.EXTENSION.length());
+    }
+
+}
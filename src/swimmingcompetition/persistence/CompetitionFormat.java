@@ -0,0 +1,285 @@
+/*
+ * CompetitionFormat.java
+ * Versioned binary format of saved competitions. Written and read as a stream,
+ * one record after another, without building an object graph.
+ */
+package swimmingcompetition.persistence;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import swimmingcompetition.simulator.FemaleSwimmer;
+import swimmingcompetition.simulator.Gender;
+import swimmingcompetition.simulator.Judge;
+import swimmingcompetition.simulator.MaleSwimmer;
+import swimmingcompetition.simulator.Person;
+import swimmingcompetition.simulator.RoundHistory;
+import swimmingcompetition.simulator.Scoreboard;
+import swimmingcompetition.simulator.Spectator;
+import swimmingcompetition.simulator.Stroke;
+import swimmingcompetition.simulator.SupportingStaffMember;
+import swimmingcompetition.simulator.Swimmer;
+import swimmingcompetition.simulator.SwimmingCompetition;
+import swimmingcompetition.simulator.TieBreakPolicy;
+
+/**
+ * A competition is a roster followed by rounds. All numbers are big endian
+ * and all names modified UTF-8.
+ * <pre>
+ * roster: pool length, lane count (int), tie break policy (byte)
+ *         judges, spectators, staff: count (int), then a name each
+ *         swimmers: count (int), then name, gender (byte), skill (double)
+ *         and whether registered in the competition (boolean) each
+ * round:  seed (long), stroke (byte, -1 if not known), tie break policy
+ *         (byte), start time (long, millis), finish count (int), then
+ *         swimmer index (int), lane (int) and time taken (long, nanos) for
+ *         each finish in the order it was reported
+ * </pre>
+ * Version 1 files are magic "WSCS", version (short), the roster, the round
+ * count (int) and the rounds. Later versions keep the roster and the rounds
+ * as records of a RoundJournal.
+ * <p>
+ * Race logs are not saved; a round is simulated again from its seed when its
+ * race log is needed.
+ *
+ * @author Wickramaranga
+ */
+public final class CompetitionFormat {
+
+    /**
+     * First four bytes of a saved competition, "WSCS".
+     */
+    public static final int MAGIC = 0x57534353;
+
+    /**
+     * Version of files holding the whole competition in one stream.
+     */
+    public static final short STREAM_VERSION = 1;
+
+    private CompetitionFormat() {
+    }
+
+    /**
+     * People and pool configuration of a competition, with the swimmers in
+     * the order their indices refer to.
+     */
+    /*package*/ static final class Roster {
+
+        /*package*/ int poolLength;
+        /*package*/ int laneCount;
+        /*package*/ TieBreakPolicy tieBreakPolicy;
+        /*package*/ final List<Judge> judges = new ArrayList<>();
+        /*package*/ final List<Spectator> spectators = new ArrayList<>();
+        /*package*/ final List<SupportingStaffMember> staff = new ArrayList<>();
+        /*package*/ final List<Swimmer> swimmers = new ArrayList<>();
+        /*package*/ final List<Swimmer> registered = new ArrayList<>();
+
+        /*package*/ SwimmingCompetition restore(List<Scoreboard> rounds) {
+            return SwimmingCompetition.restore(judges, spectators, registered, staff,
+                                               laneCount, poolLength, tieBreakPolicy,
+                                               rounds);
+        }
+
+        /*package*/ SwimmingCompetition restore(RoundHistory oldRounds, Scoreboard current) {
+            return SwimmingCompetition.restore(judges, spectators, registered, staff,
+                                               laneCount, poolLength, tieBreakPolicy,
+                                               oldRounds, current);
+        }
+
+    }
+
+    /**
+     * Reads a version 1 competition.
+     *
+     * @param in the stream to read from, at the magic number.
+     * @return the competition, with its finished rounds.
+     * @throws IOException if reading fails or the data is not a competition.
+     */
+    public static SwimmingCompetition read(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new StreamCorruptedException("Not a saved competition.");
+        }
+        short version = in.readShort();
+        if (version > STREAM_VERSION && version <= RoundJournal.VERSION) {
+            throw new StreamCorruptedException("Damaged or incomplete journal header.");
+        }
+        if (version != STREAM_VERSION) {
+            throw new StreamCorruptedException("Unsupported version " + version + ".");
+        }
+        Roster roster = readRoster(in);
+        int roundCount = readCount(in);
+        List<Scoreboard> rounds = new ArrayList<>();
+        for (int round = 0; round < roundCount; round++) {
+            rounds.add(readRound(in, roster));
+        }
+        return roster.restore(rounds);
+    }
+
+    /**
+     * Gets the swimmers to be written in the roster: the registered swimmers,
+     * then those who swam in the given rounds without being registered.
+     */
+    /*package*/ static List<Swimmer> swimmerTable(SwimmingCompetition competition,
+                                                  int roundCount) {
+        List<Swimmer> swimmers = new ArrayList<>(competition.getSwimmers());
+        Map<Swimmer, Integer> indices = indices(swimmers);
+        for (int round = 0; round < roundCount; round++) {
+            for (Scoreboard.Finish finish
+                 : competition.getRoundScoreboard(round).getFinishesSince(0)) {
+                if (!indices.containsKey(finish.getSwimmer())) {
+                    indices.put(finish.getSwimmer(), swimmers.size());
+                    swimmers.add(finish.getSwimmer());
+                }
+            }
+        }
+        return swimmers;
+    }
+
+    /*package*/ static Map<Swimmer, Integer> indices(List<Swimmer> swimmers) {
+        Map<Swimmer, Integer> indices = new IdentityHashMap<>();
+        for (int i = 0; i < swimmers.size(); i++) {
+            indices.put(swimmers.get(i), i);
+        }
+        return indices;
+    }
+
+    /*package*/ static void writeRoster(SwimmingCompetition competition,
+                                        List<Swimmer> swimmers, DataOutput out)
+            throws IOException {
+        out.writeInt(competition.getPoolLength());
+        out.writeInt(competition.getLaneCount());
+        out.writeByte(competition.getTieBreakPolicy().ordinal());
+        writeNames(competition.getJudges(), out);
+        writeNames(competition.getSpectators(), out);
+        writeNames(competition.getStaff(), out);
+
+        int registered = competition.getSwimmers().size(); // Come first.
+        out.writeInt(swimmers.size());
+        for (int i = 0; i < swimmers.size(); i++) {
+            Swimmer swimmer = swimmers.get(i);
+            out.writeUTF(swimmer.getName());
+            out.writeByte(swimmer.getGender().ordinal());
+            out.writeDouble(swimmer.getPlayerSpeedFactor());
+            out.writeBoolean(i < registered);
+        }
+    }
+
+    /*package*/ static Roster readRoster(DataInput in) throws IOException {
+        Roster roster = new Roster();
+        roster.poolLength = in.readInt();
+        roster.laneCount = in.readInt();
+        roster.tieBreakPolicy = readEnum(TieBreakPolicy.values(), in.readByte());
+        for (String name : readNames(in)) {
+            roster.judges.add(new Judge(name));
+        }
+        for (String name : readNames(in)) {
+            roster.spectators.add(new Spectator(name));
+        }
+        for (String name : readNames(in)) {
+            roster.staff.add(new SupportingStaffMember(name));
+        }
+
+        int swimmerCount = readCount(in);
+        for (int i = 0; i < swimmerCount; i++) {
+            String name = in.readUTF();
+            Gender gender = readEnum(Gender.values(), in.readByte());
+            double skill = in.readDouble();
+            Swimmer swimmer = gender == Gender.MALE
+                              ? new MaleSwimmer(name, skill)
+                              : new FemaleSwimmer(name, skill);
+            roster.swimmers.add(swimmer);
+            if (in.readBoolean()) {
+                roster.registered.add(swimmer);
+            }
+        }
+        return roster;
+    }
+
+    /**
+     * Writes a finished round. Every swimmer of the round must have an index.
+     */
+    /*package*/ static void writeRound(Scoreboard scoreboard,
+                                       Map<Swimmer, Integer> indices, DataOutput out)
+            throws IOException {
+        List<Scoreboard.Finish> finishes = scoreboard.getFinishesSince(0);
+        out.writeLong(scoreboard.getSeed());
+        out.writeByte(scoreboard.getStroke() == null
+                      ? -1 : scoreboard.getStroke().ordinal());
+        out.writeByte(scoreboard.getTieBreakPolicy().ordinal());
+        out.writeLong(scoreboard.getStartTime().getTime());
+        out.writeInt(finishes.size());
+        for (Scoreboard.Finish finish : finishes) {
+            out.writeInt(indices.get(finish.getSwimmer()));
+            out.writeInt(finish.getLane());
+            out.writeLong(finish.getElapsedNanos());
+        }
+    }
+
+    /*package*/ static Scoreboard readRound(DataInput in, Roster roster)
+            throws IOException {
+        long seed = in.readLong();
+        byte strokeOrdinal = in.readByte();
+        Stroke stroke = strokeOrdinal < 0
+                        ? null : readEnum(Stroke.values(), strokeOrdinal);
+        TieBreakPolicy tieBreakPolicy = readEnum(TieBreakPolicy.values(), in.readByte());
+        long startMillis = in.readLong();
+        int finishCount = readCount(in);
+        if (finishCount > roster.laneCount) {
+            throw new StreamCorruptedException("Too many finishes " + finishCount + ".");
+        }
+        Swimmer[] swimmers = new Swimmer[finishCount];
+        int[] lanes = new int[finishCount];
+        long[] elapsedNanos = new long[finishCount];
+        for (int i = 0; i < finishCount; i++) {
+            int index = in.readInt();
+            if (index < 0 || index >= roster.swimmers.size()) {
+                throw new StreamCorruptedException("Unknown swimmer " + index + ".");
+            }
+            swimmers[i] = roster.swimmers.get(index);
+            lanes[i] = in.readInt();
+            elapsedNanos[i] = in.readLong();
+        }
+        return Scoreboard.restore(seed, stroke, tieBreakPolicy, startMillis,
+                                  swimmers, lanes, elapsedNanos);
+    }
+
+    private static void writeNames(List<? extends Person> people, DataOutput out)
+            throws IOException {
+        out.writeInt(people.size());
+        for (Person person : people) {
+            out.writeUTF(person.getName());
+        }
+    }
+
+    private static List<String> readNames(DataInput in) throws IOException {
+        int count = readCount(in);
+        List<String> names = new ArrayList<>(); // Count not trusted.
+        for (int i = 0; i < count; i++) {
+            names.add(in.readUTF());
+        }
+        return names;
+    }
+
+    private static int readCount(DataInput in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new StreamCorruptedException("Negative count " + count + ".");
+        }
+        return count;
+    }
+
+    private static <E extends Enum<E>> E readEnum(E[] values, byte ordinal)
+            throws IOException {
+        if (ordinal < 0 || ordinal >= values.length) {
+            throw new StreamCorruptedException("Unknown constant " + ordinal + ".");
+        }
+        return values[ordinal];
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * CompetitionSummary.java
+ * What a saved competition holds, read from the header of its file without
+ * loading it.
+ */
+package swimmingcompetition.persistence;
+
+import java.text.DateFormat;
+import java.util.Date;
+
+/**
+ * Files saved by older versions have no summary; only their name, size and
+ * time of modification are known.
+ *
+ * @author Wickramaranga
+ */
+public class CompetitionSummary {
+
+    /**
+     * Value of the counts which are not known.
+     */
+    public static final int UNKNOWN = -1;
+
+    private final String name;
+    private final int poolLength;
+    private final int laneCount;
+    private final int swimmerCount;
+    private final int roundCount;
+    private final long lastModified;
+    private final long size;
+
+    /**
+     * Creates a summary.
+     *
+     * @param name name of the competition.
+     * @param poolLength length of the pool, or UNKNOWN.
+     * @param laneCount number of lanes in the pool, or UNKNOWN.
+     * @param swimmerCount number of registered swimmers, or UNKNOWN.
+     * @param roundCount number of finished rounds saved, or UNKNOWN.
+     * @param lastModified time of the last save in milliseconds since the epoch.
+     * @param size size of the file in bytes.
+     */
+    public CompetitionSummary(String name, int poolLength, int laneCount, int swimmerCount,
+                              int roundCount, long lastModified, long size) {
+        this.name = name;
+        this.poolLength = poolLength;
+        this.laneCount = laneCount;
+        this.swimmerCount = swimmerCount;
+        this.roundCount = roundCount;
+        this.lastModified = lastModified;
+        this.size = size;
+    }
+
+    /**
+     * Gets the name of the competition, which is also the name of its file.
+     *
+     * @return the name of the competition.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the length of the pool.
+     *
+     * @return the pool length, or UNKNOWN.
+     */
+    public int getPoolLength() {
+        return poolLength;
+    }
+
+    /**
+     * Gets the number of lanes in the pool.
+     *
+     * @return the lane count, or UNKNOWN.
+     */
+    public int getLaneCount() {
+        return laneCount;
+    }
+
+    /**
+     * Gets the number of registered swimmers.
+     *
+     * @return the swimmer count, or UNKNOWN.
+     */
+    public int getSwimmerCount() {
+        return swimmerCount;
+    }
+
+    /**
+     * Gets the number of finished rounds saved.
+     *
+     * @return the round count, or UNKNOWN.
+     */
+    public int getRoundCount() {
+        return roundCount;
+    }
+
+    /**
+     * Gets the time the competition was last saved.
+     *
+     * @return milliseconds since the epoch.
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Gets the size of the file.
+     *
+     * @return size in bytes.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Gets whether the counts and the pool are known.
+     *
+     * @return false for files saved by older versions.
+     */
+    public boolean isDetailed() {
+        return roundCount != UNKNOWN;
+    }
+
+    @Override
+    public String toString() {
+        String saved = DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT)
+                .format(new Date(lastModified));
+        if (!isDetailed()) {
+            return String.format("%s (older format, saved %s)", name, saved);
+        }
+        return String.format("%s (%d lanes x %d m, %d swimmers, %d rounds, saved %s)",
+                             name, laneCount, poolLength, swimmerCount, roundCount, saved);
+    }
+
+}
@@ -0,0 +1,180 @@
+/*
+ * Compression.java
+ * Enumerates the codecs which blocks of a saved competition can be
+ * compressed with.
+ */
+package swimmingcompetition.persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Every block records the codec it was compressed with, so a file can hold
+ * blocks of different codecs and any of them can be read whichever codec is
+ * chosen for saving.
+ *
+ * @author Wickramaranga
+ */
+public enum Compression {
+
+    /**
+     * Blocks are stored as they are.
+     */
+    NONE(0) {
+        @Override
+        /*package*/ byte[] encode(byte[] raw) {
+            return raw;
+        }
+
+        @Override
+        /*package*/ byte[] decode(byte[] data, int rawLength) throws IOException {
+            if (data.length != rawLength) {
+                throw new StreamCorruptedException("Bad block length " + data.length + ".");
+            }
+            return data;
+        }
+    },
+    /**
+     * Deflate, favouring speed.
+     */
+    DEFLATE_FAST(1) {
+        @Override
+        /*package*/ byte[] encode(byte[] raw) {
+            return deflate(raw, Deflater.BEST_SPEED);
+        }
+
+        @Override
+        /*package*/ byte[] decode(byte[] data, int rawLength) throws IOException {
+            return inflate(data, rawLength);
+        }
+    },
+    /**
+     * Deflate at its default level.
+     */
+    DEFLATE(2) {
+        @Override
+        /*package*/ byte[] encode(byte[] raw) {
+            return deflate(raw, Deflater.DEFAULT_COMPRESSION);
+        }
+
+        @Override
+        /*package*/ byte[] decode(byte[] data, int rawLength) throws IOException {
+            return inflate(data, rawLength);
+        }
+    },
+    /**
+     * Deflate, favouring size. Meant for archived competitions.
+     */
+    DEFLATE_BEST(3) {
+        @Override
+        /*package*/ byte[] encode(byte[] raw) {
+            return deflate(raw, Deflater.BEST_COMPRESSION);
+        }
+
+        @Override
+        /*package*/ byte[] decode(byte[] data, int rawLength) throws IOException {
+            return inflate(data, rawLength);
+        }
+    },
+    /**
+     * LzCodec, faster than deflate but larger.
+     */
+    LZ(4) {
+        @Override
+        /*package*/ byte[] encode(byte[] raw) {
+            return LzCodec.compress(raw);
+        }
+
+        @Override
+        /*package*/ byte[] decode(byte[] data, int rawLength) throws IOException {
+            return LzCodec.decompress(data, rawLength);
+        }
+    };
+
+    private final byte id; // Written in the files; ordinals may change.
+
+    private Compression(int id) {
+        this.id = (byte) id;
+    }
+
+    /*package*/ byte getId() {
+        return id;
+    }
+
+    /**
+     * Compresses a block.
+     *
+     * @param raw the block.
+     * @return the compressed block.
+     */
+    /*package*/ abstract byte[] encode(byte[] raw);
+
+    /**
+     * Decompresses a block.
+     *
+     * @param data the compressed block.
+     * @param rawLength length of the block before compression.
+     * @return the block.
+     * @throws IOException if the data cannot be decompressed to that length.
+     */
+    /*package*/ abstract byte[] decode(byte[] data, int rawLength) throws IOException;
+
+    /*package*/ static Compression of(byte id) throws IOException {
+        for (Compression compression : values()) {
+            if (compression.id == id) {
+                return compression;
+            }
+        }
+        throw new StreamCorruptedException("Unknown compression " + id + ".");
+    }
+
+    private static byte[] deflate(byte[] raw, int level) {
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 64);
+            byte[] buffer = new byte[8 * 1024];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data, int rawLength) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            byte[] raw = new byte[rawLength];
+            int length = 0;
+            while (length < rawLength) {
+                int inflated = inflater.inflate(raw, length, rawLength - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary()
+                                      || inflater.finished())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length == rawLength && !inflater.finished()
+                && inflater.inflate(new byte[1]) > 0) { // Reads the end of the stream.
+                length++;
+            }
+            if (length != rawLength || !inflater.finished()) {
+                throw new StreamCorruptedException("Bad compressed block.");
+            }
+            return raw;
+        } catch (DataFormatException ex) {
+            throw new StreamCorruptedException("Bad compressed block.");
+        } finally {
+            inflater.end();
+        }
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Crc32c.java
+ * CRC-32C (Castagnoli) checksum, which detects more of the errors of storage
+ * than CRC-32.
+ */
+package swimmingcompetition.persistence;
+
+import java.lang.reflect.Constructor;
+import java.nio.ByteBuffer;
+import java.util.zip.Checksum;
+
+/**
+ * Computed eight bytes at a time with the tables of the slicing-by-8 method.
+ * Java 8 has no CRC-32C of its own; later versions have one computed with
+ * processor instructions, which create() gives where it is present.
+ *
+ * @author Wickramaranga
+ */
+/*package*/ final class Crc32c implements Checksum {
+
+    private static final int POLYNOMIAL = 0x82F63B78; // Reversed.
+    private static final int[][] TABLES = new int[8][256];
+
+    static {
+        for (int n = 0; n < 256; n++) {
+            int crc = n;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 1) != 0 ? (crc >>> 1) ^ POLYNOMIAL : crc >>> 1;
+            }
+            TABLES[0][n] = crc;
+        }
+        for (int n = 0; n < 256; n++) {
+            for (int t = 1; t < 8; t++) {
+                int previous = TABLES[t - 1][n];
+                TABLES[t][n] = (previous >>> 8) ^ TABLES[0][previous & 0xFF];
+            }
+        }
+    }
+
+    private static final Constructor<? extends Checksum> PLATFORM = platform();
+
+    private int crc = 0xFFFFFFFF;
+
+    /**
+     * Creates a CRC-32C checksum, the one of the platform if there is one.
+     *
+     * @return a new checksum.
+     */
+    /*package*/ static Checksum create() {
+        if (PLATFORM != null) {
+            try {
+                return PLATFORM.newInstance();
+            } catch (ReflectiveOperationException ex) {
+                // Computed here instead.
+            }
+        }
+        return new Crc32c();
+    }
+
+    /**
+     * Updates a checksum with the remaining bytes of a buffer, which are
+     * consumed.
+     *
+     * @param checksum the checksum.
+     * @param buffer the bytes.
+     */
+    /*package*/ static void update(Checksum checksum, ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            checksum.update(buffer.array(), buffer.arrayOffset() + buffer.position(),
+                            buffer.remaining());
+            buffer.position(buffer.limit());
+            return;
+        }
+        byte[] chunk = new byte[Math.min(buffer.remaining(), 8 * 1024)];
+        while (buffer.hasRemaining()) {
+            int length = Math.min(chunk.length, buffer.remaining());
+            buffer.get(chunk, 0, length);
+            checksum.update(chunk, 0, length);
+        }
+    }
+
+    private static Constructor<? extends Checksum> platform() {
+        try {
+            return Class.forName("java.util.zip.CRC32C").asSubclass(Checksum.class)
+                    .getConstructor();
+        } catch (ClassNotFoundException | NoSuchMethodException ex) {
+            return null; // Java 8.
+        }
+    }
+
+    @Override
+    public void update(int b) {
+        crc = (crc >>> 8) ^ TABLES[0][(crc ^ b) & 0xFF];
+    }
+
+    @Override
+    public void update(byte[] b, int off, int len) {
+        int value = crc;
+        int end = off + len;
+        int[] t0 = TABLES[0], t1 = TABLES[1], t2 = TABLES[2], t3 = TABLES[3];
+        int[] t4 = TABLES[4], t5 = TABLES[5], t6 = TABLES[6], t7 = TABLES[7];
+        for (; off + 8 <= end; off += 8) {
+            int low = value ^ ((b[off] & 0xFF) | (b[off + 1] & 0xFF) << 8
+                               | (b[off + 2] & 0xFF) << 16 | (b[off + 3] & 0xFF) << 24);
+            value = t7[low & 0xFF] ^ t6[(low >>> 8) & 0xFF]
+                    ^ t5[(low >>> 16) & 0xFF] ^ t4[low >>> 24]
+                    ^ t3[b[off + 4] & 0xFF] ^ t2[b[off + 5] & 0xFF]
+                    ^ t1[b[off + 6] & 0xFF] ^ t0[b[off + 7] & 0xFF];
+        }
+        for (; off < end; off++) {
+            value = (value >>> 8) ^ t0[(value ^ b[off]) & 0xFF];
+        }
+        crc = value;
+    }
+
+    @Override
+    public long getValue() {
+        return ~crc & 0xFFFFFFFFL;
+    }
+
+    @Override
+    public void reset() {
+        crc = 0xFFFFFFFF;
+    }
+
+}
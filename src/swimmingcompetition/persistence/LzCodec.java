@@ -0,0 +1,151 @@
+/*
+ * LzCodec.java
+ * A small LZ77 codec in the manner of LZ4, trading compression for speed.
+ */
+package swimmingcompetition.persistence;
+
+import java.io.StreamCorruptedException;
+import java.util.Arrays;
+
+/**
+ * Compressed data is a sequence of a token byte, literals and a match. The
+ * high four bits of the token are the number of literals and the low four
+ * the length of the match less four; 15 means more of the length follows in
+ * bytes, each added until one is less than 255. The literals come next, then
+ * the distance back to the match (short) and the rest of its length. The
+ * last sequence has literals only, and ends where the data ends.
+ * <p>
+ * Matches are found through a table of the last position of each hash of four
+ * bytes, so compressing is a single pass over the data.
+ *
+ * @author Wickramaranga
+ */
+/*package*/ final class LzCodec {
+
+    private static final int MIN_MATCH = 4;
+    private static final int MAX_DISTANCE = 0xFFFF;
+    private static final int HASH_BITS = 14;
+    private static final int RUN_MASK = 15;
+
+    private LzCodec() {
+    }
+
+    /*package*/ static byte[] compress(byte[] src) {
+        int length = src.length;
+        byte[] dst = new byte[length + length / 255 + 16]; // Enough for literals only.
+        int[] table = new int[1 << HASH_BITS];
+        Arrays.fill(table, -1);
+
+        int position = 0;
+        int anchor = 0; // Start of the literals not yet written.
+        int written = 0;
+        while (position + MIN_MATCH <= length) {
+            int sequence = readInt(src, position);
+            int slot = (sequence * -1640531535) >>> (32 - HASH_BITS);
+            int candidate = table[slot];
+            table[slot] = position;
+            if (candidate < 0 || position - candidate > MAX_DISTANCE
+                || readInt(src, candidate) != sequence) {
+                position++;
+                continue;
+            }
+            int matched = MIN_MATCH;
+            while (position + matched < length
+                   && src[candidate + matched] == src[position + matched]) {
+                matched++;
+            }
+            int literals = position - anchor;
+            int token = written++;
+            dst[token] = (byte) ((Math.min(literals, RUN_MASK) << 4)
+                                 | Math.min(matched - MIN_MATCH, RUN_MASK));
+            written = writeLength(dst, written, literals);
+            System.arraycopy(src, anchor, dst, written, literals);
+            written += literals;
+            int distance = position - candidate;
+            dst[written++] = (byte) (distance >>> 8);
+            dst[written++] = (byte) distance;
+            written = writeLength(dst, written, matched - MIN_MATCH);
+            position += matched;
+            anchor = position;
+        }
+        int literals = length - anchor;
+        dst[written++] = (byte) (Math.min(literals, RUN_MASK) << 4);
+        written = writeLength(dst, written, literals);
+        System.arraycopy(src, anchor, dst, written, literals);
+        written += literals;
+        return Arrays.copyOf(dst, written);
+    }
+
+    /*package*/ static byte[] decompress(byte[] src, int rawLength)
+            throws StreamCorruptedException {
+        byte[] dst = new byte[rawLength];
+        int read = 0;
+        int written = 0;
+        try {
+            while (true) {
+                int token = src[read++] & 0xFF;
+                int literals = token >>> 4;
+                if (literals == RUN_MASK) {
+                    int more;
+                    do {
+                        more = src[read++] & 0xFF;
+                        literals += more;
+                    } while (more == 255);
+                }
+                if (literals > rawLength - written || literals > src.length - read) {
+                    throw new StreamCorruptedException("Bad literal length.");
+                }
+                System.arraycopy(src, read, dst, written, literals);
+                read += literals;
+                written += literals;
+                if (read == src.length) {
+                    break; // The last sequence.
+                }
+
+                int distance = ((src[read] & 0xFF) << 8) | (src[read + 1] & 0xFF);
+                read += 2;
+                int matched = token & RUN_MASK;
+                if (matched == RUN_MASK) {
+                    int more;
+                    do {
+                        more = src[read++] & 0xFF;
+                        matched += more;
+                    } while (more == 255);
+                }
+                matched += MIN_MATCH;
+                if (distance == 0 || distance > written || matched > rawLength - written) {
+                    throw new StreamCorruptedException("Bad match.");
+                }
+                for (int i = 0; i < matched; i++) { // May overlap itself.
+                    dst[written] = dst[written - distance];
+                    written++;
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException ex) {
+            throw new StreamCorruptedException("Compressed block ends early.");
+        }
+        if (written != rawLength) {
+            throw new StreamCorruptedException("Bad compressed block length.");
+        }
+        return dst;
+    }
+
+    private static int writeLength(byte[] dst, int written, int length) {
+        if (length < RUN_MASK) {
+            return written;
+        }
+        length -= RUN_MASK;
+        while (length >= 255) {
+            dst[written++] = (byte) 255;
+            length -= 255;
+        }
+        dst[written++] = (byte) length;
+        return written;
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] << 24) | ((bytes[offset + 1] & 0xFF) << 16)
+               | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+
+}
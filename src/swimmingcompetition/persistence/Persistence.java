@@ -5,33 +5,69 @@
  */
 package swimmingcompetition.persistence;
 
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.FilenameFilter;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 
+import swimmingcompetition.persistence.legacy.LegacyFormat;
+import swimmingcompetition.simulator.SwimmingCompetition;
+
 /**
+ * Competitions are saved as a RoundJournal. Files saved in the stream format
+ * of CompetitionFormat by older versions, and with Java serialization by the
+ * first versions, can still be loaded, and compacting them converts them.
  *
  * @author Wickramaranga
  */
 public class Persistence {
 
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static Catalog catalog;
+    private static volatile Compression compression = Compression.DEFLATE;
+
+    /**
+     * System property naming another persistent storage directory, such as
+     * one for tests or benchmarks.
+     */
+    public static final String SAVE_PATH_PROPERTY = "swimmingcompetition.savePath";
+
     /**
      * (User's home directory)/.SwimmingCompetitionSimulator/ is the software's
-     * persistent storage directory.
+     * persistent storage directory, unless SAVE_PATH_PROPERTY names another.
      */
-    public static final String SAVE_PATH = System.getProperty("user.home")
-                                           + "/.SwimmingCompetitionSimulator/";
+    public static final String SAVE_PATH = savePath();
 
     /**
      * Custom file extension for SwimmingCompetition objects.
      */
     public static final String EXTENSION = ".w-scs";
 
+    /**
+     * Added to the name of a saved competition for the index of its rounds.
+     */
+    public static final String INDEX_EXTENSION = ".idx";
+
+    private static String savePath() {
+        String path = System.getProperty(SAVE_PATH_PROPERTY);
+        if (path == null || path.isEmpty()) {
+            return System.getProperty("user.home") + "/.SwimmingCompetitionSimulator/";
+        }
+        return path.endsWith("/") || path.endsWith(File.separator) ? path : path + "/";
+    }
+
     /**
      * Gets a list of SwimmingCompetition objects in the SAVE_PATH directory.
      *
@@ -39,22 +75,53 @@ public class Persistence {
      */
     public static List<String> listFiles() {
         List<String> list = new ArrayList<>();
-        File scsHome = new File(SAVE_PATH);
-        if (scsHome.isDirectory()) {
-            for (File f : scsHome.listFiles(new FilenameFilter() {
-                @Override
-                public boolean accept(File dir, String name) {
-                    return name.endsWith(EXTENSION);
-                }
-            })) {
-                String fileName = f.getName();
-                list.add(fileName.substring(
-                        0, fileName.length() - EXTENSION.length()));
-            }
+        for (CompetitionSummary summary : getCatalog().getSummaries()) {
+            list.add(summary.getName());
         }
         return list;
     }
 
+    /**
+     * Gets the catalog of the SAVE_PATH directory, opening it the first time.
+     *
+     * @return the catalog of saved competitions.
+     */
+    public static synchronized Catalog getCatalog() {
+        if (catalog == null) {
+            catalog = Catalog.open(Paths.get(SAVE_PATH));
+        }
+        return catalog;
+    }
+
+    /**
+     * Gets the codec competitions are saved with.
+     *
+     * @return the codec of new blocks.
+     */
+    public static Compression getCompression() {
+        return compression;
+    }
+
+    /**
+     * Sets the codec competitions are saved with. Blocks already saved keep
+     * their codec until the file is compacted.
+     *
+     * @param compression the codec of new blocks.
+     */
+    public static void setCompression(Compression compression) {
+        if (compression == null) {
+            throw new NullPointerException("compression");
+        }
+        Persistence.compression = compression;
+    }
+
+    // Saving does not wait for the watcher to see the change.
+    private static synchronized void refreshCatalog(String fileName) {
+        if (catalog != null) {
+            catalog.refresh(fileName);
+        }
+    }
+
     /**
      * Deletes given file from SwimmingCompetitionSimulator's persistent
      * storage.
@@ -64,43 +131,218 @@ public class Persistence {
      */
     public static boolean removeFile(String fileName) {
         File file = new File(SAVE_PATH + fileName + EXTENSION);
-        return file.delete();
+        new File(SAVE_PATH + fileName + EXTENSION + INDEX_EXTENSION).delete();
+        boolean removed = file.delete();
+        refreshCatalog(fileName);
+        return removed;
     }
 
     /**
-     * Serializes a SwimmingCompetition object as binary to a file.
+     * Saves a competition to a file, compressed with the codec of
+     * getCompression(). Rounds already in the file are not written again;
+     * only the rounds finished since the last save are appended. A competition
+     * loaded from a file then reads its rounds from the file saved.
+     *
+     * <p>
+     * Either way a crash while saving leaves the previous save whole: rounds
+     * are appended after what the file commits and forced to the disk before
+     * the file commits them, and a new file is written and forced beside the
+     * old one before it is renamed over it.
      *
-     * @param object the SwimmingCompetition object which needs to be saved.
+     * @param competition the competition which needs to be saved.
      * @param fileName name of the SwimmingCompetition.
-     * @return whether the file was saved.
-     */
-    public static boolean saveFile(Object object, String fileName) {
-        try (FileOutputStream fos
-                = new FileOutputStream(SAVE_PATH + fileName + EXTENSION);
-             ObjectOutputStream oos = new ObjectOutputStream(fos)) {
-            oos.writeObject(object);
-        } catch (Exception ex) {
-            //ex.printStackTrace();
-            return false;
+     * @throws IOException if the file cannot be written. The previous save,
+     * if any, is left as it was.
+     */
+    public static void saveFile(SwimmingCompetition competition, String fileName)
+            throws IOException {
+        Path path = Paths.get(SAVE_PATH + fileName + EXTENSION);
+        Compression codec = compression;
+        boolean appended = false;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ,
+                                                    StandardOpenOption.WRITE)) {
+            appended = RoundJournal.append(competition, channel, codec);
+        } catch (NoSuchFileException ex) {
+            // A new file.
+        }
+        if (!appended) {
+            writeNew(competition, path, codec); // Another competition, or a new file.
         }
-        return true;
+        refreshCatalog(fileName);
+        if (competition.getRoundHistory() instanceof RoundArchive) {
+            try { // Rounds now in the file need not stay in the heap.
+                ((RoundArchive) competition.getRoundHistory()).saved(
+                        path, Paths.get(SAVE_PATH + fileName + EXTENSION + INDEX_EXTENSION));
+            } catch (IOException ex) {
+                // Saved all the same; the rounds stay in the heap.
+            }
+        }
+    }
+
+    /**
+     * Loads a SwimmingCompetition object from a file. Only the last round is
+     * read; previous rounds are read from the file when they are asked for.
+     *
+     * @param fileName name of the competition to be loaded.
+     * @return the required competition.
+     * @throws IOException if the file cannot be read or is damaged.
+     */
+    public static SwimmingCompetition loadFile(String fileName) throws IOException {
+        return loadFile(fileName, null);
     }
 
     /**
-     * Loads a SwimmingCompetition object from a file.
+     * Loads a SwimmingCompetition object from a file, reporting the progress.
+     * Meant to be called from a background thread, as files of older versions
+     * are read completely.
      *
      * @param fileName name of the competition to be loaded.
-     * @return an object of the required competition if found or null otherwise.
-     */
-    public static Object loadFile(String fileName) {
-        try (FileInputStream fis
-                = new FileInputStream(SAVE_PATH + fileName + EXTENSION);
-             ObjectInputStream ois = new ObjectInputStream(fis)) {
-            return ois.readObject();
-        } catch (Exception ex) {
+     * @param listener told how far the file has been read, or null.
+     * @return the required competition.
+     * @throws IOException if the file cannot be read or is damaged.
+     */
+    public static SwimmingCompetition loadFile(String fileName, ProgressListener listener)
+            throws IOException {
+        Path path = Paths.get(SAVE_PATH + fileName + EXTENSION);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (RoundJournal.isJournal(channel)) {
+                return RoundArchive.open(
+                        path, Paths.get(SAVE_PATH + fileName + EXTENSION + INDEX_EXTENSION),
+                        listener);
+            }
+            // Saved by an older version.
+            InputStream stream = Channels.newInputStream(channel);
+            if (listener != null) {
+                stream = new ProgressInputStream(stream, listener, channel.size());
+            }
+            DataInputStream in = new DataInputStream(new BufferedInputStream(stream,
+                                                                             BUFFER_SIZE));
+            in.mark(2);
+            boolean legacy = in.readUnsignedShort() == LegacyFormat.MAGIC;
+            in.reset();
+            return legacy ? LegacyFormat.read(in) : CompetitionFormat.read(in);
+        } catch (RuntimeException ex) { // Data the simulator does not accept.
+            throw new IOException("Cannot restore the competition.", ex);
+        }
+    }
+
+    /**
+     * Reads the summary of a saved competition from the header of its file,
+     * without loading the competition.
+     *
+     * @param fileName name of the competition.
+     * @return the summary, or null if the file cannot be read.
+     */
+    public static CompetitionSummary readSummary(String fileName) {
+        return readSummary(Paths.get(SAVE_PATH + fileName + EXTENSION), fileName);
+    }
+
+    /*package*/ static CompetitionSummary readSummary(Path path, String fileName) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            RoundJournal.Header header = RoundJournal.Header.read(channel);
+            if (header == null) { // Saved by an older version.
+                return new CompetitionSummary(fileName, CompetitionSummary.UNKNOWN,
+                                              CompetitionSummary.UNKNOWN,
+                                              CompetitionSummary.UNKNOWN,
+                                              CompetitionSummary.UNKNOWN,
+                                              Files.getLastModifiedTime(path).toMillis(),
+                                              size);
+            }
+            return new CompetitionSummary(fileName, header.poolLength, header.laneCount,
+                                          header.swimmerCount, header.roundCount,
+                                          header.savedMillis, size);
+        } catch (IOException ex) {
             //ex.printStackTrace();
             return null;
         }
     }
 
+    /**
+     * Gets the summaries of the competitions in the SAVE_PATH directory, from
+     * the catalog. Until the catalog has been scanned for the first time, it
+     * may not list every file; its observers are told when it has.
+     *
+     * @return the summaries of the saved competitions which can be read.
+     */
+    public static List<CompetitionSummary> listSummaries() {
+        return getCatalog().getSummaries();
+    }
+
+    /**
+     * Writes a saved competition again into a new file which replaces it. This
+     * drops what an interrupted save left behind and converts files saved by
+     * older versions.
+     *
+     * @param fileName name of the competition to be compacted.
+     * @throws IOException if the file cannot be read or written. The file is
+     * left as it was.
+     */
+    public static void compactFile(String fileName) throws IOException {
+        compactFile(fileName, compression);
+    }
+
+    /**
+     * Writes a saved competition again into a new file which replaces it,
+     * with every block compressed by the given codec. Blocks are full in the
+     * new file, so it is smaller than one saved round by round.
+     *
+     * @param fileName name of the competition to be compacted.
+     * @param compression the codec of the blocks.
+     * @throws IOException if the file cannot be read or written. The file is
+     * left as it was.
+     */
+    public static void compactFile(String fileName, Compression compression)
+            throws IOException {
+        SwimmingCompetition competition = loadFile(fileName);
+        writeNew(competition, Paths.get(SAVE_PATH + fileName + EXTENSION), compression);
+        refreshCatalog(fileName);
+    }
+
+    /**
+     * Checks a saved competition for damage. The checksum of every block of
+     * a journal is checked without the rounds being read; files saved by
+     * older versions have no checksums and are loaded whole instead.
+     *
+     * @param fileName name of the competition to be checked.
+     * @return the number of rounds saved.
+     * @throws IOException if the file cannot be read or is damaged.
+     */
+    public static int verifyFile(String fileName) throws IOException {
+        Path path = Paths.get(SAVE_PATH + fileName + EXTENSION);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (RoundJournal.isJournal(channel)) {
+                return RoundJournal.verify(channel);
+            }
+        }
+        return loadFile(fileName).getRoundCount();
+    }
+
+    // The file is replaced rather than truncated, as it may be mapped by the
+    // competition being written. The new file is forced by RoundJournal
+    // before the rename, and the directory after it, so a crash leaves either
+    // file whole.
+    private static void writeNew(SwimmingCompetition competition, Path path,
+                                 Compression compression) throws IOException {
+        Path written = Paths.get(path + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(written, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                RoundJournal.write(competition, channel, compression);
+            }
+            Files.move(written, path, StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            Files.deleteIfExists(written);
+            throw ex;
+        }
+        try (FileChannel directory = FileChannel.open(path.getParent(),
+                                                      StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException ex) {
+            // Directories cannot be opened on some platforms; the rename is
+            // made durable by the file system there.
+        }
+    }
+
 }
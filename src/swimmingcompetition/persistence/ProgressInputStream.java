@@ -0,0 +1,69 @@
+/*
+ * ProgressInputStream.java
+ * Reports the bytes read through it to a progress listener.
+ * 
+ */
+package swimmingcompetition.persistence;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ *
+ * @author Wickramaranga
+ */
+/*package*/ class ProgressInputStream extends FilterInputStream {
+
+    private static final long STEP = 64 * 1024; // Bytes between reports.
+
+    private final ProgressListener listener;
+    private final long total;
+    private long done;
+    private long reported;
+
+    /*package*/ ProgressInputStream(InputStream in, ProgressListener listener, long total) {
+        super(in);
+        this.listener = listener;
+        this.total = total;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            advance(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            advance(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        advance(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false; // Would count bytes twice.
+    }
+
+    private void advance(long n) {
+        done += n;
+        if (done - reported >= STEP || done == total) {
+            reported = done;
+            listener.progressed(done, total);
+        }
+    }
+
+}
@@ -0,0 +1,22 @@
+/*
+ * ProgressListener.java
+ * Follows the progress of loading a saved competition.
+ * 
+ */
+package swimmingcompetition.persistence;
+
+/**
+ *
+ * @author Wickramaranga
+ */
+public interface ProgressListener {
+
+    /**
+     * Called from the loading thread as the file is read.
+     *
+     * @param done bytes of the file read so far.
+     * @param total bytes of the file to be read.
+     */
+    void progressed(long done, long total);
+
+}
@@ -0,0 +1,193 @@
+/*
+ * RoundArchive.java
+ * Previous rounds of a saved competition, read on demand from the memory
+ * mapped journal.
+ */
+package swimmingcompetition.persistence;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import swimmingcompetition.simulator.ListRoundHistory;
+import swimmingcompetition.simulator.RoundHistory;
+import swimmingcompetition.simulator.Scoreboard;
+import swimmingcompetition.simulator.SwimmingCompetition;
+
+/**
+ * Opening a competition maps its journal and reads only the roster and the
+ * last round. Any other round is found through the RoundIndex and read when
+ * it is asked for, decompressing only its block, so the heap used does not
+ * grow with the number of rounds saved. Rounds finished after opening are
+ * kept in the heap until the competition is saved again; the archive then
+ * maps the journal just saved and reads them from there.
+ *
+ * @author Wickramaranga
+ */
+public final class RoundArchive implements RoundHistory {
+
+    transient private ByteBuffer journal;
+    transient private RoundJournal.Header header;
+    transient private RoundIndex index;
+    transient private final CompetitionFormat.Roster roster;
+    private int archivedCount; // Rounds of the journal in this history.
+    private final List<Scoreboard> added;
+
+    transient private int cachedIndex = -1; // The spinner asks for one round at a time.
+    transient private Scoreboard cached;
+    transient private long cachedBlockOffset = -1; // Neighbours share a block.
+    transient private byte[][] cachedBlock;
+
+    private RoundArchive(ByteBuffer journal, RoundJournal.Header header, RoundIndex index,
+                         CompetitionFormat.Roster roster, int archivedCount) {
+        this.journal = journal;
+        this.header = header;
+        this.index = index;
+        this.roster = roster;
+        this.archivedCount = archivedCount;
+        this.added = new ArrayList<>();
+    }
+
+    /**
+     * Opens a saved competition. The last round saved becomes the current
+     * round; the rounds before it stay in the journal.
+     *
+     * @param journalPath the journal file.
+     * @param indexPath the index file, created or brought up to date if needed.
+     * @param listener told how far the journal has been read, or null.
+     * @return the competition.
+     * @throws IOException if the journal cannot be read.
+     */
+    public static SwimmingCompetition open(Path journalPath, Path indexPath,
+                                           ProgressListener listener) throws IOException {
+        try (FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.READ)) {
+            RoundJournal.Header header = RoundJournal.Header.read(channel);
+            if (header == null) {
+                throw new IOException("Not a competition journal.");
+            }
+            if (header.committedLength > Integer.MAX_VALUE) {
+                throw new IOException("Journal too large to map.");
+            }
+            // The mapping stays valid after the channel is closed.
+            ByteBuffer journal = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                                             header.committedLength);
+            CompetitionFormat.Roster roster = CompetitionFormat.readRoster(stream(
+                    RoundJournal.readBlock(journal, header, RoundJournal.HEADER_SIZE)[0]));
+            RoundIndex index = RoundIndex.open(indexPath, journal, header, listener);
+            RoundArchive archive = new RoundArchive(journal, header, index, roster,
+                                                    Math.max(0, header.roundCount - 1));
+            Scoreboard current = header.roundCount == 0
+                                 ? null : archive.read(header.roundCount - 1);
+            if (listener != null) {
+                listener.progressed(header.committedLength, header.committedLength);
+            }
+            return roster.restore(archive, current);
+        }
+    }
+
+    /**
+     * Maps the journal a save of this competition has just committed, so the
+     * rounds it holds are read from there and those added since opening are
+     * let go. Nothing changes if the journal has another roster, as its
+     * swimmers would not be numbered as in this archive, or fewer rounds.
+     *
+     * @param journalPath the journal saved.
+     * @param indexPath its index file, brought up to date.
+     * @throws IOException if the journal cannot be read. The archive is left
+     * as it was.
+     */
+    /*package*/ synchronized void saved(Path journalPath, Path indexPath)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.READ)) {
+            RoundJournal.Header saved = RoundJournal.Header.read(channel);
+            if (saved == null) {
+                throw new IOException("Not a competition journal.");
+            }
+            if (saved.rosterHash != header.rosterHash || saved.roundCount < archivedCount) {
+                return;
+            }
+            if (saved.committedLength > Integer.MAX_VALUE) {
+                throw new IOException("Journal too large to map.");
+            }
+            ByteBuffer savedJournal = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                                                  saved.committedLength);
+            RoundIndex savedIndex = RoundIndex.open(indexPath, savedJournal, saved, null);
+            // The journal may hold the current round too, which is not yet
+            // in this history.
+            int count = Math.min(saved.roundCount, size());
+            added.subList(0, count - archivedCount).clear();
+            journal = savedJournal;
+            header = saved;
+            index = savedIndex;
+            archivedCount = count;
+            cachedIndex = -1; // Blocks are elsewhere in a file written anew.
+            cached = null;
+            cachedBlockOffset = -1;
+            cachedBlock = null;
+        }
+    }
+
+    @Override
+    public synchronized int size() {
+        return archivedCount + added.size();
+    }
+
+    @Override
+    public synchronized Scoreboard get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Round " + index + " of " + size());
+        }
+        if (index >= archivedCount) {
+            return added.get(index - archivedCount);
+        }
+        if (index != cachedIndex) {
+            try {
+                cached = read(index);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            cachedIndex = index;
+        }
+        return cached;
+    }
+
+    @Override
+    public synchronized void add(Scoreboard scoreboard) {
+        added.add(scoreboard);
+    }
+
+    private Scoreboard read(int round) throws IOException {
+        long offset = index.offset(round);
+        if (offset != cachedBlockOffset) {
+            cachedBlock = RoundJournal.readBlock(journal, header, offset);
+            cachedBlockOffset = offset;
+        }
+        int slot = index.slot(round);
+        if (slot >= cachedBlock.length) {
+            throw new StreamCorruptedException("Round " + round + " not in its block.");
+        }
+        return CompetitionFormat.readRound(stream(cachedBlock[slot]), roster);
+    }
+
+    private static DataInputStream stream(byte[] payload) {
+        return new DataInputStream(new ByteArrayInputStream(payload));
+    }
+
+    // The mapping cannot be serialized, so the rounds are copied.
+    private synchronized Object writeReplace() {
+        List<Scoreboard> rounds = new ArrayList<>();
+        for (int round = 0; round < size(); round++) {
+            rounds.add(get(round));
+        }
+        return new ListRoundHistory(rounds);
+    }
+
+}
@@ -0,0 +1,208 @@
+/*
+ * RoundIndex.java
+ * Fixed-width index of the round records of a journal, kept in a file next
+ * to it.
+ */
+package swimmingcompetition.persistence;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Layout: magic "WSCI" (int), version (short), reserved (short), CRC32 of the
+ * roster of the journal (long), entry count (int), reserved up to 32, then
+ * per round the offset of the record of its block (long), its place in the
+ * block (int) and the checksum of the block (int).
+ * <p>
+ * The index is derived from the journal. Rounds appended since the index was
+ * written are added to it; an index of another journal is written again.
+ *
+ * @author Wickramaranga
+ */
+/*package*/ final class RoundIndex {
+
+    private static final int MAGIC = 0x57534349; // "WSCI"
+    private static final short VERSION = 2;
+    private static final int HEADER_SIZE = 32;
+    private static final int ENTRY_SIZE = 16;
+    private static final int REPORT_EVERY = 1024; // Rounds scanned.
+
+    private final ByteBuffer entries;
+    private final int count;
+
+    private RoundIndex(ByteBuffer entries, int count) {
+        this.entries = entries;
+        this.count = count;
+    }
+
+    /**
+     * Opens the index of a journal, bringing it up to date.
+     *
+     * @param path the index file.
+     * @param journal the mapped journal.
+     * @param header header of the journal.
+     * @param listener told how far the journal has been scanned, or null.
+     * @return the index of the committed rounds.
+     * @throws IOException if the journal is damaged.
+     */
+    /*package*/ static RoundIndex open(Path path, ByteBuffer journal,
+                                       RoundJournal.Header header,
+                                       ProgressListener listener) throws IOException {
+        int rounds = header.roundCount;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            int valid = validEntries(channel, journal, header);
+            if (valid < rounds || channel.size() != HEADER_SIZE + (long) rounds * ENTRY_SIZE) {
+                int from = 0;
+                long offset = next(journal, header, RoundJournal.HEADER_SIZE); // The roster.
+                if (valid > 0) { // From the block of the last round indexed.
+                    ByteBuffer last = readEntry(channel, valid - 1);
+                    from = valid - 1 - last.getInt(8);
+                    offset = last.getLong(0);
+                }
+                ByteBuffer added = scan(journal, header, from, offset, listener);
+                long position = HEADER_SIZE + (long) from * ENTRY_SIZE;
+                while (added.hasRemaining()) {
+                    position += channel.write(added, position);
+                }
+                channel.truncate(position);
+                ByteBuffer indexHeader = ByteBuffer.allocate(HEADER_SIZE);
+                indexHeader.putInt(0, MAGIC).putShort(4, VERSION)
+                        .putLong(8, header.rosterHash).putInt(16, rounds);
+                while (indexHeader.hasRemaining()) {
+                    channel.write(indexHeader, indexHeader.position());
+                }
+            }
+            return new RoundIndex(channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE,
+                                              (long) rounds * ENTRY_SIZE), rounds);
+        } catch (StreamCorruptedException ex) {
+            throw ex;
+        } catch (IOException ex) {
+            return new RoundIndex(scan(journal, header, 0, next(journal, header,
+                    RoundJournal.HEADER_SIZE), listener), rounds); // Cannot write it.
+        }
+    }
+
+    /**
+     * Gets the number of rounds.
+     *
+     * @return the number of rounds in the index.
+     */
+    /*package*/ int size() {
+        return count;
+    }
+
+    /**
+     * Gets the offset of the record of the block of a round in the journal.
+     *
+     * @param round index of the round.
+     * @return the offset of the record.
+     */
+    /*package*/ long offset(int round) {
+        return entries.getLong(round * ENTRY_SIZE);
+    }
+
+    /**
+     * Gets the place of a round in its block.
+     *
+     * @param round index of the round.
+     * @return the index of the round among the items of its block.
+     */
+    /*package*/ int slot(int round) {
+        return entries.getInt(round * ENTRY_SIZE + 8);
+    }
+
+    // Number of entries at the start of the index which still match the
+    // journal. Checking the last of them is enough, as rounds are only added.
+    private static int validEntries(FileChannel channel, ByteBuffer journal,
+                                    RoundJournal.Header header) throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            return 0;
+        }
+        ByteBuffer indexHeader = ByteBuffer.allocate(HEADER_SIZE);
+        while (indexHeader.hasRemaining()) {
+            if (channel.read(indexHeader, indexHeader.position()) < 0) {
+                return 0;
+            }
+        }
+        int count = indexHeader.getInt(16);
+        if (indexHeader.getInt(0) != MAGIC || indexHeader.getShort(4) != VERSION
+            || indexHeader.getLong(8) != header.rosterHash || count <= 0
+            || channel.size() < HEADER_SIZE + (long) count * ENTRY_SIZE) {
+            return 0;
+        }
+        int valid = Math.min(count, header.roundCount);
+        if (valid == 0) {
+            return 0;
+        }
+        ByteBuffer entry = readEntry(channel, valid - 1);
+        long offset = entry.getLong(0);
+        int slot = entry.getInt(8);
+        if (offset < RoundJournal.HEADER_SIZE
+            || offset > header.committedLength - RoundJournal.RECORD_HEADER_SIZE
+            || journal.getInt((int) offset + 4) != entry.getInt(12)
+            || slot < 0 || slot >= valid
+            || slot >= RoundJournal.blockSize(journal, header, offset)) {
+            return 0;
+        }
+        return valid;
+    }
+
+    private static ByteBuffer readEntry(FileChannel channel, int round) throws IOException {
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE);
+        long position = HEADER_SIZE + (long) round * ENTRY_SIZE;
+        while (entry.hasRemaining()) {
+            if (channel.read(entry, position + entry.position()) < 0) {
+                throw new StreamCorruptedException("Index entry missing.");
+            }
+        }
+        return entry;
+    }
+
+    // Entries of the rounds from the given round on, read from the record
+    // headers of the journal. The block of that round starts with it and is
+    // at the offset.
+    private static ByteBuffer scan(ByteBuffer journal, RoundJournal.Header header,
+                                   int from, long offset, ProgressListener listener)
+            throws IOException {
+        ByteBuffer entries = ByteBuffer.allocate((header.roundCount - from) * ENTRY_SIZE);
+        int reported = from;
+        for (int round = from; round < header.roundCount; ) {
+            next(journal, header, offset); // Checks the record is whole.
+            int size = RoundJournal.blockSize(journal, header, offset);
+            if (size > header.roundCount - round) {
+                throw new StreamCorruptedException("Block past the last round.");
+            }
+            int checksum = journal.getInt((int) offset + 4);
+            for (int slot = 0; slot < size; slot++) {
+                entries.putLong(offset).putInt(slot).putInt(checksum);
+            }
+            round += size;
+            offset = next(journal, header, offset);
+            if (listener != null && round - reported >= REPORT_EVERY) {
+                listener.progressed(offset, header.committedLength);
+                reported = round;
+            }
+        }
+        entries.flip();
+        return entries;
+    }
+
+    private static long next(ByteBuffer journal, RoundJournal.Header header, long offset)
+            throws IOException {
+        if (offset > header.committedLength - RoundJournal.RECORD_HEADER_SIZE) {
+            throw new StreamCorruptedException("Record missing.");
+        }
+        int length = journal.getInt((int) offset);
+        if (length < 0 || length > header.committedLength - offset
+                                   - RoundJournal.RECORD_HEADER_SIZE) {
+            throw new StreamCorruptedException("Bad record length " + length + ".");
+        }
+        return offset + RoundJournal.RECORD_HEADER_SIZE + length;
+    }
+
+}
@@ -0,0 +1,574 @@
+/*
+ * RoundJournal.java
+ * Append-only file of a competition. The roster is written once and every
+ * finished round is appended as a record, so saving does not rewrite history.
+ */
+package swimmingcompetition.persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+
+import swimmingcompetition.simulator.Scoreboard;
+import swimmingcompetition.simulator.Swimmer;
+import swimmingcompetition.simulator.SwimmingCompetition;
+
+/**
+ * Layout: a fixed header, the roster block and blocks of rounds. A block is
+ * a record: its length (int), the checksum of its payload (int) and the
+ * payload, CRC-32C unless the header says otherwise.
+ * The payload is the Compression the block was written with (byte), the
+ * number of items in it (int), their length before compression (int) and the
+ * compressed items. Each item is its length (int) and its bytes in
+ * CompetitionFormat; the roster block has the roster as its only item and the
+ * other blocks up to BLOCK_ROUNDS rounds.
+ * <pre>
+ *  0 magic "WSCS" (int)         4 version (short)    6 checksum type (short)
+ *  8 CRC32 of the roster (long) 16 round count (int)  20 swimmer count (int)
+ * 24 committed length (long)   32 offset of the last record (long)
+ * 40 time saved (long, millis) 48 pool length (int)  52 lane count (int)
+ * 56 reserved up to 64
+ * </pre>
+ * The counts, the pool and the time saved summarize the competition, so it
+ * can be listed by reading the header alone.
+ * Only what the header counts is committed. New records are written after
+ * the committed length and forced to the disk before the header is updated
+ * and forced, so a crash while saving leaves the previous save readable.
+ * Anything after the committed length is overwritten by the next save.
+ * <p>
+ * A journal is never truncated once written, so it can be mapped while
+ * rounds are appended. A competition which cannot be appended is written
+ * into a new file. Blocks are compressed in parallel, and a round is only
+ * decompressed with the block it is in when it is read.
+ * <p>
+ * Version 2 journals have a record per round, holding it uncompressed, and
+ * version 3 journals have the blocks; both are checksummed with CRC32. They
+ * are read, but written again as the current version when saved.
+ *
+ * @author Wickramaranga
+ */
+public final class RoundJournal {
+
+    /**
+     * Version of files written by this class.
+     */
+    public static final short VERSION = 4;
+
+    /**
+     * Size of the header in bytes.
+     */
+    public static final int HEADER_SIZE = 64;
+
+    /**
+     * Most rounds in a block. A save appends its rounds in new blocks, so
+     * blocks are only full in files written whole.
+     */
+    public static final int BLOCK_ROUNDS = 256;
+
+    /*package*/ static final int RECORD_HEADER_SIZE = 8;
+    /*package*/ static final short CHECKSUM_CRC32 = 0;
+    /*package*/ static final short CHECKSUM_CRC32C = 1;
+    private static final short RECORD_VERSION = 2; // Uncompressed records.
+    private static final int BLOCK_HEADER_SIZE = 9;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static ExecutorService compressors;
+
+    private RoundJournal() {
+    }
+
+    /*package*/ static final class Header {
+
+        /*package*/ short version;
+        /*package*/ short checksumType = CHECKSUM_CRC32C;
+        /*package*/ long rosterHash;
+        /*package*/ int roundCount;
+        /*package*/ int swimmerCount;
+        /*package*/ long committedLength;
+        /*package*/ long lastRecord;
+        /*package*/ long savedMillis;
+        /*package*/ int poolLength;
+        /*package*/ int laneCount;
+
+        /*package*/ static Header read(FileChannel channel) throws IOException {
+            if (channel.size() < HEADER_SIZE) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, buffer.position()) < 0) {
+                    return null;
+                }
+            }
+            short version = buffer.getShort(4);
+            if (buffer.getInt(0) != CompetitionFormat.MAGIC
+                || version < RECORD_VERSION || version > VERSION) {
+                return null;
+            }
+            Header header = new Header();
+            header.version = version;
+            header.checksumType = version < VERSION ? CHECKSUM_CRC32 : buffer.getShort(6);
+            header.rosterHash = buffer.getLong(8);
+            header.roundCount = buffer.getInt(16);
+            header.swimmerCount = buffer.getInt(20);
+            header.committedLength = buffer.getLong(24);
+            header.lastRecord = buffer.getLong(32);
+            header.savedMillis = buffer.getLong(40);
+            header.poolLength = buffer.getInt(48);
+            header.laneCount = buffer.getInt(52);
+            if (header.checksumType != CHECKSUM_CRC32
+                && header.checksumType != CHECKSUM_CRC32C) {
+                return null;
+            }
+            if (header.roundCount < 0 || header.committedLength < HEADER_SIZE
+                || header.committedLength > channel.size()) {
+                return null;
+            }
+            return header;
+        }
+
+        /*package*/ void write(FileChannel channel) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+            buffer.putInt(0, CompetitionFormat.MAGIC).putShort(4, VERSION)
+                    .putShort(6, checksumType).putLong(8, rosterHash).putInt(16, roundCount)
+                    .putInt(20, swimmerCount).putLong(24, committedLength)
+                    .putLong(32, lastRecord).putLong(40, savedMillis)
+                    .putInt(48, poolLength).putInt(52, laneCount);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, buffer.position());
+            }
+        }
+
+    }
+
+    /**
+     * Gets whether the file holds a journal.
+     *
+     * @param channel the file.
+     * @return whether the file starts with a valid journal header.
+     * @throws IOException if reading fails.
+     */
+    public static boolean isJournal(FileChannel channel) throws IOException {
+        return Header.read(channel) != null;
+    }
+
+    /**
+     * Appends the rounds finished since the competition was last saved into
+     * the file.
+     *
+     * @param competition the competition to be saved.
+     * @param channel the file, opened for reading and writing.
+     * @param compression the codec of the new blocks.
+     * @return whether the file holds the earlier rounds of the same
+     * competition, so that the competition could be saved by appending.
+     * @throws IOException if writing fails.
+     */
+    public static boolean append(SwimmingCompetition competition, FileChannel channel,
+                                 Compression compression) throws IOException {
+        int roundCount = competition.getRoundCount();
+        List<Swimmer> registered = new ArrayList<>(competition.getSwimmers());
+        Map<Swimmer, Integer> indices = CompetitionFormat.indices(registered);
+        byte[] roster = encodeRoster(competition, registered);
+
+        Header header = Header.read(channel);
+        if (header == null || header.version != VERSION
+            || header.rosterHash != checksum(roster)
+            || !canAppend(competition, channel, header, indices, roundCount)) {
+            return false;
+        }
+        append(competition, channel, header, indices, roundCount, compression);
+        return true;
+    }
+
+    /**
+     * Writes a whole competition into an empty file.
+     *
+     * @param competition the competition to be saved.
+     * @param channel the new file, opened for writing.
+     * @param compression the codec of the blocks.
+     * @throws IOException if writing fails.
+     */
+    public static void write(SwimmingCompetition competition, FileChannel channel,
+                             Compression compression) throws IOException {
+        int roundCount = competition.getRoundCount();
+        List<Swimmer> swimmers = CompetitionFormat.swimmerTable(competition, roundCount);
+        Map<Swimmer, Integer> indices = CompetitionFormat.indices(swimmers);
+        byte[] roster = encodeRoster(competition, swimmers);
+
+        Header header = new Header();
+        header.rosterHash = checksum(roster);
+        header.swimmerCount = competition.getSwimmers().size();
+        header.poolLength = competition.getPoolLength();
+        header.laneCount = competition.getLaneCount();
+        header.committedLength = HEADER_SIZE;
+        header.write(channel); // Nothing committed until the end.
+
+        List<byte[]> rounds = new ArrayList<>();
+        for (int round = 0; round < roundCount; round++) {
+            rounds.add(encodeRound(competition.getRoundScoreboard(round), indices));
+        }
+        channel.position(HEADER_SIZE);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Channels.newOutputStream(channel), BUFFER_SIZE));
+        byte[] rosterRecord = record(encodeBlock(Collections.singletonList(roster),
+                                                 compression), header.checksumType);
+        out.write(rosterRecord);
+        long position = HEADER_SIZE + rosterRecord.length;
+        header.lastRecord = HEADER_SIZE;
+        position = writeBlocks(rounds, compression, out, position, header);
+        out.flush();
+        channel.force(true);
+
+        header.roundCount = roundCount;
+        header.committedLength = position;
+        header.savedMillis = System.currentTimeMillis();
+        header.write(channel);
+        channel.force(false);
+    }
+
+    /**
+     * Checks every committed record of a journal against its checksum and
+     * the header against the records, without decompressing or reading the
+     * rounds.
+     *
+     * @param channel the file.
+     * @return the number of rounds committed.
+     * @throws IOException if the file is not a journal or is damaged.
+     */
+    public static int verify(FileChannel channel) throws IOException {
+        Header header = Header.read(channel);
+        if (header == null) {
+            throw new StreamCorruptedException("Not a competition journal.");
+        }
+        if (header.committedLength > Integer.MAX_VALUE) {
+            throw new IOException("Journal too large to map.");
+        }
+        ByteBuffer journal = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                                         header.committedLength);
+        int rounds = -1; // The roster block is not counted.
+        long last = HEADER_SIZE;
+        for (long offset = HEADER_SIZE; offset < header.committedLength; ) {
+            if (offset > header.committedLength - RECORD_HEADER_SIZE) {
+                throw new StreamCorruptedException("Record at " + offset + " not whole.");
+            }
+            int length = journal.getInt((int) offset);
+            if (length < 0 || length > header.committedLength - offset - RECORD_HEADER_SIZE) {
+                throw new StreamCorruptedException("Bad length of record at " + offset + ".");
+            }
+            ByteBuffer payload = journal.duplicate();
+            payload.limit((int) offset + RECORD_HEADER_SIZE + length)
+                    .position((int) offset + RECORD_HEADER_SIZE);
+            if (checksum(payload, header.checksumType) != journal.getInt((int) offset + 4)) {
+                throw new StreamCorruptedException("Record at " + offset + " is damaged.");
+            }
+            rounds += blockSize(journal, header, offset);
+            last = offset;
+            offset += RECORD_HEADER_SIZE + length;
+        }
+        if (rounds != header.roundCount || last != header.lastRecord) {
+            throw new StreamCorruptedException("Header does not match the records.");
+        }
+        return rounds;
+    }
+
+    /**
+     * Reads the payload of a record, checking its checksum.
+     *
+     * @param journal the journal, from the start of the file.
+     * @param offset offset of the record.
+     * @param limit committed length of the journal.
+     * @param checksumType how the record is checksummed.
+     * @return the payload.
+     * @throws IOException if the record is not whole or is damaged.
+     */
+    /*package*/ static byte[] readRecord(ByteBuffer journal, long offset, long limit,
+                                        short checksumType) throws IOException {
+        if (offset < 0 || offset > limit - RECORD_HEADER_SIZE) {
+            throw new StreamCorruptedException("Record missing.");
+        }
+        int length = journal.getInt((int) offset);
+        int checksum = journal.getInt((int) offset + 4);
+        if (length < 0 || length > limit - offset - RECORD_HEADER_SIZE) {
+            throw new StreamCorruptedException("Bad record length " + length + ".");
+        }
+        byte[] payload = new byte[length];
+        ByteBuffer record = journal.duplicate();
+        record.position((int) offset + RECORD_HEADER_SIZE);
+        record.get(payload);
+        if (checksum(payload, checksumType) != checksum) {
+            throw new StreamCorruptedException("Record checksum mismatch.");
+        }
+        return payload;
+    }
+
+    /**
+     * Reads the items of a block, checking and decompressing it.
+     *
+     * @param journal the journal, from the start of the file.
+     * @param header header of the journal.
+     * @param offset offset of the record of the block.
+     * @return the items of the block.
+     * @throws IOException if the block is not whole or is damaged.
+     */
+    /*package*/ static byte[][] readBlock(ByteBuffer journal, Header header, long offset)
+            throws IOException {
+        byte[] payload = readRecord(journal, offset, header.committedLength,
+                                    header.checksumType);
+        if (header.version == RECORD_VERSION) {
+            return new byte[][] {payload};
+        }
+        return decodeBlock(payload);
+    }
+
+    /**
+     * Gets the number of items in a block without decompressing it.
+     *
+     * @param journal the journal, from the start of the file.
+     * @param header header of the journal.
+     * @param offset offset of the record of the block, already known to be
+     * within the committed length.
+     * @return the number of items.
+     * @throws IOException if the block is damaged.
+     */
+    /*package*/ static int blockSize(ByteBuffer journal, Header header, long offset)
+            throws IOException {
+        if (header.version == RECORD_VERSION) {
+            return 1;
+        }
+        int count = journal.getInt((int) offset) < BLOCK_HEADER_SIZE
+                    ? -1 : journal.getInt((int) offset + RECORD_HEADER_SIZE + 1);
+        if (count <= 0) {
+            throw new StreamCorruptedException("Bad block size " + count + ".");
+        }
+        return count;
+    }
+
+    // The last committed round must be the same round of this competition,
+    // and the new rounds must only have registered swimmers.
+    private static boolean canAppend(SwimmingCompetition competition,
+                                     FileChannel channel, Header header,
+                                     Map<Swimmer, Integer> indices, int roundCount)
+            throws IOException {
+        if (header.roundCount > roundCount) {
+            return false;
+        }
+        for (int round = header.roundCount; round < roundCount; round++) {
+            if (encodeRound(competition.getRoundScoreboard(round), indices) == null) {
+                return false;
+            }
+        }
+        if (header.roundCount == 0) {
+            return true;
+        }
+        byte[] last = encodeRound(competition.getRoundScoreboard(header.roundCount - 1),
+                                  indices);
+        long length = header.committedLength - header.lastRecord;
+        if (last == null || length < RECORD_HEADER_SIZE || length > Integer.MAX_VALUE) {
+            return false;
+        }
+        ByteBuffer record = ByteBuffer.allocate((int) length);
+        while (record.hasRemaining()) {
+            if (channel.read(record, header.lastRecord + record.position()) < 0) {
+                return false;
+            }
+        }
+        byte[][] saved = decodeBlock(readRecord(record, 0, length, header.checksumType));
+        return Arrays.equals(saved[saved.length - 1], last);
+    }
+
+    private static void append(SwimmingCompetition competition, FileChannel channel,
+                               Header header, Map<Swimmer, Integer> indices,
+                               int roundCount, Compression compression)
+            throws IOException {
+        if (header.roundCount == roundCount) {
+            return; // Nothing new.
+        }
+        List<byte[]> rounds = new ArrayList<>();
+        for (int round = header.roundCount; round < roundCount; round++) {
+            rounds.add(encodeRound(competition.getRoundScoreboard(round), indices));
+        }
+        channel.truncate(header.committedLength); // Drop an unfinished save.
+        channel.position(header.committedLength);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Channels.newOutputStream(channel), BUFFER_SIZE));
+        long position = writeBlocks(rounds, compression, out, header.committedLength,
+                                    header);
+        out.flush();
+        channel.force(true); // Records are on the disk before they are committed.
+
+        header.roundCount = roundCount;
+        header.committedLength = position;
+        header.savedMillis = System.currentTimeMillis();
+        header.write(channel);
+        channel.force(false);
+    }
+
+    // Compresses and checksums the rounds in blocks on the compressor
+    // threads, writing the records in order from the position. Sets the last
+    // record of the header.
+    private static long writeBlocks(List<byte[]> rounds, final Compression compression,
+                                    DataOutputStream out, long position,
+                                    final Header header) throws IOException {
+        List<Future<byte[]>> blocks = new ArrayList<>();
+        for (int first = 0; first < rounds.size(); first += BLOCK_ROUNDS) {
+            final List<byte[]> items = rounds.subList(
+                    first, Math.min(rounds.size(), first + BLOCK_ROUNDS));
+            blocks.add(compressors().submit(new Callable<byte[]>() {
+                @Override
+                public byte[] call() throws IOException {
+                    return record(encodeBlock(items, compression), header.checksumType);
+                }
+            }));
+        }
+        try {
+            for (Future<byte[]> block : blocks) {
+                header.lastRecord = position;
+                byte[] record = block.get();
+                out.write(record);
+                position += record.length;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing.");
+        } catch (ExecutionException ex) {
+            throw new IOException("Cannot compress a block.", ex.getCause());
+        } finally {
+            for (Future<byte[]> block : blocks) {
+                block.cancel(false);
+            }
+        }
+        return position;
+    }
+
+    private static synchronized ExecutorService compressors() {
+        if (compressors == null) {
+            compressors = Executors.newFixedThreadPool(
+                    Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, "Journal compressor");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+        }
+        return compressors;
+    }
+
+    private static byte[] encodeBlock(List<byte[]> items, Compression compression)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream raw = new DataOutputStream(bytes);
+        for (byte[] item : items) {
+            raw.writeInt(item.length);
+            raw.write(item);
+        }
+        byte[] data = bytes.toByteArray();
+        byte[] compressed = compression.encode(data);
+        if (compressed.length >= data.length) {
+            compression = Compression.NONE; // Does not pay.
+            compressed = data;
+        }
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_HEADER_SIZE + compressed.length);
+        block.put(compression.getId()).putInt(items.size()).putInt(data.length)
+                .put(compressed);
+        return block.array();
+    }
+
+    private static byte[][] decodeBlock(byte[] payload) throws IOException {
+        if (payload.length < BLOCK_HEADER_SIZE) {
+            throw new StreamCorruptedException("Block too short.");
+        }
+        ByteBuffer block = ByteBuffer.wrap(payload);
+        Compression compression = Compression.of(block.get());
+        int count = block.getInt();
+        int rawLength = block.getInt();
+        if (count <= 0 || rawLength < 0) {
+            throw new StreamCorruptedException("Bad block.");
+        }
+        byte[] raw = compression.decode(Arrays.copyOfRange(payload, BLOCK_HEADER_SIZE,
+                                                           payload.length), rawLength);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+        byte[][] items = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            int length = in.readInt();
+            if (length < 0 || length > in.available()) {
+                throw new StreamCorruptedException("Bad item length " + length + ".");
+            }
+            items[i] = new byte[length];
+            in.readFully(items[i]);
+        }
+        return items;
+    }
+
+    private static byte[] encodeRoster(SwimmingCompetition competition,
+                                       List<Swimmer> swimmers) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CompetitionFormat.writeRoster(competition, swimmers, new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    // Null if a swimmer of the round has no index.
+    private static byte[] encodeRound(Scoreboard scoreboard, Map<Swimmer, Integer> indices)
+            throws IOException {
+        for (Scoreboard.Finish finish : scoreboard.getFinishesSince(0)) {
+            if (!indices.containsKey(finish.getSwimmer())) {
+                return null;
+            }
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CompetitionFormat.writeRound(scoreboard, indices, new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static byte[] record(byte[] payload, short checksumType) {
+        return ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.length)
+                .putInt(payload.length).putInt(checksum(payload, checksumType))
+                .put(payload).array();
+    }
+
+    /*package*/ static long checksum(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        return crc.getValue();
+    }
+
+    private static int checksum(byte[] data, short checksumType) {
+        Checksum checksum = checksumType == CHECKSUM_CRC32C ? Crc32c.create() : new CRC32();
+        checksum.update(data, 0, data.length);
+        return (int) checksum.getValue();
+    }
+
+    private static int checksum(ByteBuffer data, short checksumType) {
+        if (checksumType == CHECKSUM_CRC32C) {
+            Checksum checksum = Crc32c.create();
+            Crc32c.update(checksum, data);
+            return (int) checksum.getValue();
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(data);
+        return (int) checksum.getValue();
+    }
+
+}
@@ -0,0 +1,17 @@
+/*
+ * FemaleSwimmer.java
+ * FemaleSwimmer as saved by the first versions, kept to read their saves.
+ */
+package swimmingcompetition.persistence.legacy;
+
+/**
+ * Fields of the FemaleSwimmer of the first versions. The serialVersionUID is
+ * the one computed for that class, which did not declare one.
+ *
+ * @author Wickramaranga
+ */
+/*package*/ class FemaleSwimmer extends Swimmer {
+
+    private static final long serialVersionUID = -6669018651491852579L;
+
+}
@@ -0,0 +1,17 @@
+/*
+ * Judge.java
+ * Judge as saved by the first versions, kept to read their saves.
+ */
+package swimmingcompetition.persistence.legacy;
+
+/**
+ * Fields of the Judge of the first versions. The serialVersionUID is the one
+ * computed for that class, which did not declare one.
+ *
+ * @author Wickramaranga
+ */
+/*package*/ class Judge extends Person {
+
+    private static final long serialVersionUID = -4859714323896035526L;
+
+}
@@ -0,0 +1,132 @@
+/*
+ * LegacyFormat.java
+ * Imports competitions the first versions saved with Java serialization.
+ */
+package swimmingcompetition.persistence.legacy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import swimmingcompetition.simulator.CompetitionState;
+import swimmingcompetition.simulator.Gender;
+import swimmingcompetition.simulator.TieBreakPolicy;
+
+/**
+ * The first versions saved the SwimmingCompetition object with Java
+ * serialization. Those classes have changed since, so a save is read into
+ * frozen copies of them and converted into a competition of this version.
+ * <p>
+ * The first versions did not keep seeds, strokes or lanes of rounds, so the
+ * rounds imported have no race logs. Times were kept in milliseconds, and the
+ * ranking was the order of arrival, which the rounds keep. A round which was
+ * not finished when the competition was saved is dropped.
+ *
+ * @author Wickramaranga
+ */
+public final class LegacyFormat {
+
+    /**
+     * First two bytes of a save of the first versions, the magic number of
+     * Java serialization.
+     */
+    public static final int MAGIC = 0xACED;
+
+    private LegacyFormat() {
+    }
+
+    /**
+     * Reads a competition saved by the first versions.
+     *
+     * @param in the stream to read from, at the magic number.
+     * @return the competition, with its finished rounds.
+     * @throws IOException if reading fails or the data is not a competition
+     * saved by the first versions.
+     */
+    public static swimmingcompetition.simulator.SwimmingCompetition read(InputStream in)
+            throws IOException {
+        Object saved;
+        try {
+            saved = new LegacyInputStream(in).readObject();
+        } catch (ClassNotFoundException ex) {
+            throw new IOException("Not saved by an early version.", ex);
+        }
+        if (!(saved instanceof SwimmingCompetition)) {
+            throw new StreamCorruptedException("Not a saved competition.");
+        }
+        return convert((SwimmingCompetition) saved);
+    }
+
+    private static swimmingcompetition.simulator.SwimmingCompetition convert(
+            SwimmingCompetition saved) {
+        Map<Swimmer, swimmingcompetition.simulator.Swimmer> swimmers
+                = new IdentityHashMap<>();
+        List<swimmingcompetition.simulator.Swimmer> registered = new ArrayList<>();
+        for (Swimmer swimmer : saved.swimmers) {
+            registered.add(convert(swimmer, swimmers));
+        }
+        List<swimmingcompetition.simulator.Judge> judges = new ArrayList<>();
+        for (Judge judge : saved.judges) {
+            judges.add(new swimmingcompetition.simulator.Judge(judge.name));
+        }
+        List<swimmingcompetition.simulator.Spectator> spectators = new ArrayList<>();
+        for (Spectator spectator : saved.pavilion.spectators) {
+            spectators.add(new swimmingcompetition.simulator.Spectator(spectator.name));
+        }
+        List<swimmingcompetition.simulator.SupportingStaffMember> staff = new ArrayList<>();
+        for (SupportingStaffMember member : saved.staff) {
+            staff.add(new swimmingcompetition.simulator.SupportingStaffMember(member.name));
+        }
+
+        List<Scoreboard> finished = new ArrayList<>(saved.oldScoreboards);
+        if (saved.state == CompetitionState.FINISHED) {
+            finished.add(saved.scoreboard); // Archived when the next is prepared.
+        }
+        List<swimmingcompetition.simulator.Scoreboard> rounds = new ArrayList<>();
+        for (Scoreboard round : finished) {
+            rounds.add(convert(round, swimmers));
+        }
+        return swimmingcompetition.simulator.SwimmingCompetition.restore(
+                judges, spectators, registered, staff, saved.pool.lanes.length,
+                saved.pool.poolLength, TieBreakPolicy.ARRIVAL, rounds);
+    }
+
+    private static swimmingcompetition.simulator.Swimmer convert(
+            Swimmer saved, Map<Swimmer, swimmingcompetition.simulator.Swimmer> swimmers) {
+        swimmingcompetition.simulator.Swimmer swimmer = swimmers.get(saved);
+        if (swimmer == null) { // Rounds could have swimmers not registered.
+            swimmer = saved.gender == Gender.MALE
+                      ? new swimmingcompetition.simulator.MaleSwimmer(
+                              saved.name, saved.playerSpeedFactor)
+                      : new swimmingcompetition.simulator.FemaleSwimmer(
+                              saved.name, saved.playerSpeedFactor);
+            swimmers.put(saved, swimmer);
+        }
+        return swimmer;
+    }
+
+    private static swimmingcompetition.simulator.Scoreboard convert(
+            Scoreboard saved, Map<Swimmer, swimmingcompetition.simulator.Swimmer> swimmers) {
+        int count = saved.finishSwimmers.size();
+        swimmingcompetition.simulator.Swimmer[] finishSwimmers
+                = new swimmingcompetition.simulator.Swimmer[count];
+        int[] lanes = new int[count];
+        long[] elapsedNanos = new long[count];
+        long startMillis = saved.startTime.getTime();
+        for (int i = 0; i < count; i++) {
+            Date finishTime = saved.finishTimes.get(i);
+            finishSwimmers[i] = convert(saved.finishSwimmers.get(i), swimmers);
+            lanes[i] = -1; // Not kept.
+            elapsedNanos[i] = (finishTime.getTime() - startMillis) * 1000000L;
+        }
+        return swimmingcompetition.simulator.Scoreboard.restore(
+                0, null, TieBreakPolicy.ARRIVAL, startMillis, finishSwimmers, lanes,
+                elapsedNanos);
+    }
+
+}
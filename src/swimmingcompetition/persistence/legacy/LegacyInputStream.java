@@ -0,0 +1,127 @@
+/*
+ * LegacyInputStream.java
+ * Reads the saves of the first versions into the frozen classes of this
+ * package.
+ */
+package swimmingcompetition.persistence.legacy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamField;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * An ObjectInputStream which resolves the classes of the first versions to
+ * the frozen classes of this package, and refuses any other class.
+ *
+ * @author Wickramaranga
+ */
+/*package*/ class LegacyInputStream extends ObjectInputStream {
+
+    private static final String SAVED_PACKAGE = "swimmingcompetition.simulator.";
+    private static final String FROZEN_PACKAGE = "swimmingcompetition.persistence.legacy.";
+
+    // Saved classes with a frozen copy in this package.
+    private static final Set<String> FROZEN = new HashSet<>(Arrays.asList(
+            "SwimmingCompetition", "Pavilion", "SwimmingPool", "SwimmingLane",
+            "Observable", "Scoreboard", "Person", "Judge", "Spectator",
+            "SupportingStaffMember", "Swimmer", "MaleSwimmer", "FemaleSwimmer"));
+
+    // Saved by name, so the enums of the simulator still read them.
+    private static final Set<String> ENUMS = new HashSet<>(Arrays.asList(
+            "Gender", "Color", "Stroke", "CompetitionState"));
+
+    // Library classes the first versions saved.
+    private static final Set<String> LIBRARY = new HashSet<>(Arrays.asList(
+            "java.util.ArrayList", "java.util.Date", "java.lang.Enum"));
+
+    /*package*/ LegacyInputStream(InputStream in) throws IOException {
+        super(in);
+    }
+
+    // A class without a serialVersionUID gets one computed from its members,
+    // including the accessors a compiler makes for inner classes, so a save
+    // may carry another number for a class of the same fields. SwimmingLane
+    // does with javac 9 and later.
+    @Override
+    protected ObjectStreamClass readClassDescriptor()
+            throws IOException, ClassNotFoundException {
+        ObjectStreamClass saved = super.readClassDescriptor();
+        Class<?> frozen = frozenClass(saved.getName());
+        if (frozen == null || frozen.isArray()) { // Arrays are not checked.
+            return saved;
+        }
+        ObjectStreamClass local = ObjectStreamClass.lookup(frozen);
+        if (saved.getSerialVersionUID() != local.getSerialVersionUID()
+            && sameFields(saved, local)) {
+            return local;
+        }
+        return saved;
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass desc)
+            throws IOException, ClassNotFoundException {
+        String name = desc.getName();
+        Class<?> frozen = frozenClass(name);
+        if (frozen != null) {
+            return frozen;
+        }
+        if (name.startsWith(FROZEN_PACKAGE)) { // A descriptor given above.
+            return Class.forName(name, false, LegacyInputStream.class.getClassLoader());
+        }
+        if (name.startsWith(SAVED_PACKAGE)
+            && ENUMS.contains(name.substring(SAVED_PACKAGE.length()))) {
+            return Class.forName(name, false, LegacyInputStream.class.getClassLoader());
+        }
+        if (LIBRARY.contains(name)) {
+            return super.resolveClass(desc);
+        }
+        throw new InvalidClassException(name, "Not saved by an early version.");
+    }
+
+    // Gets the frozen copy of a saved class, or an array of them.
+    private static Class<?> frozenClass(String name) throws ClassNotFoundException {
+        String dimensions = "";
+        while (name.startsWith("[")) {
+            dimensions += "[";
+            name = name.substring(1);
+        }
+        if (!dimensions.isEmpty()) {
+            if (!name.startsWith("L") || !name.endsWith(";")) {
+                return null;
+            }
+            name = name.substring(1, name.length() - 1);
+        }
+        if (!name.startsWith(SAVED_PACKAGE)
+            || !FROZEN.contains(name.substring(SAVED_PACKAGE.length()))) {
+            return null;
+        }
+        name = FROZEN_PACKAGE + name.substring(SAVED_PACKAGE.length());
+        if (!dimensions.isEmpty()) {
+            name = dimensions + "L" + name + ";";
+        }
+        return Class.forName(name, false, LegacyInputStream.class.getClassLoader());
+    }
+
+    private static boolean sameFields(ObjectStreamClass saved, ObjectStreamClass local) {
+        ObjectStreamField[] savedFields = saved.getFields();
+        ObjectStreamField[] localFields = local.getFields();
+        if (savedFields.length != localFields.length) {
+            return false;
+        }
+        for (int i = 0; i < savedFields.length; i++) { // Both sorted the same way.
+            if (!savedFields[i].getName().equals(localFields[i].getName())
+                || savedFields[i].getTypeCode() != localFields[i].getTypeCode()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,17 @@
+/*
+ * MaleSwimmer.java
+ * MaleSwimmer as saved by the first versions, kept to read their saves.
+ */
+package swimmingcompetition.persistence.legacy;
+
+/**
+ * Fields of the MaleSwimmer of the first versions. The serialVersionUID is the
+ * one computed for that class, which did not declare one.
+ *
+ * @author Wickramaranga
+ */
+/*package*/ class MaleSwimmer extends Swimmer {
+
+    private static final long serialVersionUID = 1222776215182050981L;
+
+}
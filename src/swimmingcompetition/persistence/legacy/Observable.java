@@ -0,0 +1,22 @@
+/*
+ * Observable.java
+ * Observable as saved by the first versions, kept to read their saves.
+ */
+package swimmingcompetition.persistence.legacy;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Fields of the Observable of the first versions. The serialVersionUID is the
+ * one computed for that class, which did not declare one.
+ *
+ * @author Wickramaranga
+ */
+/*package*/ abstract class Observable implements Serializable {
+
+    private static final long serialVersionUID = -210444777959369117L;
+
+    /*package*/ List<Spectator> observers;
+
+}
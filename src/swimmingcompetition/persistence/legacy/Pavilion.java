@@ -0,0 +1,22 @@
+/*
+ * Pavilion.java
+ * Pavilion as saved by the first versions, kept to read their saves.
+ */
+package swimmingcompetition.persistence.legacy;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Fields of the Pavilion of the first versions. The serialVersionUID is the
+ * one computed for that class, which did not declare one.
+ *
+ * @author Wickramaranga
+ */
+/*package*/ class Pavilion implements Serializable {
+
+    private static final long serialVersionUID = -5368154095713398521L;
+
+    /*package*/ List<Spectator> spectators;
+
+}
@@ -0,0 +1,21 @@
+/*
+ * Person.java
+ * Person as saved by the first versions, kept to read their saves.
+ */
+package swimmingcompetition.persistence.legacy;
+
+import java.io.Serializable;
+
+/**
+ * Fields of the Person of the first versions. The serialVersionUID is the one
+ * computed for that class, which did not declare one.
+ *
+ * @author Wickramaranga
+ */
+/*package*/ abstract class Person implements Serializable {
+
+    private static final long serialVersionUID = -8884124175719674130L;
+
+    /*package*/ String name;
+
+}
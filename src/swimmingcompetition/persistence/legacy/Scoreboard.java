@@ -0,0 +1,25 @@
+/*
+ * Scoreboard.java
+ * Scoreboard as saved by the first versions, kept to read their saves.
+ */
+package swimmingcompetition.persistence.legacy;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Fields of the Scoreboard of the first versions. The serialVersionUID is the
+ * one computed for that class, which did not declare one.
+ *
+ * @author Wickramaranga
+ */
+/*package*/ class Scoreboard extends Observable {
+
+    private static final long serialVersionUID = 6089287393263857264L;
+
+    /*package*/ int numberOfSwimmers;
+    /*package*/ Date startTime; // Null until the round starts.
+    /*package*/ List<Date> finishTimes;
+    /*package*/ List<Swimmer> finishSwimmers;
+
+}
@@ -0,0 +1,17 @@
+/*
+ * Spectator.java
+ * Spectator as saved by the first versions, kept to read their saves.
+ */
+package swimmingcompetition.persistence.legacy;
+
+/**
+ * Fields of the Spectator of the first versions. The serialVersionUID is the
+ * one computed for that class, which did not declare one.
+ *
+ * @author Wickramaranga
+ */
+/*package*/ class Spectator extends Person {
+
+    private static final long serialVersionUID = -2950166355636592391L;
+
+}
@@ -0,0 +1,18 @@
+/*
+ * SupportingStaffMember.java
+ * SupportingStaffMember as saved by the first versions, kept to read their saves.
+ */
+package swimmingcompetition.persistence.legacy;
+
+/**
+ * Fields of the SupportingStaffMember of the first versions. The
+ * serialVersionUID is the one computed for that class, which did not declare
+ * one.
+ *
+ * @author Wickramaranga
+ */
+/*package*/ class SupportingStaffMember extends Person {
+
+    private static final long serialVersionUID = 2525538064765771471L;
+
+}
@@ -0,0 +1,27 @@
+/*
+ * Swimmer.java
+ * Swimmer as saved by the first versions, kept to read their saves.
+ */
+package swimmingcompetition.persistence.legacy;
+
+import swimmingcompetition.simulator.Color;
+import swimmingcompetition.simulator.Gender;
+import swimmingcompetition.simulator.Stroke;
+
+/**
+ * Fields of the Swimmer of the first versions. The serialVersionUID is the one
+ * computed for that class, which did not declare one.
+ *
+ * @author Wickramaranga
+ */
+/*package*/ abstract class Swimmer extends Person {
+
+    private static final long serialVersionUID = 6923240259434681152L;
+
+    /*package*/ Gender gender;
+    /*package*/ Color color;
+    /*package*/ double playerSpeedFactor;
+    /*package*/ Stroke stroke; // Of the last round swum.
+    /*package*/ double roundSpeedFactor;
+
+}
@@ -0,0 +1,32 @@
+/*
+ * SwimmingCompetition.java
+ * SwimmingCompetition as saved by the first versions, kept to read their saves.
+ */
+package swimmingcompetition.persistence.legacy;
+
+import java.io.Serializable;
+import java.util.List;
+
+import swimmingcompetition.simulator.CompetitionState;
+
+/**
+ * Fields of the SwimmingCompetition of the first versions. The
+ * serialVersionUID is the one computed for that class, which did not declare
+ * one.
+ *
+ * @author Wickramaranga
+ */
+/*package*/ class SwimmingCompetition implements Serializable {
+
+    private static final long serialVersionUID = -4589926949593670107L;
+
+    /*package*/ List<Judge> judges;
+    /*package*/ List<Swimmer> swimmers;
+    /*package*/ List<SupportingStaffMember> staff;
+    /*package*/ Pavilion pavilion;
+    /*package*/ SwimmingPool pool;
+    /*package*/ List<Scoreboard> oldScoreboards;
+    /*package*/ Scoreboard scoreboard; // Of the last round prepared.
+    /*package*/ CompetitionState state;
+
+}
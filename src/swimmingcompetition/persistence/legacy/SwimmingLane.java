@@ -0,0 +1,24 @@
+/*
+ * SwimmingLane.java
+ * SwimmingLane as saved by the first versions, kept to read their saves.
+ */
+package swimmingcompetition.persistence.legacy;
+
+import java.io.Serializable;
+
+/**
+ * Fields of the SwimmingLane of the first versions. The serialVersionUID is
+ * the one computed for that class, which did not declare one.
+ *
+ * @author Wickramaranga
+ */
+/*package*/ class SwimmingLane implements Serializable {
+
+    private static final long serialVersionUID = -769273375739303326L;
+
+    /*package*/ int length;
+    /*package*/ Swimmer swimmer;
+    /*package*/ Scoreboard scoreboard;
+    /*package*/ double swimmerPosition;
+
+}
@@ -0,0 +1,23 @@
+/*
+ * SwimmingPool.java
+ * SwimmingPool as saved by the first versions, kept to read their saves.
+ */
+package swimmingcompetition.persistence.legacy;
+
+import java.io.Serializable;
+
+/**
+ * Fields of the SwimmingPool of the first versions. The serialVersionUID is
+ * the one computed for that class, which did not declare one.
+ *
+ * @author Wickramaranga
+ */
+/*package*/ class SwimmingPool implements Serializable {
+
+    private static final long serialVersionUID = 8673369980284924254L;
+
+    /*package*/ SwimmingLane[] lanes;
+    /*package*/ int poolLength;
+    /*package*/ Scoreboard scoreboard;
+
+}
@@ -0,0 +1,26 @@
+/*
+ * BatchObserver.java
+ * An observer which takes the notifications waiting for it together.
+ *
+ */
+package swimmingcompetition.simulator;
+
+import java.util.List;
+
+/**
+ * An ObserverDispatcher hands an observer the notifications waiting for it
+ * in one call when the observer implements this interface. Notifying
+ * synchronously still calls update.
+ *
+ * @author Wickramaranga
+ */
+public interface BatchObserver extends Observer {
+
+    /**
+     * Takes the notifications from one sender, in the order they were sent.
+     *
+     * @param sender the sender of the notifications.
+     * @param args the argument of each notification.
+     */
+    void updateAll(Observable sender, List<Object> args);
+}
@@ -25,8 +25,17 @@ public enum CompetitionState implements Serializable {
      * A competition round is running.
      */
     ONGOING,
+    /**
+     * A competition round is running but its clock is stopped.
+     */
+    PAUSED,
     /**
      * A competition round has finished.
      */
-    FINISHED;
+    FINISHED,
+    /**
+     * A competition round was stopped before all swimmers finished. It is not
+     * kept with the finished rounds.
+     */
+    CANCELLED;
 }
@@ -35,6 +35,19 @@ public class FemaleSwimmer extends Swimmer {
         count++;
     }
 
+    /**
+     * Creates an object representation for a female swimmer with a known skill
+     * level.
+     *
+     * @param name name of the swimmer.
+     * @param playerSpeedFactor skill level of the swimmer.
+     */
+    public FemaleSwimmer(String name, double playerSpeedFactor) {
+        super(Gender.FEMALE, Color.RED, name, playerSpeedFactor);
+
+        count++;
+    }
+
     /**
      * Performs female version of freestyle.
      *
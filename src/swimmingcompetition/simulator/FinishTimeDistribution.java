@@ -0,0 +1,120 @@
+/*
+ * FinishTimeDistribution.java
+ * Distribution of the times taken by a swimmer to finish a round, over many
+ * simulated replicas.
+ */
+package swimmingcompetition.simulator;
+
+/**
+ *
+ * @author Wickramaranga
+ */
+public class FinishTimeDistribution {
+
+    private final long[] counts; // Number of finishes per simulation step.
+    private final long stepMillis;
+    private final long total;
+
+    /*package*/ FinishTimeDistribution(long[] counts, long stepMillis) {
+        this.counts = counts;
+        this.stepMillis = stepMillis;
+        long sum = 0;
+        for (long count : counts) {
+            sum += count;
+        }
+        this.total = sum;
+    }
+
+    /**
+     * Gets the number of finishes in the distribution.
+     *
+     * @return number of samples.
+     */
+    public long getCount() {
+        return total;
+    }
+
+    /**
+     * Gets the probability of finishing in exactly the given time.
+     *
+     * @param millis finish time in milliseconds.
+     * @return probability of the finish time.
+     */
+    public double getProbability(long millis) {
+        if (total == 0 || millis % stepMillis != 0) {
+            return 0.0; // Swimmers only finish at the end of a step.
+        }
+        long step = millis / stepMillis;
+        return step < counts.length ? (double) counts[(int) step] / total : 0.0;
+    }
+
+    /**
+     * Gets the average finish time.
+     *
+     * @return mean finish time in milliseconds.
+     */
+    public double getMean() {
+        double sum = 0;
+        for (int step = 0; step < counts.length; step++) {
+            sum += (double) step * counts[step];
+        }
+        return total == 0 ? 0.0 : sum / total * stepMillis;
+    }
+
+    /**
+     * Gets the standard deviation of the finish time.
+     *
+     * @return standard deviation in milliseconds.
+     */
+    public double getStandardDeviation() {
+        if (total == 0) {
+            return 0.0;
+        }
+        double mean = getMean() / stepMillis;
+        double sum = 0;
+        for (int step = 0; step < counts.length; step++) {
+            sum += (step - mean) * (step - mean) * counts[step];
+        }
+        return Math.sqrt(sum / total) * stepMillis;
+    }
+
+    /**
+     * Gets the fastest finish time.
+     *
+     * @return minimum finish time in milliseconds.
+     */
+    public long getMinimum() {
+        return getPercentile(0.0);
+    }
+
+    /**
+     * Gets the slowest finish time.
+     *
+     * @return maximum finish time in milliseconds.
+     */
+    public long getMaximum() {
+        return getPercentile(1.0);
+    }
+
+    /**
+     * Gets the finish time under which the given fraction of finishes fall.
+     *
+     * @param fraction a value between 0 and 1. (0.5 for the median)
+     * @return the finish time in milliseconds.
+     */
+    public long getPercentile(double fraction) {
+        if (fraction < 0.0 || fraction > 1.0) {
+            throw new IllegalArgumentException("fraction: " + fraction);
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int step = 0; step < counts.length; step++) {
+            seen += counts[step];
+            if (seen >= rank) {
+                return step * stepMillis;
+            }
+        }
+        return 0;
+    }
+
+}
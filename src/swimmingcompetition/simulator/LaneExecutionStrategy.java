@@ -0,0 +1,113 @@
+/*
+ * LaneExecutionStrategy.java
+ * Enumerates the kinds of threads the lanes of a competition swim on.
+ */
+package swimmingcompetition.simulator;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import swimmingcompetition.simulator.exceptions.IllegalOperationException;
+
+/**
+ * A scheduled round is stepped by the race scheduler of the competition, and
+ * its lanes have no threads of their own. Otherwise each lane swims on a
+ * thread of its own, which sleeps between simulation steps until the swimmer
+ * finishes. A platform thread holds its stack for the whole round, which
+ * limits how many rounds can run at once; a virtual thread gives it up while
+ * sleeping, so thousands of lanes only need a few carrier threads.
+ *
+ * @author Wickramaranga
+ */
+public enum LaneExecutionStrategy {
+
+    /**
+     * All lanes of the pool are stepped together by the race scheduler.
+     */
+    SCHEDULED,
+    /**
+     * Every lane swims on a platform thread.
+     */
+    PLATFORM_THREADS {
+        @Override
+        /*package*/ Thread newThread(Runnable runner, String name) {
+            return new Thread(runner, name);
+        }
+    },
+    /**
+     * Every lane swims on a virtual thread. Needs Java 21; platform threads
+     * are used on earlier versions.
+     */
+    VIRTUAL_THREADS {
+        @Override
+        /*package*/ Thread newThread(Runnable runner, String name) {
+            if (VirtualThreads.OF_VIRTUAL != null) {
+                try {
+                    Object builder = VirtualThreads.OF_VIRTUAL.invoke(null);
+                    builder = VirtualThreads.NAME.invoke(builder, name);
+                    return (Thread) VirtualThreads.UNSTARTED.invoke(builder, runner);
+                } catch (IllegalAccessException | InvocationTargetException ex) {
+                    // Falls back to a platform thread.
+                }
+            }
+            return PLATFORM_THREADS.newThread(runner, name);
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return VirtualThreads.OF_VIRTUAL != null;
+        }
+    };
+
+    /**
+     * Creates the thread a lane swims on, not started yet.
+     *
+     * @param runner what the lane runs.
+     * @param name name of the thread.
+     * @return the new thread.
+     */
+    /*package*/ Thread newThread(Runnable runner, String name) {
+        throw new IllegalOperationException(); // Lanes have no threads.
+    }
+
+    /**
+     * Gets whether the threads of this strategy are available on this Java
+     * version, rather than platform threads in their place.
+     *
+     * @return true if the strategy runs as described.
+     */
+    public boolean isAvailable() {
+        return true;
+    }
+
+    /**
+     * Thread.ofVirtual() and the methods of its builder, looked up through
+     * reflection so the simulator still runs on Java 8.
+     */
+    private static final class VirtualThreads {
+
+        private static final Method OF_VIRTUAL;
+        private static final Method NAME;
+        private static final Method UNSTARTED;
+
+        static {
+            Method ofVirtual = null;
+            Method name = null;
+            Method unstarted = null;
+            try {
+                Class<?> builder = Class.forName("java.lang.Thread$Builder");
+                name = builder.getMethod("name", String.class);
+                unstarted = builder.getMethod("unstarted", Runnable.class);
+                Method method = Thread.class.getMethod("ofVirtual");
+                method.invoke(null); // Throws on 19 and 20 without preview features.
+                ofVirtual = method;
+            } catch (ReflectiveOperationException ex) {
+                // Before Java 21.
+            }
+            OF_VIRTUAL = ofVirtual;
+            NAME = name;
+            UNSTARTED = unstarted;
+        }
+    }
+
+}
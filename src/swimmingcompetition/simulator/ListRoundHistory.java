@@ -0,0 +1,50 @@
+/*
+ * ListRoundHistory.java
+ * Previous rounds of a competition kept in the heap.
+ * 
+ */
+package swimmingcompetition.simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *
+ * @author Wickramaranga
+ */
+public class ListRoundHistory implements RoundHistory {
+
+    private final List<Scoreboard> scoreboards;
+
+    /**
+     * Creates an empty history.
+     */
+    public ListRoundHistory() {
+        scoreboards = new ArrayList<>();
+    }
+
+    /**
+     * Creates a history holding the given rounds.
+     *
+     * @param scoreboards scoreboards of the rounds, oldest first.
+     */
+    public ListRoundHistory(List<Scoreboard> scoreboards) {
+        this.scoreboards = new ArrayList<>(scoreboards);
+    }
+
+    @Override
+    public int size() {
+        return scoreboards.size();
+    }
+
+    @Override
+    public Scoreboard get(int index) {
+        return scoreboards.get(index);
+    }
+
+    @Override
+    public void add(Scoreboard scoreboard) {
+        scoreboards.add(scoreboard);
+    }
+
+}
@@ -35,6 +35,19 @@ public class MaleSwimmer extends Swimmer {
         count++;
     }
 
+    /**
+     * Creates an object representation for a male swimmer with a known skill
+     * level.
+     *
+     * @param name name of the swimmer.
+     * @param playerSpeedFactor skill level of the swimmer.
+     */
+    public MaleSwimmer(String name, double playerSpeedFactor) {
+        super(Gender.MALE, Color.BLUE, name, playerSpeedFactor);
+
+        count++;
+    }
+
     /**
      * Performs male version of freestyle.
      *
@@ -6,28 +6,144 @@
 package swimmingcompetition.simulator;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
+ * Subscribers are kept copy on write: there is a snapshot for each topic and
+ * one for notifications without a topic, each replaced whenever an observer
+ * subscribes or unsubscribes. Observers may subscribe and unsubscribe from
+ * any thread, even while notifications are delivered. Subscribing an observer
+ * again, to everything or to a topic, does not notify it twice.
  *
  * @author Wickramaranga
  */
 public abstract class Observable implements Serializable {
 
-    protected final List<Observer> observers = new ArrayList<>();
+    private static final Topic[] TOPICS = Topic.values();
+    private static final int ANY = TOPICS.length; // Notifications without a topic.
 
+    private final AtomicReference<Subscribers[]> subscribers
+            = new AtomicReference<>(empty());
+
+    /**
+     * Subscribes an observer to every notification.
+     *
+     * @param o the observer.
+     */
     public void subscribe(Observer o) {
         if (o != null) {
-            observers.add(o);
+            change(o, null, null, true);
+        }
+    }
+
+    /**
+     * Subscribes an observer to the notifications of a topic.
+     *
+     * @param o the observer.
+     * @param topic the topic.
+     */
+    public void subscribe(Observer o, Topic topic) {
+        if (o != null && topic != null) {
+            change(o, null, topic, true);
         }
     }
 
+    /**
+     * Subscribes the observers of a group to every notification. Costs the
+     * same however many observers the group has.
+     *
+     * @param group the group.
+     */
+    public void subscribe(ObserverGroup group) {
+        if (group != null) {
+            change(null, group, null, true);
+        }
+    }
+
+    /**
+     * Subscribes the observers of a group to the notifications of a topic.
+     * Costs the same however many observers the group has.
+     *
+     * @param group the group.
+     * @param topic the topic.
+     */
+    public void subscribe(ObserverGroup group, Topic topic) {
+        if (group != null && topic != null) {
+            change(null, group, topic, true);
+        }
+    }
+
+    /**
+     * Unsubscribes an observer from everything it is subscribed to.
+     *
+     * @param o the observer.
+     */
     public void unsubscribe(Observer o) {
         if (o != null) {
-            observers.remove(o);
+            change(o, null, null, false);
+        }
+    }
+
+    /**
+     * Unsubscribes a group from everything it is subscribed to.
+     *
+     * @param group the group.
+     */
+    public void unsubscribe(ObserverGroup group) {
+        if (group != null) {
+            change(null, group, null, false);
         }
     }
 
+    /**
+     * Gets the subscribers of the notifications without a topic, which are
+     * those subscribed to every notification.
+     *
+     * @return the current snapshot.
+     */
+    protected Subscribers getSubscribers() {
+        return subscribers.get()[ANY];
+    }
+
+    /**
+     * Gets the subscribers of a topic, including those subscribed to every
+     * notification.
+     *
+     * @param topic the topic.
+     * @return the current snapshot.
+     */
+    protected Subscribers getSubscribers(Topic topic) {
+        return subscribers.get()[topic.ordinal()];
+    }
+
     public abstract void notifyObservers(Observable o, Object arg);
+
+    // Subscribing without a topic adds to every snapshot, unsubscribing
+    // removes from every snapshot.
+    private void change(Observer observer, ObserverGroup group, Topic topic, boolean add) {
+        while (true) {
+            Subscribers[] current = subscribers.get();
+            Subscribers[] next = Arrays.copyOf(current, current.length);
+            for (int i = 0; i < next.length; i++) {
+                if (topic != null && i != topic.ordinal()) {
+                    continue;
+                }
+                if (observer != null) {
+                    next[i] = add ? next[i].with(observer) : next[i].without(observer);
+                } else {
+                    next[i] = add ? next[i].with(group) : next[i].without(group);
+                }
+            }
+            if (subscribers.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    private static Subscribers[] empty() {
+        Subscribers[] none = new Subscribers[ANY + 1];
+        Arrays.fill(none, Subscribers.NONE);
+        return none;
+    }
 }
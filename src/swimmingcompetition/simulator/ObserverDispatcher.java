@@ -0,0 +1,386 @@
+/*
+ * ObserverDispatcher.java
+ * Delivers notifications to observers on an executor, so that the thread
+ * notifying never waits for them.
+ */
+package swimmingcompetition.simulator;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Dispatching a notification only queues it; the lane which finished goes on
+ * at once. One task at a time hands the queued notifications to a bounded
+ * queue per observer, and each observer with notifications waiting is run as
+ * a task of its own, taking up to MAX_BATCH of them. The hand out task runs
+ * on an executor of its own, so that it never takes a thread the observers
+ * need to catch up. Observers are run in
+ * parallel, but each observer gets its notifications one call at a time and
+ * in the order they were dispatched, even if it unsubscribes and subscribes
+ * again. An observer which throws is logged and still gets the notifications
+ * after.
+ * <p>
+ * A slow observer only fills its own queue, and the overflow policy decides
+ * what happens to it then.
+ *
+ * @author Wickramaranga
+ */
+public class ObserverDispatcher {
+
+    /**
+     * Default number of notifications an observer can have waiting.
+     */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * Most notifications given to an observer in one run.
+     */
+    public static final int MAX_BATCH = 32;
+
+    /**
+     * Longest time a notification waits for a full queue under the BLOCK
+     * policy before it is dropped.
+     */
+    public static final long MAX_BLOCK_MILLIS = 1000;
+
+    private static final Logger LOGGER = Logger.getLogger(ObserverDispatcher.class.getName());
+    private static final long BLOCK_POLL_MILLIS = 10;
+
+    private static ExecutorService sharedExecutor;
+    private static ExecutorService fanOutExecutor;
+
+    private final Executor executor;
+    private final Executor fanOutTasks;
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final ConcurrentLinkedQueue<Dispatch> dispatches = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean fanningOut = new AtomicBoolean();
+    private final Runnable fanOut = new Runnable() {
+        @Override
+        public void run() {
+            fanOut();
+        }
+    };
+    // Touched only by the fan out task, which runs one at a time.
+    private final Map<Observer, Mailbox> mailboxes = new IdentityHashMap<>();
+    private long epoch;
+
+    /**
+     * Creates a dispatcher on the shared executor, dropping the oldest
+     * notifications of observers which fall behind.
+     */
+    public ObserverDispatcher() {
+        this(getSharedExecutor(), DEFAULT_CAPACITY, OverflowPolicy.DROP_OLDEST);
+    }
+
+    /**
+     * Creates a dispatcher which hands out notifications on the shared fan
+     * out executor.
+     *
+     * @param executor runs the observers.
+     * @param capacity number of notifications an observer can have waiting.
+     * @param overflowPolicy what is done when an observer has as many
+     * notifications waiting as it can.
+     */
+    public ObserverDispatcher(Executor executor, int capacity, OverflowPolicy overflowPolicy) {
+        this(executor, getFanOutExecutor(), capacity, overflowPolicy);
+    }
+
+    /**
+     * Creates a dispatcher.
+     *
+     * @param executor runs the observers.
+     * @param fanOutExecutor hands out notifications to the observers. Must not
+     * share threads with executor when the policy is BLOCK.
+     * @param capacity number of notifications an observer can have waiting.
+     * @param overflowPolicy what is done when an observer has as many
+     * notifications waiting as it can.
+     */
+    public ObserverDispatcher(Executor executor, Executor fanOutExecutor, int capacity,
+                              OverflowPolicy overflowPolicy) {
+        if (executor == null || fanOutExecutor == null || capacity < 1
+            || overflowPolicy == null) {
+            throw new IllegalArgumentException();
+        }
+        this.executor = executor;
+        this.fanOutTasks = fanOutExecutor;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Gets the executor shared by dispatchers, with a daemon thread for each
+     * processor and at least two.
+     *
+     * @return the shared executor.
+     */
+    public static synchronized ExecutorService getSharedExecutor() {
+        if (sharedExecutor == null) {
+            sharedExecutor = Executors.newFixedThreadPool(
+                    Math.max(2, Runtime.getRuntime().availableProcessors()),
+                    new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, "Observer dispatcher");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+        }
+        return sharedExecutor;
+    }
+
+    /**
+     * Gets the executor shared by dispatchers for handing out notifications.
+     * Each dispatcher runs at most one task on it at a time; its daemon
+     * threads are made as needed and end when idle.
+     *
+     * @return the shared fan out executor.
+     */
+    public static synchronized ExecutorService getFanOutExecutor() {
+        if (fanOutExecutor == null) {
+            fanOutExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "Observer fan out");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return fanOutExecutor;
+    }
+
+    /**
+     * Gets what is done when an observer falls behind.
+     *
+     * @return the overflow policy.
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Gets the number of notifications dropped because an observer had too
+     * many waiting.
+     *
+     * @return the number of notifications dropped so far.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Queues a notification for the given subscribers and returns without
+     * waiting for any of them. Each observer of a subscribed group is
+     * notified as an observer of its own.
+     *
+     * @param sender the sender of the notification.
+     * @param arg the argument of the notification.
+     * @param subscribers the subscribers to notify.
+     */
+    public void dispatch(Observable sender, Object arg, Subscribers subscribers) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        dispatches.add(new Dispatch(sender, arg, subscribers));
+        if (fanningOut.compareAndSet(false, true)) {
+            fanOutTasks.execute(fanOut);
+        }
+    }
+
+    private void fanOut() {
+        try {
+            Dispatch dispatch;
+            while ((dispatch = dispatches.poll()) != null) {
+                fanOut(dispatch);
+            }
+        } finally {
+            fanningOut.set(false);
+            // A dispatch queued after the last poll but before the flag was
+            // cleared found the task still running.
+            if (!dispatches.isEmpty() && fanningOut.compareAndSet(false, true)) {
+                fanOutTasks.execute(fanOut);
+            }
+        }
+    }
+
+    private void fanOut(Dispatch dispatch) {
+        epoch++;
+        int present = fanOut(dispatch, dispatch.subscribers.getObservers());
+        for (ObserverGroup group : dispatch.subscribers.getGroups()) {
+            present += fanOut(dispatch, group.getObservers());
+        }
+        if (mailboxes.size() > present) { // Some observers unsubscribed.
+            Iterator<Mailbox> iterator = mailboxes.values().iterator();
+            while (iterator.hasNext()) {
+                Mailbox mailbox = iterator.next();
+                // Kept until it has delivered what it has left, so that an
+                // observer subscribing again meanwhile gets the same one.
+                if (mailbox.epoch != epoch && mailbox.isIdle()) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    // Returns the number of observers which had not been posted the
+    // dispatch already.
+    private int fanOut(Dispatch dispatch, Observer[] observers) {
+        int present = 0;
+        for (Observer observer : observers) {
+            Mailbox mailbox = mailboxes.get(observer);
+            if (mailbox == null) {
+                mailbox = new Mailbox(observer);
+                mailboxes.put(observer, mailbox);
+            }
+            if (mailbox.epoch != epoch) {
+                mailbox.epoch = epoch;
+                present++;
+            }
+            mailbox.post(dispatch);
+        }
+        return present;
+    }
+
+    /**
+     * A notification, with the subscribers it was dispatched to.
+     */
+    private static final class Dispatch {
+
+        private final Observable sender;
+        private final Object arg;
+        private final Subscribers subscribers;
+
+        private Dispatch(Observable sender, Object arg, Subscribers subscribers) {
+            this.sender = sender;
+            this.arg = arg;
+            this.subscribers = subscribers;
+        }
+    }
+
+    /**
+     * The notifications waiting for an observer. Scheduled on the executor
+     * whenever it has some and is not already scheduled.
+     */
+    private final class Mailbox implements Runnable {
+
+        private final Observer observer;
+        private final BlockingQueue<Dispatch> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private long epoch; // Of the last dispatch to this observer.
+
+        private Mailbox(Observer observer) {
+            this.observer = observer;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        private void post(Dispatch dispatch) {
+            switch (overflowPolicy) {
+                case DROP_NEWEST:
+                    if (!queue.offer(dispatch)) {
+                        dropped.incrementAndGet();
+                    }
+                    break;
+                case BLOCK:
+                    try {
+                        long waited = 0;
+                        while (!queue.offer(dispatch, BLOCK_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                            schedule(); // Full, so it must be draining.
+                            waited += BLOCK_POLL_MILLIS;
+                            if (waited >= MAX_BLOCK_MILLIS) { // Stuck observer.
+                                dropped.incrementAndGet();
+                                break;
+                            }
+                        }
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        dropped.incrementAndGet();
+                    }
+                    break;
+                default:
+                    while (!queue.offer(dispatch)) {
+                        if (queue.poll() != null) {
+                            dropped.incrementAndGet();
+                        }
+                    }
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this);
+            }
+        }
+
+        // Only posting schedules it, so once idle it stays idle until the
+        // fan out task posts to it again.
+        private boolean isIdle() {
+            return !scheduled.get() && queue.isEmpty();
+        }
+
+        @Override
+        public void run() {
+            List<Dispatch> batch = new ArrayList<>(Math.min(MAX_BATCH, queue.size()));
+            queue.drainTo(batch, MAX_BATCH);
+            try {
+                deliver(batch);
+            } finally {
+                scheduled.set(false);
+                if (!queue.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+
+        // An observer which fails on one notification still gets the rest.
+        private void deliver(List<Dispatch> batch) {
+            if (!(observer instanceof BatchObserver)) {
+                for (Dispatch dispatch : batch) {
+                    try {
+                        observer.update(dispatch.sender, dispatch.arg);
+                    } catch (RuntimeException ex) {
+                        LOGGER.log(Level.WARNING, "Observer failed", ex);
+                    }
+                }
+                return;
+            }
+            // One call for each run of notifications from the same sender.
+            int first = 0;
+            while (first < batch.size()) {
+                Observable sender = batch.get(first).sender;
+                List<Object> args = new ArrayList<>();
+                int next = first;
+                while (next < batch.size() && batch.get(next).sender == sender) {
+                    args.add(batch.get(next).arg);
+                    next++;
+                }
+                try {
+                    ((BatchObserver) observer).updateAll(sender, args);
+                } catch (RuntimeException ex) {
+                    LOGGER.log(Level.WARNING, "Observer failed", ex);
+                }
+                first = next;
+            }
+        }
+    }
+
+}
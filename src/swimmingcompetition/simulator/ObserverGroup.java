@@ -0,0 +1,25 @@
+/*
+ * ObserverGroup.java
+ * Observers subscribed and notified together.
+ */
+package swimmingcompetition.simulator;
+
+import java.io.Serializable;
+
+/**
+ * Subscribing a group costs the same however many observers it has, since
+ * only the group is kept. Each of its observers is still notified as an
+ * observer of its own, so a dispatcher runs them in parallel.
+ *
+ * @author Wickramaranga
+ */
+public interface ObserverGroup extends Serializable {
+
+    /**
+     * Gets the observers of the group. The array is not copied and must not
+     * be changed, by the group or by the caller.
+     *
+     * @return the observers of the group.
+     */
+    Observer[] getObservers();
+}
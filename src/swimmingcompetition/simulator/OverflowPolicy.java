@@ -0,0 +1,31 @@
+/*
+ * OverflowPolicy.java
+ * Enumerates what an ObserverDispatcher does when the queue of an observer
+ * is full.
+ */
+package swimmingcompetition.simulator;
+
+/**
+ *
+ * @author Wickramaranga
+ */
+public enum OverflowPolicy {
+
+    /**
+     * The oldest notification waiting for the observer is dropped, so the
+     * observer catches up with the latest finishes.
+     */
+    DROP_OLDEST,
+    /**
+     * The new notification is dropped.
+     */
+    DROP_NEWEST,
+    /**
+     * The dispatcher waits until the observer takes a notification. Other
+     * observers wait with it, but the lanes never do. An observer which takes
+     * nothing for ObserverDispatcher.MAX_BLOCK_MILLIS has the notification
+     * dropped, so one stuck observer cannot hold up the rest for good.
+     */
+    BLOCK;
+
+}
@@ -5,18 +5,21 @@
  */
 package swimmingcompetition.simulator;
 
-import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import swimmingcompetition.simulator.exceptions.WrongPersonCountException;
 
 /**
+ * The spectators are fixed when the pavilion is built, so the whole pavilion
+ * can be subscribed as one group.
  *
  * @author Wickramaranga
  */
-public class Pavilion implements Serializable  {
+public class Pavilion implements ObserverGroup {
 
-    private final List<Spectator> spectators;
+    private final Spectator[] spectators;
 
     /**
      * Creates an object to represent the pavilion.
@@ -27,15 +30,20 @@ public class Pavilion implements Serializable  {
         if (spectators == null) {
             throw new WrongPersonCountException();
         }
-        this.spectators = spectators;
+        this.spectators = spectators.toArray(new Spectator[spectators.size()]);
     }
 
     /**
      * Returns a list of spectators in the competition.
      *
-     * @return a list of spectators.
+     * @return a list of spectators, which cannot be changed.
      */
     public List<Spectator> getSpectators() {
+        return Collections.unmodifiableList(Arrays.asList(spectators));
+    }
+
+    @Override
+    public Observer[] getObservers() {
         return spectators;
     }
 
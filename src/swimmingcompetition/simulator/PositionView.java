@@ -0,0 +1,37 @@
+/*
+ * PositionView.java
+ * Read only view over the positions of the swimmers in a swimming pool.
+ * Reading through the view does not copy or box the positions.
+ */
+package swimmingcompetition.simulator;
+
+/**
+ *
+ * @author Wickramaranga
+ */
+public interface PositionView {
+
+    /**
+     * Gets the number of lanes in the view.
+     *
+     * @return lane count.
+     */
+    int getLaneCount();
+
+    /**
+     * Gets the number of times the positions have been updated. Call this
+     * once before reading a batch of positions, so that positions written by
+     * other threads up to this update are visible.
+     *
+     * @return the update count.
+     */
+    long getVersion();
+
+    /**
+     * Gets the position of the swimmer in the given lane.
+     *
+     * @param lane lane index.
+     * @return position of the swimmer.
+     */
+    double getPosition(int lane);
+}
@@ -0,0 +1,103 @@
+/*
+ * RaceEvent.java
+ * Something which happened during a competition round, published on the
+ * race event bus.
+ */
+package swimmingcompetition.simulator;
+
+/**
+ *
+ * @author Wickramaranga
+ */
+public class RaceEvent {
+
+    /**
+     * Kinds of race events.
+     */
+    public enum Type {
+
+        /**
+         * The competition round started.
+         */
+        START(Topic.START),
+        /**
+         * One or more swimmers moved. Read the new positions through the
+         * position view of the competition.
+         */
+        POSITIONS(Topic.POSITION),
+        /**
+         * A swimmer reached the end of the lane and was recorded on the
+         * scoreboard.
+         */
+        FINISH(Topic.FINISH),
+        /**
+         * All swimmers finished and the competition round is over.
+         */
+        ROUND_END(null),
+        /**
+         * The competition round was cancelled, or failed, before all swimmers
+         * finished.
+         */
+        ROUND_CANCELLED(null);
+
+        private final Topic topic;
+
+        private Type(Topic topic) {
+            this.topic = topic;
+        }
+
+        /**
+         * Gets the topic of events of this kind.
+         *
+         * @return the topic, or null if only observers of every event get
+         * them.
+         */
+        public Topic getTopic() {
+            return topic;
+        }
+    }
+
+    private final Type type;
+    private final int lane;
+    private final Swimmer swimmer;
+
+    /*package*/ RaceEvent(Type type, int lane, Swimmer swimmer) {
+        this.type = type;
+        this.lane = lane;
+        this.swimmer = swimmer;
+    }
+
+    /**
+     * Gets the kind of the event.
+     *
+     * @return the event type.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the lane the event is about.
+     *
+     * @return lane index, or -1 if the event is about all lanes.
+     */
+    public int getLane() {
+        return lane;
+    }
+
+    /**
+     * Gets the swimmer who finished.
+     *
+     * @return the swimmer for FINISH events, null otherwise.
+     */
+    public Swimmer getSwimmer() {
+        return swimmer;
+    }
+
+    @Override
+    public String toString() {
+        return type + (lane >= 0 ? " lane " + lane : "")
+               + (swimmer != null ? " " + swimmer : "");
+    }
+
+}
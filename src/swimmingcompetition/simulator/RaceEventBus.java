@@ -0,0 +1,56 @@
+/*
+ * RaceEventBus.java
+ * Delivers race events from the lanes and the scoreboard to the observers of
+ * a competition.
+ */
+package swimmingcompetition.simulator;
+
+/**
+ * Events are delivered on the thread which publishes them, which is a lane
+ * thread or the thread running the simulation. Observers must return quickly
+ * and hand work over to their own threads.
+ * <p>
+ * Observers subscribed to a topic get the events of that topic only; the end
+ * or cancellation of a round has no topic.
+ *
+ * @author Wickramaranga
+ */
+public class RaceEventBus extends Observable {
+
+    /**
+     * Publishes an event to all observers. The event is the argument of
+     * Observer.update.
+     *
+     * @param event the event.
+     */
+    public void publish(RaceEvent event) {
+        notifyObservers(this, event);
+    }
+
+    /*package*/ void publishStart() {
+        publish(new RaceEvent(RaceEvent.Type.START, -1, null));
+    }
+
+    /*package*/ void publishPositions(int lane) {
+        publish(new RaceEvent(RaceEvent.Type.POSITIONS, lane, null));
+    }
+
+    /*package*/ void publishFinish(int lane, Swimmer swimmer) {
+        publish(new RaceEvent(RaceEvent.Type.FINISH, lane, swimmer));
+    }
+
+    /*package*/ void publishRoundEnd() {
+        publish(new RaceEvent(RaceEvent.Type.ROUND_END, -1, null));
+    }
+
+    /*package*/ void publishRoundCancelled() {
+        publish(new RaceEvent(RaceEvent.Type.ROUND_CANCELLED, -1, null));
+    }
+
+    @Override
+    public void notifyObservers(Observable o, Object arg) {
+        Topic topic = arg instanceof RaceEvent ? ((RaceEvent) arg).getType().getTopic() : null;
+        (topic != null ? getSubscribers(topic) : getSubscribers()).deliver(o, arg);
+    }
+
+}
@@ -0,0 +1,219 @@
+/*
+ * RaceKernel.java
+ * Holds the state of every lane of a swimming pool in primitive arrays and
+ * advances the swimmers. Lanes are indexed in the order of the pool.
+ */
+package swimmingcompetition.simulator;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *
+ * @author Wickramaranga
+ */
+public class RaceKernel implements PositionView, Serializable {
+
+    private final int length;
+
+    private final double[] positions;
+    private final double[] conditionFactors; // skill + condition for the round
+    private final double[] strokeFactors; // stroke speed affected by gender
+    private final boolean[] finished;
+    transient private SplittableRandom[] random; // One stream per lane.
+    transient private double[] velocities; // Velocities of the current step.
+    // Part of the finishing step swum after reaching the end, from 0 to 1.
+    transient private double[] overshoots;
+    transient private StepKernel stepKernel;
+
+    // Velocity of every step in the current round, kept for the race log.
+    transient private double[][] samples;
+    transient private int[] sampleCounts;
+
+    // Bumped after positions are written, readers go through it to see them.
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Creates the kernel for a swimming pool.
+     *
+     * @param laneCount number of lanes.
+     * @param length length of the swimming pool.
+     */
+    public RaceKernel(int laneCount, int length) {
+        this.length = length;
+        this.positions = new double[laneCount];
+        this.conditionFactors = new double[laneCount];
+        this.strokeFactors = new double[laneCount];
+        this.finished = new boolean[laneCount];
+    }
+
+    /**
+     * Sets up a lane for a round. A swimmer with a null random stream means
+     * the lane is not used.
+     *
+     * @param lane lane index.
+     * @param conditionFactor sum of the skill and the round condition of the swimmer.
+     * @param strokeFactor speed factor of the stroke performed by the swimmer.
+     * @param stream random stream for the lane in the round.
+     */
+    /*package*/ void prepare(int lane, double conditionFactor, double strokeFactor,
+                             SplittableRandom stream) {
+        if (random == null) { // Not saved with the pool.
+            random = new SplittableRandom[positions.length];
+            velocities = new double[positions.length];
+            samples = new double[positions.length][];
+            sampleCounts = new int[positions.length];
+            overshoots = new double[positions.length];
+        }
+        positions[lane] = 0;
+        conditionFactors[lane] = conditionFactor;
+        strokeFactors[lane] = strokeFactor;
+        finished[lane] = stream == null;
+        random[lane] = stream;
+        sampleCounts[lane] = 0; // Buffer is reused by the next round.
+        overshoots[lane] = 0;
+        version.incrementAndGet();
+    }
+
+    /**
+     * Moves the swimmer in the given lane forward by one step. Each lane may
+     * be advanced by a different thread.
+     *
+     * @param lane lane index.
+     * @return whether the swimmer reached the end of the lane in this step.
+     */
+    /*package*/ boolean advance(int lane) {
+        boolean crossed = move(lane);
+        version.incrementAndGet();
+        return crossed;
+    }
+
+    /**
+     * Moves every swimmer who has not finished forward by one step. Random
+     * velocities are drawn lane by lane, then all positions are moved with the
+     * step kernel in one pass.
+     *
+     * @param crossed set to true for lanes whose swimmer finished in this step.
+     * @return number of swimmers who finished in this step.
+     */
+    /*package*/ int advanceAll(boolean[] crossed) {
+        for (int lane = 0; lane < positions.length; lane++) {
+            // Adding 0 leaves the position of a finished swimmer as it is.
+            velocities[lane] = finished[lane] ? 0.0 : nextVelocity(lane);
+        }
+        getStepKernel().accumulate(positions, velocities, SwimmingLane.STEP_FACTOR,
+                                   positions.length);
+
+        int count = 0;
+        for (int lane = 0; lane < positions.length; lane++) {
+            crossed[lane] = !finished[lane] && positions[lane] >= length;
+            if (crossed[lane]) {
+                finished[lane] = true;
+                overshoots[lane] = overshoot(lane, velocities[lane]);
+                count++;
+            }
+        }
+        version.incrementAndGet();
+        return count;
+    }
+
+    private boolean move(int lane) {
+        double velocity = nextVelocity(lane);
+        positions[lane] += SwimmingLane.STEP_FACTOR * velocity;
+        if (positions[lane] >= length) {
+            overshoots[lane] = overshoot(lane, velocity);
+            finished[lane] = true;
+        }
+        return finished[lane];
+    }
+
+    private double overshoot(int lane, double velocity) {
+        double distance = SwimmingLane.STEP_FACTOR * velocity;
+        if (distance <= 0) {
+            return 0;
+        }
+        return Math.min(1.0, (positions[lane] - length) / distance);
+    }
+
+    private double nextVelocity(int lane) {
+        double velocity = Swimmer.velocity(conditionFactors[lane],
+                                           strokeFactors[lane], random[lane]);
+        record(lane, velocity);
+        return velocity;
+    }
+
+    private StepKernel getStepKernel() {
+        if (stepKernel == null) { // Not saved with the pool.
+            stepKernel = StepKernels.best();
+        }
+        return stepKernel;
+    }
+
+    /**
+     * Sets the step kernel used to advance all lanes together.
+     *
+     * @param stepKernel the step kernel.
+     */
+    public void setStepKernel(StepKernel stepKernel) {
+        this.stepKernel = stepKernel;
+    }
+
+    private void record(int lane, double velocity) {
+        double[] laneSamples = samples[lane];
+        if (laneSamples == null) {
+            laneSamples = samples[lane] = new double[256];
+        } else if (sampleCounts[lane] == laneSamples.length) {
+            laneSamples = samples[lane] = Arrays.copyOf(laneSamples, laneSamples.length * 2);
+        }
+        laneSamples[sampleCounts[lane]++] = velocity;
+    }
+
+    /**
+     * Gets whether the swimmer in the given lane has finished or the lane is
+     * not used.
+     *
+     * @param lane lane index.
+     * @return whether the lane is done.
+     */
+    public boolean isFinished(int lane) {
+        return finished[lane];
+    }
+
+    /**
+     * Gets the part of the finishing step which the swimmer in the given lane
+     * swam after reaching the end of the lane. Used to place the finish
+     * within the step.
+     *
+     * @param lane lane index.
+     * @return fraction of the step from 0 to 1, or 0 if not finished.
+     */
+    /*package*/ double getOvershoot(int lane) {
+        return overshoots[lane];
+    }
+
+    /*package*/ double[] getSamples(int lane) {
+        return samples[lane];
+    }
+
+    /*package*/ int getSampleCount(int lane) {
+        return sampleCounts[lane];
+    }
+
+    @Override
+    public int getLaneCount() {
+        return positions.length;
+    }
+
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    @Override
+    public double getPosition(int lane) {
+        return positions[lane];
+    }
+
+}
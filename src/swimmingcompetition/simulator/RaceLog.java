@@ -0,0 +1,134 @@
+/*
+ * RaceLog.java
+ * Compact binary record of a competition round. Holds the seed of the round
+ * and the velocity of every swimmer at every step, so the round can be
+ * replayed exactly.
+ */
+package swimmingcompetition.simulator;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import swimmingcompetition.simulator.exceptions.IllegalOperationException;
+
+/**
+ *
+ * @author Wickramaranga
+ */
+public class RaceLog implements Serializable {
+
+    private static final int MAGIC = 0x52434c47; // "RCLG"
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 1 + 8 + 4 + 1 + 4;
+
+    // Layout: magic, version, seed, pool length, stroke, lane count and then
+    // for each used lane the swimmer name, the sample count and the samples.
+    private final byte[] data;
+
+    private RaceLog(byte[] data) {
+        this.data = data;
+    }
+
+    /*package*/ static RaceLog record(long seed, Stroke stroke, int poolLength,
+                                      SwimmingLane[] lanes) {
+        int laneCount = 0;
+        int size = HEADER_SIZE;
+        byte[][] names = new byte[lanes.length][];
+        for (SwimmingLane lane : lanes) {
+            if (lane.isUsed()) {
+                names[laneCount] = lane.getSwimmer().getName()
+                        .getBytes(StandardCharsets.UTF_8);
+                size += 4 + names[laneCount].length + 4 + 8 * lane.getSampleCount();
+                laneCount++;
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).put(VERSION).putLong(seed).putInt(poolLength)
+                .put((byte) stroke.ordinal()).putInt(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            SwimmingLane lane = lanes[i]; // Used lanes come first.
+            double[] samples = lane.getSamples();
+            buffer.putInt(names[i].length).put(names[i]).putInt(lane.getSampleCount());
+            for (int step = 0; step < lane.getSampleCount(); step++) {
+                buffer.putDouble(samples[step]); // Raw bits, so replay is exact.
+            }
+        }
+        return new RaceLog(buffer.array());
+    }
+
+    /**
+     * Reads a race log previously exported with toBytes. The whole layout is
+     * checked here, so a race log read can always be replayed.
+     *
+     * @param data binary race log.
+     * @return the race log.
+     * @throws IllegalOperationException if the data is not a whole race log
+     * of this version.
+     */
+    public static RaceLog fromBytes(byte[] data) {
+        if (!isWhole(ByteBuffer.wrap(data))) {
+            throw new IllegalOperationException(); // Not a race log we can read.
+        }
+        return new RaceLog(Arrays.copyOf(data, data.length));
+    }
+
+    // Walks the layout without reading the samples. Lengths are compared
+    // with what remains before being used, so none can overflow.
+    private static boolean isWhole(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC
+            || buffer.get() != VERSION) {
+            return false;
+        }
+        buffer.getLong(); // Seed.
+        buffer.getInt(); // Pool length.
+        int stroke = buffer.get();
+        int laneCount = buffer.getInt();
+        if (stroke < 0 || stroke >= Stroke.values().length || laneCount < 0) {
+            return false;
+        }
+        for (int lane = 0; lane < laneCount; lane++) {
+            if (buffer.remaining() < 4) {
+                return false;
+            }
+            int nameLength = buffer.getInt();
+            if (nameLength < 0 || buffer.remaining() - 4 < nameLength) {
+                return false;
+            }
+            buffer.position(buffer.position() + nameLength);
+            int sampleCount = buffer.getInt();
+            if (sampleCount < 0 || buffer.remaining() / 8 < sampleCount) {
+                return false;
+            }
+            buffer.position(buffer.position() + 8 * sampleCount);
+        }
+        return !buffer.hasRemaining();
+    }
+
+    /**
+     * Gets the binary form of the race log.
+     *
+     * @return a copy of the binary race log.
+     */
+    public byte[] toBytes() {
+        return Arrays.copyOf(data, data.length);
+    }
+
+    /**
+     * Gets the master seed of the recorded round.
+     *
+     * @return the seed of the round.
+     */
+    public long getSeed() {
+        return ByteBuffer.wrap(data).getLong(5);
+    }
+
+    /*package*/ ByteBuffer read() {
+        ByteBuffer buffer = ByteBuffer.wrap(data).asReadOnlyBuffer();
+        buffer.position(5); // Skip magic and version, checked when created.
+        return buffer;
+    }
+
+}
@@ -0,0 +1,237 @@
+/*
+ * RaceReplay.java
+ * Re-runs a recorded competition round from its race log without threads.
+ * Positions are computed exactly as the lanes computed them during the round.
+ */
+package swimmingcompetition.simulator;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ *
+ * @author Wickramaranga
+ */
+public class RaceReplay {
+
+    private final long seed;
+    private final int poolLength;
+    private final Stroke stroke;
+    private final String[] swimmerNames;
+    private final double[][] samples; // Velocity of each lane at each step.
+    private final double[] positions;
+
+    private long tick;
+
+    /**
+     * Creates a replay of a recorded round, positioned at the start.
+     *
+     * @param log the race log of the round.
+     */
+    public RaceReplay(RaceLog log) {
+        ByteBuffer buffer = log.read();
+        seed = buffer.getLong();
+        poolLength = buffer.getInt();
+        stroke = Stroke.values()[buffer.get()];
+        int laneCount = buffer.getInt();
+
+        swimmerNames = new String[laneCount];
+        samples = new double[laneCount][];
+        for (int lane = 0; lane < laneCount; lane++) {
+            byte[] name = new byte[buffer.getInt()];
+            buffer.get(name);
+            swimmerNames[lane] = new String(name, StandardCharsets.UTF_8);
+            samples[lane] = new double[buffer.getInt()];
+            buffer.asDoubleBuffer().get(samples[lane]);
+            buffer.position(buffer.position() + 8 * samples[lane].length);
+        }
+        positions = new double[laneCount];
+    }
+
+    /**
+     * Gets the master seed of the recorded round.
+     *
+     * @return the seed of the round.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the length of the pool the round was swum in.
+     *
+     * @return the pool length.
+     */
+    public int getPoolLength() {
+        return poolLength;
+    }
+
+    /**
+     * Gets the stroke used in the recorded round.
+     *
+     * @return the stroke of the round.
+     */
+    public Stroke getStroke() {
+        return stroke;
+    }
+
+    /**
+     * Gets the number of lanes used in the recorded round.
+     *
+     * @return the number of swimmers.
+     */
+    public int getLaneCount() {
+        return positions.length;
+    }
+
+    /**
+     * Gets the name of the swimmer in the given lane.
+     *
+     * @param lane lane index.
+     * @return name of the swimmer.
+     */
+    public String getSwimmerName(int lane) {
+        return swimmerNames[lane];
+    }
+
+    /**
+     * Advances all lanes by one step.
+     *
+     * @return whether all swimmers have finished.
+     */
+    public boolean step() {
+        for (int lane = 0; lane < positions.length; lane++) {
+            if (tick < samples[lane].length) {
+                positions[lane] += SwimmingLane.STEP_FACTOR * samples[lane][(int) tick];
+            }
+        }
+        tick++;
+        return isFinished();
+    }
+
+    /**
+     * Moves the replay to the given step, forwards or backwards.
+     *
+     * @param target the step to move to.
+     */
+    public void seek(long target) {
+        if (target < tick) { // Positions are sums, so start over to go back.
+            Arrays.fill(positions, 0.0);
+            tick = 0;
+        }
+        while (tick < target) {
+            step();
+        }
+    }
+
+    /**
+     * Gets the number of steps replayed so far.
+     *
+     * @return the current step.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Gets the simulated time at the current step.
+     *
+     * @return elapsed time in milliseconds.
+     */
+    public long getElapsedMillis() {
+        return tick * SwimmingLane.TICK_MILLIS;
+    }
+
+    /**
+     * Gets the position of the swimmer in the given lane at the current step.
+     *
+     * @param lane lane index.
+     * @return position of the swimmer.
+     */
+    public double getPosition(int lane) {
+        return positions[lane];
+    }
+
+    /**
+     * Gets whether all swimmers have finished at the current step.
+     *
+     * @return whether the round is over.
+     */
+    public boolean isFinished() {
+        return tick >= getLength();
+    }
+
+    /**
+     * Gets the number of steps of the whole round.
+     *
+     * @return the step at which the last swimmer finished.
+     */
+    public long getLength() {
+        long length = 0;
+        for (double[] laneSamples : samples) {
+            length = Math.max(length, laneSamples.length);
+        }
+        return length;
+    }
+
+    /**
+     * Gets the step at which the swimmer in the given lane finished.
+     *
+     * @param lane lane index.
+     * @return the finishing step.
+     */
+    public long getFinishTick(int lane) {
+        return samples[lane].length;
+    }
+
+    /**
+     * Gets the time the swimmer in the given lane took to finish, placed
+     * within the finishing step as the scoreboard places it.
+     *
+     * @param lane lane index.
+     * @return time taken in nanoseconds.
+     */
+    public long getFinishNanos(int lane) {
+        double[] laneSamples = samples[lane];
+        if (laneSamples.length == 0) {
+            return 0;
+        }
+        double position = 0;
+        for (double velocity : laneSamples) {
+            position += SwimmingLane.STEP_FACTOR * velocity;
+        }
+        double distance = SwimmingLane.STEP_FACTOR * laneSamples[laneSamples.length - 1];
+        double overshoot = distance <= 0 ? 0 : Math.min(1.0, (position - poolLength) / distance);
+        return laneSamples.length * SwimmingLane.TICK_NANOS
+               - (long) (overshoot * SwimmingLane.TICK_NANOS);
+    }
+
+    /**
+     * Gets the lanes in the order the swimmers finished. Swimmers finishing at
+     * the same time are ordered by lane, as by the default tie break policy.
+     *
+     * @return lane indexes in finishing order.
+     */
+    public int[] getFinishOrder() {
+        Integer[] order = new Integer[positions.length];
+        final long[] finishNanos = new long[positions.length];
+        for (int lane = 0; lane < order.length; lane++) {
+            order[lane] = lane;
+            finishNanos[lane] = getFinishNanos(lane);
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override // Stable sort, so lanes finishing together stay in order.
+            public int compare(Integer a, Integer b) {
+                return Long.compare(finishNanos[a], finishNanos[b]);
+            }
+        });
+        int[] lanes = new int[order.length];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = order[i];
+        }
+        return lanes;
+    }
+
+}
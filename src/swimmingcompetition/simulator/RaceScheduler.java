@@ -0,0 +1,168 @@
+/*
+ * RaceScheduler.java
+ * Steps the pools of live competitions on a fixed number of threads.
+ */
+package swimmingcompetition.simulator;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import swimmingcompetition.simulator.exceptions.IllegalOperationException;
+
+/**
+ * Every scheduled round is looked at once a tick by a periodic task, which
+ * takes the steps due by the clock of its pool, advancing all lanes of the
+ * pool together. No thread waits between steps, so the number of threads
+ * stays the same however many rounds are live.
+ * <p>
+ * Each step is SwimmingLane.TICK_MILLIS of the clock of the pool, so the
+ * scale of the clock decides how many steps a tick takes. The tick only
+ * decides how smoothly they are spread out.
+ *
+ * @author Wickramaranga
+ */
+public class RaceScheduler implements Executor {
+
+    private static RaceScheduler shared;
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final long tickMillis;
+    private final Set<ScheduledRace> races
+            = ConcurrentHashMap.<ScheduledRace>newKeySet();
+
+    /**
+     * Creates a scheduler.
+     *
+     * @param threads number of threads stepping rounds.
+     * @param tickMillis real time between steps in milliseconds.
+     */
+    public RaceScheduler(int threads, long tickMillis) {
+        if (threads < 1 || tickMillis < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.tickMillis = tickMillis;
+        this.executor = new ScheduledThreadPoolExecutor(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Race scheduler");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Gets the scheduler shared by competitions, with a thread for each
+     * processor and a tick of SwimmingLane.TICK_MILLIS. A new one is made if
+     * the shared scheduler was shut down.
+     *
+     * @return the shared scheduler.
+     */
+    public static synchronized RaceScheduler getShared() {
+        if (shared == null || shared.isShutdown()) {
+            shared = new RaceScheduler(Runtime.getRuntime().availableProcessors(),
+                                       SwimmingLane.TICK_MILLIS);
+        }
+        return shared;
+    }
+
+    /**
+     * Gets the real time between steps.
+     *
+     * @return the tick in milliseconds.
+     */
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    /**
+     * Gets the number of rounds being stepped or paused.
+     *
+     * @return the number of live rounds.
+     */
+    public int getActiveCount() {
+        return races.size();
+    }
+
+    /**
+     * Starts the round prepared in the pool and steps it until every swimmer
+     * has finished. The start is notified on the calling thread; the first
+     * step is taken a tick later.
+     *
+     * @param pool the swimming pool with a prepared round.
+     * @return the round, to pause, resume or cancel it.
+     */
+    public ScheduledRace schedule(SwimmingPool pool) {
+        return schedule(pool, null);
+    }
+
+    /**
+     * Starts the round prepared in the pool and steps it until every swimmer
+     * has finished, or until it is cancelled.
+     *
+     * @param pool the swimming pool with a prepared round.
+     * @param whenCancelled run if the round ends before every swimmer has
+     * finished: when it is cancelled, when a step fails or when the
+     * scheduler is shut down. May be null.
+     * @return the round, to pause, resume or cancel it.
+     */
+    public ScheduledRace schedule(SwimmingPool pool, Runnable whenCancelled) {
+        if (isShutdown()) {
+            throw new IllegalOperationException();
+        }
+        pool.getScoreboard().setClock(pool.getClock());
+        SimulationEngine engine = SimulationEngine.paced(pool);
+        engine.start();
+        ScheduledRace race = new ScheduledRace(this, engine, pool.getClock(), whenCancelled);
+        races.add(race);
+        race.resume();
+        return race;
+    }
+
+    /**
+     * Runs a task on a thread of the scheduler as soon as one is free.
+     *
+     * @param command the task.
+     */
+    @Override
+    public void execute(Runnable command) {
+        executor.execute(command);
+    }
+
+    /**
+     * Cancels every round and stops the threads of the scheduler. Steps
+     * already running are finished. The cancellation callbacks of the rounds
+     * are run on the calling thread.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        for (ScheduledRace race : races) {
+            race.cancel();
+        }
+    }
+
+    /**
+     * Gets whether the scheduler was shut down.
+     *
+     * @return true once shutdown() was called.
+     */
+    public boolean isShutdown() {
+        return executor.isShutdown();
+    }
+
+    /*package*/ ScheduledFuture<?> repeat(Runnable step) {
+        return executor.scheduleAtFixedRate(step, tickMillis, tickMillis,
+                                            TimeUnit.MILLISECONDS);
+    }
+
+    /*package*/ void remove(ScheduledRace race) {
+        races.remove(race);
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * RoundForecast.java
+ * Aggregated outcome of many simulated replicas of a competition round.
+ * 
+ */
+package swimmingcompetition.simulator;
+
+import java.util.Collections;
+import java.util.List;
+
+import swimmingcompetition.simulator.exceptions.IllegalOperationException;
+
+/**
+ *
+ * @author Wickramaranga
+ */
+public class RoundForecast {
+
+    /**
+     * Number of places on the podium.
+     */
+    public static final int PODIUM_SIZE = 3;
+
+    private final List<Swimmer> swimmers;
+    private final int replicas;
+    private final long seed;
+    private final long[] wins;
+    private final long[] podiums;
+    private final FinishTimeDistribution[] finishTimes;
+
+    /*package*/ RoundForecast(List<Swimmer> swimmers, int replicas, long seed,
+                              long[] wins, long[] podiums, long[][] finishTicks) {
+        this.swimmers = Collections.unmodifiableList(swimmers);
+        this.replicas = replicas;
+        this.seed = seed;
+        this.wins = wins;
+        this.podiums = podiums;
+        this.finishTimes = new FinishTimeDistribution[swimmers.size()];
+        for (int i = 0; i < finishTimes.length; i++) {
+            finishTimes[i] = new FinishTimeDistribution(finishTicks[i],
+                                                        SwimmingLane.TICK_MILLIS);
+        }
+    }
+
+    /**
+     * Gets the swimmers who participated in the round.
+     *
+     * @return a list of swimmers.
+     */
+    public List<Swimmer> getSwimmers() {
+        return swimmers;
+    }
+
+    /**
+     * Gets the number of simulated replicas.
+     *
+     * @return the replica count.
+     */
+    public int getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Gets the master seed the forecast was run with.
+     *
+     * @return the seed of the forecast.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the probability of the swimmer winning the round.
+     *
+     * @param swimmer a swimmer who participated in the round.
+     * @return probability of finishing first.
+     */
+    public double getWinProbability(Swimmer swimmer) {
+        return (double) wins[indexOf(swimmer)] / replicas;
+    }
+
+    /**
+     * Gets the probability of the swimmer finishing on the podium.
+     *
+     * @param swimmer a swimmer who participated in the round.
+     * @return probability of finishing in the first three places.
+     */
+    public double getPodiumProbability(Swimmer swimmer) {
+        return (double) podiums[indexOf(swimmer)] / replicas;
+    }
+
+    /**
+     * Gets the distribution of the times taken by the swimmer to finish.
+     *
+     * @param swimmer a swimmer who participated in the round.
+     * @return the finish time distribution of the swimmer.
+     */
+    public FinishTimeDistribution getFinishTimes(Swimmer swimmer) {
+        return finishTimes[indexOf(swimmer)];
+    }
+
+    private int indexOf(Swimmer swimmer) {
+        int index = swimmers.indexOf(swimmer);
+        if (index < 0) {
+            throw new IllegalOperationException(); // Did not swim in the round.
+        }
+        return index;
+    }
+
+}
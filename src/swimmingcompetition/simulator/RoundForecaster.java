@@ -0,0 +1,176 @@
+/*
+ * RoundForecaster.java
+ * Estimates the outcome of a competition round by simulating many independent
+ * replicas of it in parallel.
+ */
+package swimmingcompetition.simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import swimmingcompetition.simulator.exceptions.WrongPersonCountException;
+
+/**
+ *
+ * @author Wickramaranga
+ */
+public class RoundForecaster {
+
+    // Replicas simulated sequentially by a single task before splitting.
+    private static final int REPLICAS_PER_TASK = 256;
+
+    private final List<Swimmer> swimmers;
+    private final Gender gender;
+    private final Stroke stroke;
+    private final int poolLength;
+
+    /**
+     * Creates a forecaster for a round.
+     *
+     * @param swimmers Swimmers who participate in the round.
+     * @param stroke Stroke used in the round.
+     * @param poolLength Length of the swimming pool.
+     */
+    public RoundForecaster(List<Swimmer> swimmers, Stroke stroke, int poolLength) {
+        if (swimmers == null || swimmers.size() < 2) {
+            throw new WrongPersonCountException();
+        }
+        this.swimmers = new ArrayList<>(swimmers);
+        this.gender = swimmers.get(0).getGender(); // Pool checks the rest.
+        this.stroke = stroke;
+        this.poolLength = poolLength;
+    }
+
+    /**
+     * Simulates the round the given number of times using the common pool.
+     *
+     * @param replicas number of independent rounds to simulate.
+     * @return the aggregated outcome of all replicas.
+     */
+    public RoundForecast forecast(int replicas) {
+        return forecast(replicas, Seeds.newSeed(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Simulates the round the given number of times. Replica i is prepared
+     * with a seed derived from the master seed and i, so the same arguments
+     * always give the same forecast.
+     *
+     * @param replicas number of independent rounds to simulate.
+     * @param seed master seed for the forecast.
+     * @param executor pool which runs the replicas.
+     * @return the aggregated outcome of all replicas.
+     */
+    public RoundForecast forecast(int replicas, long seed, ForkJoinPool executor) {
+        if (replicas < 1) {
+            throw new IllegalArgumentException("replicas: " + replicas);
+        }
+        Tally tally = executor.invoke(new ReplicaTask(seed, 0, replicas));
+        return new RoundForecast(swimmers, replicas, seed, tally.wins,
+                                 tally.podiums, tally.finishTicks);
+    }
+
+    /**
+     * Simulates replicas from..to on the calling thread. Each call uses its own
+     * pool and scoreboards, swimmers are only read.
+     */
+    private Tally simulate(long seed, int from, int to) {
+        Tally tally = new Tally(swimmers.size());
+        SwimmingPool pool = new SwimmingPool(swimmers.size(), poolLength);
+        for (int replica = from; replica < to; replica++) {
+            long replicaSeed = Seeds.derive(seed, replica);
+            pool.prepare(gender, stroke, swimmers, replicaSeed);
+            Scoreboard scoreboard = new Scoreboard(swimmers.size(), replicaSeed, null);
+            pool.setScoreboard(scoreboard);
+            new SimulationEngine(pool, new SimulatedClock(0)).run();
+
+            List<Swimmer> ranking = scoreboard.getSwimmerRanking();
+            long[] times = scoreboard.getElapsedTimes();
+            for (int rank = 0; rank < ranking.size(); rank++) {
+                int index = swimmers.indexOf(ranking.get(rank));
+                if (rank == 0) {
+                    tally.wins[index]++;
+                }
+                if (rank < RoundForecast.PODIUM_SIZE) {
+                    tally.podiums[index]++;
+                }
+                // Step in which the swimmer touched the end.
+                tally.addFinish(index, (int) ((times[rank] + SwimmingLane.TICK_NANOS - 1)
+                                              / SwimmingLane.TICK_NANOS));
+            }
+        }
+        return tally;
+    }
+
+    private class ReplicaTask extends RecursiveTask<Tally> {
+
+        private final long seed;
+        private final int from;
+        private final int to;
+
+        ReplicaTask(long seed, int from, int to) {
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (to - from <= REPLICAS_PER_TASK) {
+                return simulate(seed, from, to);
+            }
+            int middle = (from + to) >>> 1;
+            ReplicaTask left = new ReplicaTask(seed, from, middle);
+            left.fork();
+            Tally tally = new ReplicaTask(seed, middle, to).compute();
+            tally.merge(left.join());
+            return tally;
+        }
+    }
+
+    /**
+     * Partial result of a set of replicas.
+     */
+    private static class Tally {
+
+        final long[] wins;
+        final long[] podiums;
+        final long[][] finishTicks; // Histogram of finishing step per swimmer.
+
+        Tally(int swimmerCount) {
+            wins = new long[swimmerCount];
+            podiums = new long[swimmerCount];
+            finishTicks = new long[swimmerCount][0];
+        }
+
+        void addFinish(int swimmer, int tick) {
+            if (tick >= finishTicks[swimmer].length) {
+                finishTicks[swimmer] = grow(finishTicks[swimmer], tick + 1);
+            }
+            finishTicks[swimmer][tick]++;
+        }
+
+        void merge(Tally other) {
+            for (int i = 0; i < wins.length; i++) {
+                wins[i] += other.wins[i];
+                podiums[i] += other.podiums[i];
+                long[] theirs = other.finishTicks[i];
+                if (theirs.length > finishTicks[i].length) {
+                    finishTicks[i] = grow(finishTicks[i], theirs.length);
+                }
+                for (int tick = 0; tick < theirs.length; tick++) {
+                    finishTicks[i][tick] += theirs[tick];
+                }
+            }
+        }
+
+        private static long[] grow(long[] histogram, int minLength) {
+            long[] grown = new long[Math.max(minLength, histogram.length * 2)];
+            System.arraycopy(histogram, 0, grown, 0, histogram.length);
+            return grown;
+        }
+    }
+
+}
@@ -0,0 +1,40 @@
+/*
+ * RoundHistory.java
+ * Previous rounds of a competition.
+ * 
+ */
+package swimmingcompetition.simulator;
+
+import java.io.Serializable;
+
+/**
+ * Rounds are fetched by index, so a history kept outside the heap only needs
+ * to load the rounds which are asked for.
+ *
+ * @author Wickramaranga
+ */
+public interface RoundHistory extends Serializable {
+
+    /**
+     * Gets the number of rounds.
+     *
+     * @return the number of rounds.
+     */
+    int size();
+
+    /**
+     * Gets the scoreboard of a round.
+     *
+     * @param index index of the round, the oldest being 0.
+     * @return the scoreboard of the round.
+     */
+    Scoreboard get(int index);
+
+    /**
+     * Adds the scoreboard of a finished round as the newest round.
+     *
+     * @param scoreboard the scoreboard of the round.
+     */
+    void add(Scoreboard scoreboard);
+
+}
@@ -0,0 +1,22 @@
+/*
+ * ScalarStepKernel.java
+ * Step kernel which advances lanes one at a time.
+ * 
+ */
+package swimmingcompetition.simulator;
+
+/**
+ *
+ * @author Wickramaranga
+ */
+public class ScalarStepKernel implements StepKernel {
+
+    @Override
+    public void accumulate(double[] positions, double[] velocities, double factor,
+                           int count) {
+        for (int i = 0; i < count; i++) {
+            positions[i] += factor * velocities[i];
+        }
+    }
+
+}
@@ -0,0 +1,259 @@
+/*
+ * ScaledClock.java
+ * Real time clock which runs faster or slower than the wall clock, and can be
+ * paused.
+ */
+package swimmingcompetition.simulator;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import swimmingcompetition.simulator.exceptions.IllegalOperationException;
+
+/**
+ * Time is kept as the time reached when the scale last changed plus the wall
+ * time since then multiplied by the scale. The lanes wait on the clock for
+ * their next step instead of sleeping, so they follow every change of the
+ * scale at once.
+ * <p>
+ * At the INSTANT scale the clock does not follow the wall clock at all: it
+ * jumps to the time of each step as soon as the step is waited for, so the
+ * rest of the round is run as fast as it can be.
+ * <p>
+ * The clock is guarded by a ReentrantLock rather than a monitor, so lanes on
+ * virtual threads unmount while they wait instead of pinning their carrier
+ * thread.
+ *
+ * @author Wickramaranga
+ */
+public class ScaledClock implements SimulationClock {
+
+    /**
+     * Fastest scale apart from INSTANT.
+     */
+    public static final double MAX_SCALE = 100;
+
+    /**
+     * Scale at which every wait returns at once.
+     */
+    public static final double INSTANT = Double.POSITIVE_INFINITY;
+
+    private final long startMillis;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition(); // Scale or pause.
+    private double scale;
+    private boolean paused;
+    private boolean stopped; // For good, the round was cancelled.
+    private long baseNanos; // Time of the clock when the wall time was taken.
+    private long baseWallNanos;
+
+    /**
+     * Creates a clock starting from the current time at the given scale.
+     *
+     * @param scale the scale.
+     */
+    public ScaledClock(double scale) {
+        checkScale(scale);
+        this.startMillis = System.currentTimeMillis();
+        this.scale = scale == 0 ? 1 : scale; // Paused at 1x.
+        this.paused = scale == 0;
+        this.baseWallNanos = System.nanoTime();
+    }
+
+    /**
+     * Checks that a scale is between 0 and MAX_SCALE, or INSTANT.
+     *
+     * @param scale the scale.
+     */
+    public static void checkScale(double scale) {
+        if (!(scale >= 0 && scale <= MAX_SCALE) && scale != INSTANT) {
+            throw new IllegalOperationException();
+        }
+    }
+
+    /**
+     * Gets how many times faster than the wall clock this clock runs when it
+     * is not paused.
+     *
+     * @return the scale.
+     */
+    public double getScale() {
+        lock.lock();
+        try {
+            return scale;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Changes how many times faster than the wall clock this clock runs. A
+     * scale of 0 pauses the clock; any other scale leaves a paused clock
+     * paused until it is resumed.
+     *
+     * @param scale the scale.
+     */
+    public void setScale(double scale) {
+        checkScale(scale);
+        if (scale == 0) {
+            pause();
+            return;
+        }
+        lock.lock();
+        try {
+            rebase();
+            this.scale = scale;
+            changed.signalAll(); // Waiting lanes work out their wait again.
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the clock, keeping its scale.
+     */
+    public void pause() {
+        lock.lock();
+        try {
+            rebase();
+            paused = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts the clock again at the scale it had before it was paused.
+     */
+    public void resume() {
+        lock.lock();
+        try {
+            rebase();
+            paused = false;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the clock for good. Every wait on it, from now on too, returns at
+     * once.
+     */
+    public void stop() {
+        lock.lock();
+        try {
+            stopped = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets whether the clock was stopped for good.
+     *
+     * @return whether the clock is stopped.
+     */
+    public boolean isStopped() {
+        lock.lock();
+        try {
+            return stopped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets whether the clock is paused.
+     *
+     * @return whether the clock is paused.
+     */
+    public boolean isPaused() {
+        lock.lock();
+        try {
+            return paused;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until the clock reaches a time, or until it is stopped. At the
+     * INSTANT scale the clock jumps to the time instead.
+     *
+     * @param nanos the time, as given by nanoTime().
+     * @throws InterruptedException if the thread is interrupted while
+     * waiting.
+     */
+    public void sleepUntil(long nanos) throws InterruptedException {
+        lock.lock();
+        try {
+            while (!stopped && !reach(nanos)) {
+                if (paused) {
+                    changed.await();
+                } else {
+                    long wallNanos = Math.max(1, (long) ((nanos - nanoTime()) / scale));
+                    changed.await(wallNanos, TimeUnit.NANOSECONDS);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks whether the clock has reached a time, without waiting. At the
+     * INSTANT scale the clock jumps to the time instead.
+     *
+     * @param nanos the time, as given by nanoTime().
+     * @return whether the clock is at or past the time.
+     */
+    public boolean reach(long nanos) {
+        lock.lock();
+        try {
+            if (nanoTime() >= nanos) {
+                return true;
+            }
+            if (paused || scale != INSTANT) {
+                return false;
+            }
+            baseNanos = nanos;
+            baseWallNanos = System.nanoTime();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long nanoTime() {
+        lock.lock();
+        try {
+            if (paused || scale == INSTANT) {
+                return baseNanos;
+            }
+            return baseNanos + (long) ((System.nanoTime() - baseWallNanos) * scale);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return startMillis + nanoTime() / 1000000L;
+    }
+
+    @Override
+    public boolean isRealTime() {
+        return true;
+    }
+
+    // Called with the lock held.
+    private void rebase() {
+        baseNanos = nanoTime();
+        baseWallNanos = System.nanoTime();
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * ScheduledRace.java
+ * A round stepped by a race scheduler.
+ */
+package swimmingcompetition.simulator;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pausing cancels the periodic step and pauses the clock of the round, so a
+ * paused round costs nothing until it is resumed, and the time it is paused
+ * does not count towards the finish times. A round which is cancelled, fails in a step or is left
+ * behind by the scheduler shutting down never finishes; the callback given
+ * when it was scheduled is run instead, on the thread which ended it.
+ *
+ * @author Wickramaranga
+ */
+public final class ScheduledRace {
+
+    private static final Logger LOGGER = Logger.getLogger(ScheduledRace.class.getName());
+
+    private final RaceScheduler scheduler;
+    private final SimulationEngine engine;
+    private final ScaledClock clock;
+    private final Runnable whenCancelled;
+    private final Runnable step = new Runnable() {
+        @Override
+        public void run() {
+            step();
+        }
+    };
+
+    private ScheduledFuture<?> future; // Null while paused.
+    private boolean done;
+
+    /*package*/ ScheduledRace(RaceScheduler scheduler, SimulationEngine engine,
+                              ScaledClock clock, Runnable whenCancelled) {
+        this.scheduler = scheduler;
+        this.engine = engine;
+        this.clock = clock;
+        this.whenCancelled = whenCancelled;
+    }
+
+    /**
+     * Stops stepping the round and its clock until it is resumed.
+     *
+     * @return false if the round was already paused or is over.
+     */
+    public synchronized boolean pause() {
+        if (done || future == null) {
+            return false;
+        }
+        future.cancel(false);
+        future = null;
+        clock.pause();
+        return true;
+    }
+
+    /**
+     * Starts the clock of the round again and steps it, the first step a
+     * tick later. The round is cancelled if its scheduler was shut down.
+     *
+     * @return false if the round was not paused or is over.
+     */
+    public boolean resume() {
+        try {
+            synchronized (this) {
+                if (done || future != null) {
+                    return false;
+                }
+                clock.resume();
+                future = scheduler.repeat(step);
+                return true;
+            }
+        } catch (RejectedExecutionException ex) {
+            cancel();
+            return false;
+        }
+    }
+
+    /**
+     * Stops stepping the round for good. The round is left unfinished.
+     */
+    public void cancel() {
+        if (end()) {
+            cancelled();
+        }
+    }
+
+    /**
+     * Gets whether the round is paused.
+     *
+     * @return true if the round is paused.
+     */
+    public synchronized boolean isPaused() {
+        return !done && future == null;
+    }
+
+    /**
+     * Gets whether the round finished or was cancelled.
+     *
+     * @return true if the round is no longer stepped.
+     */
+    public synchronized boolean isDone() {
+        return done;
+    }
+
+    // A periodic task never overlaps itself, but the task of a quick pause
+    // and resume may start while the last step of the old one is running.
+    private void step() {
+        boolean failed = false;
+        synchronized (engine) {
+            if (isDone()) {
+                return;
+            }
+            try {
+                if (engine.stepDue()) {
+                    end();
+                }
+            } catch (RuntimeException ex) {
+                LOGGER.log(Level.SEVERE, "Round stopped", ex);
+                failed = end();
+            }
+        }
+        if (failed) { // Outside the locks, as the callback takes its own.
+            cancelled();
+        }
+    }
+
+    // Returns false if the round had already ended.
+    private synchronized boolean end() {
+        if (done) {
+            return false;
+        }
+        done = true;
+        if (future != null) {
+            future.cancel(false);
+            future = null;
+        }
+        scheduler.remove(this);
+        return true;
+    }
+
+    private void cancelled() {
+        if (whenCancelled == null) {
+            return;
+        }
+        try {
+            whenCancelled.run();
+        } catch (RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "Cancellation callback failed", ex);
+        }
+    }
+
+}
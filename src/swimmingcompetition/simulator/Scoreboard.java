@@ -7,28 +7,77 @@ package swimmingcompetition.simulator;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import swimmingcompetition.simulator.exceptions.IllegalOperationException;
 
 /**
+ * Finishes are recorded without locking. Each finishing swimmer claims the
+ * next slot in arrays sized for the round; the swimmer is written after the
+ * time and the lane, so a filled swimmer slot means the whole entry is
+ * visible. Readers copy the filled prefix of the slots.
+ * <p>
+ * Times are kept as nanoseconds elapsed since the start, taken from the
+ * monotonic time of the clock. The order of the slots is only the order in
+ * which lanes reported, so readers rank swimmers by time, and swimmers with
+ * equal times by the tie break policy.
  *
  * @author Wickramaranga
  */
 public class Scoreboard extends Observable implements Serializable {
 
     private final int numberOfSwimmers;
+    private final long seed;
+    private final Stroke stroke;
     transient private final Runnable stopCallback; // Cannot save a method.
     // stopCallback's Run method is executed at the end of the competition. 
+    transient private SimulationClock clock;
+    transient private RaceEventBus eventBus;
+    transient private ObserverDispatcher dispatcher;
+    transient private Executor callbackExecutor;
 
-    private Date startTime;
-    private final List<Date> finishTimes;
-    private final List<Swimmer> finishSwimmers;
+    private volatile Date startTime;
+    transient private volatile long startNanos; // Monotonic time of the start.
+    private RaceLog raceLog;
+    private TieBreakPolicy tieBreakPolicy;
+    private final AtomicInteger nextSlot; // Slots claimed by finishing swimmers.
+    private final AtomicInteger finishedCount; // Slots completely recorded.
+    private final AtomicLongArray finishTimes; // Elapsed nanos, by slot.
+    private final AtomicIntegerArray finishLanes; // By slot.
+    private final AtomicReferenceArray<Swimmer> finishSwimmers; // By slot.
 
-    public Scoreboard(int numberOfSwimmers, Runnable stopCallback) {
+    public Scoreboard(int numberOfSwimmers, long seed, Runnable stopCallback) {
+        this(numberOfSwimmers, seed, null, stopCallback);
+    }
+
+    /**
+     * Creates the scoreboard of a round.
+     *
+     * @param numberOfSwimmers number of swimmers in the round.
+     * @param seed master seed of the round.
+     * @param stroke stroke of the round, or null if not known.
+     * @param stopCallback run when all swimmers have finished, or null.
+     */
+    public Scoreboard(int numberOfSwimmers, long seed, Stroke stroke, Runnable stopCallback) {
         this.numberOfSwimmers = numberOfSwimmers;
+        this.seed = seed;
+        this.stroke = stroke;
         this.stopCallback = stopCallback;
-        finishTimes = new ArrayList<>();
-        finishSwimmers = new ArrayList<>();
+        tieBreakPolicy = TieBreakPolicy.LANE;
+        nextSlot = new AtomicInteger();
+        finishedCount = new AtomicInteger();
+        finishTimes = new AtomicLongArray(numberOfSwimmers);
+        finishLanes = new AtomicIntegerArray(numberOfSwimmers);
+        finishSwimmers = new AtomicReferenceArray<>(numberOfSwimmers);
     }
 
     /**
@@ -40,11 +89,152 @@ public class Scoreboard extends Observable implements Serializable {
         return numberOfSwimmers;
     }
 
+    /**
+     * Gets the master seed of the round. Preparing a round with the same
+     * swimmers, stroke and seed reproduces it.
+     *
+     * @return the seed for the round.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Restores the scoreboard of a finished round, such as one loaded from a
+     * file. Finishes are given in the order they were reported.
+     *
+     * @param seed master seed of the round.
+     * @param stroke stroke of the round, or null if not known.
+     * @param tieBreakPolicy how swimmers with the same time are ranked.
+     * @param startMillis start time of the round in milliseconds since the epoch.
+     * @param swimmers the swimmer of each finish.
+     * @param lanes the lane of each finish.
+     * @param elapsedNanos the time taken by each finish in nanoseconds.
+     * @return the scoreboard with all finishes recorded.
+     */
+    public static Scoreboard restore(long seed, Stroke stroke, TieBreakPolicy tieBreakPolicy,
+                                     long startMillis, Swimmer[] swimmers, int[] lanes,
+                                     long[] elapsedNanos) {
+        Scoreboard scoreboard = new Scoreboard(swimmers.length, seed, stroke, null);
+        scoreboard.setTieBreakPolicy(tieBreakPolicy);
+        scoreboard.startTime = new Date(startMillis);
+        for (int slot = 0; slot < swimmers.length; slot++) {
+            scoreboard.finishTimes.set(slot, elapsedNanos[slot]);
+            scoreboard.finishLanes.set(slot, lanes[slot]);
+            scoreboard.finishSwimmers.set(slot, swimmers[slot]);
+        }
+        scoreboard.nextSlot.set(swimmers.length);
+        scoreboard.finishedCount.set(swimmers.length);
+        return scoreboard;
+    }
+
+    /**
+     * Gets the stroke used in the round.
+     *
+     * @return the stroke, or null if not known.
+     */
+    public Stroke getStroke() {
+        return stroke;
+    }
+
+    /**
+     * Gets the log of the velocities of the swimmers during the round.
+     *
+     * @return the race log, or null if the round has not finished.
+     */
+    public RaceLog getRaceLog() {
+        return raceLog;
+    }
+
+    /**
+     * Sets the log of the velocities of the swimmers during the round.
+     *
+     * @param raceLog the race log of the finished round.
+     */
+    public void setRaceLog(RaceLog raceLog) {
+        this.raceLog = raceLog;
+    }
+
+    /**
+     * Gets how swimmers who finish at the same time are ranked.
+     *
+     * @return the tie break policy.
+     */
+    public TieBreakPolicy getTieBreakPolicy() {
+        return tieBreakPolicy;
+    }
+
+    /**
+     * Sets how swimmers who finish at the same time are ranked. The ranking is
+     * made when it is read, so this applies to finishes already recorded too.
+     *
+     * @param tieBreakPolicy the tie break policy.
+     */
+    public void setTieBreakPolicy(TieBreakPolicy tieBreakPolicy) {
+        assert tieBreakPolicy != null;
+        this.tieBreakPolicy = tieBreakPolicy;
+    }
+
+    /**
+     * Sets the bus on which finishes are published, in addition to notifying
+     * the observers of the scoreboard.
+     *
+     * @param eventBus event bus of the competition, or null.
+     */
+    public void setEventBus(RaceEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    /**
+     * Sets the dispatcher which notifies the observers of finishes, so that
+     * the lanes do not wait for them. Observers are notified on the lane
+     * thread if no dispatcher is set.
+     *
+     * @param dispatcher dispatcher of the competition, or null.
+     */
+    public void setDispatcher(ObserverDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Sets the executor which runs the stop callback when a real time round
+     * ends, so that the lane which finished last does not run it. The shared
+     * race scheduler runs it if no executor is set.
+     *
+     * @param callbackExecutor executor of the competition, or null.
+     */
+    public void setCallbackExecutor(Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * Sets the clock used to stamp start and finish times. Real time is used
+     * unless another clock is set.
+     *
+     * @param clock Clock for the round.
+     */
+    public void setClock(SimulationClock clock) {
+        this.clock = clock;
+    }
+
+    private SimulationClock getClock() {
+        // Clock is not saved, old scoreboards fall back to the wall clock.
+        return clock != null ? clock : SystemClock.INSTANCE;
+    }
+
     /**
      * Notifies scoreboard of the starting of the competition.
      */
     public void notifyStart() {
-        startTime = new Date();
+        startNanos = getClock().nanoTime();
+        startTime = new Date(getClock().currentTimeMillis());
+        if (eventBus != null) {
+            eventBus.publishStart();
+        }
+    }
+
+    /*package*/ long getStartNanos() {
+        return startNanos;
     }
 
     /**
@@ -57,53 +247,279 @@ public class Scoreboard extends Observable implements Serializable {
     }
 
     /**
-     * Notified the scoreboard that a swimmer just finished the game. So, swimmers are guaranteed to
-     * be in the winning order in FinishTimes.
+     * Notified the scoreboard that a swimmer just finished the game. The
+     * lane of the swimmer is not known, so the swimmer is ranked first among
+     * swimmers with the same time under the LANE policy.
      *
      * @param swimmer Swimmer who finished now.
      */
-    public synchronized void notifyFinish(Swimmer swimmer) {
+    public void notifyFinish(Swimmer swimmer) {
+        notifyFinish(swimmer, -1, 0);
+    }
+
+    /**
+     * Notified the scoreboard that a swimmer finished the game. Does not
+     * block, lanes may call it concurrently.
+     *
+     * @param swimmer Swimmer who finished.
+     * @param lane Lane of the swimmer.
+     * @param overshootNanos How long ago the swimmer touched the end.
+     */
+    public void notifyFinish(Swimmer swimmer, int lane, long overshootNanos) {
+        assert overshootNanos >= 0;
+        recordFinish(swimmer, lane, getClock().nanoTime() - overshootNanos);
+    }
+
+    /**
+     * Records a finish at the given time of the clock of the scoreboard. The
+     * simulator passes the time of the step the swimmer finished in, as other
+     * lanes may already have moved the clock past it.
+     *
+     * @param swimmer Swimmer who finished.
+     * @param lane Lane of the swimmer.
+     * @param touchNanos When the swimmer touched the end, as given by the
+     * nanoTime() of the clock.
+     */
+    /*package*/ void recordFinish(Swimmer swimmer, int lane, long touchNanos) {
         assert swimmer != null; // Dead men can't talk ;)
 
+        int slot = nextSlot.getAndIncrement();
+        if (slot >= numberOfSwimmers) {
+            throw new IllegalOperationException();
+            // More finishes than swimmers in the round. 
+        }
         // Swimmer finished now! IMPORTANT: Add time first!! 
-        finishTimes.add(new Date());
-        finishSwimmers.add(swimmer);
+        finishTimes.set(slot, touchNanos - startNanos);
+        finishLanes.set(slot, lane);
+        finishSwimmers.set(slot, swimmer);
+        int finished = finishedCount.incrementAndGet();
 
         notifyObservers(this, swimmer);
-        tryEndCompetition(); // Check whether all have crossed the finish line.
+        if (eventBus != null) {
+            eventBus.publishFinish(lane, swimmer);
+        }
+        if (finished == numberOfSwimmers) { // All have crossed the finish line.
+            endCompetition();
+        }
     }
 
-    private void tryEndCompetition() {
+    private void endCompetition() {
         // Notify the competition saying that the competition has ended. 
-        if (finishTimes.size() == numberOfSwimmers) {
-            new Thread(stopCallback).start();
+        if (stopCallback == null) {
+            return;
+        }
+        if (getClock().isRealTime()) {
+            Executor executor = callbackExecutor;
+            try {
+                (executor != null ? executor : RaceScheduler.getShared()).execute(stopCallback);
+            } catch (RejectedExecutionException ex) { // Its scheduler was shut down.
+                stopCallback.run();
+            }
+        } else {
+            // Simulated rounds run on one thread, end them synchronously. 
+            stopCallback.run();
         }
     }
 
     /**
-     * Returns finish times for all participated swimmers in the winning order.
+     * Gets the number of swimmers whose finish has been recorded. Never
+     * blocks or retries.
      *
-     * @return All swimmers and their finish times.
+     * @return number of finished swimmers.
+     */
+    public int getFinishedCount() {
+        return finishedCount.get();
+    }
+
+    /**
+     * Counts the slots from the first which are completely recorded. A
+     * swimmer who claimed a later slot may be recorded before one who claimed
+     * an earlier slot, so the count can be less than getFinishedCount().
+     */
+    private int recordedPrefix() {
+        int count = 0;
+        while (count < numberOfSwimmers && finishSwimmers.get(count) != null) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Gets the recorded slots in the winning order.
      */
-    public synchronized List<Date> getFinishTimes() {
-        return finishTimes;
+    private Integer[] rankedSlots(final TieBreakPolicy policy) {
+        Integer[] slots = new Integer[recordedPrefix()];
+        for (int slot = 0; slot < slots.length; slot++) {
+            slots[slot] = slot;
+        }
+        Arrays.sort(slots, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                int byTime = Long.compare(finishTimes.get(a), finishTimes.get(b));
+                if (byTime != 0) {
+                    return byTime;
+                }
+                return Long.compare(tieBreakKey(policy, a), tieBreakKey(policy, b));
+            }
+        });
+        return slots;
     }
 
     /**
-     * Returns the swimmer profile for the rank.
+     * Gets the value which orders the finish in the given slot among finishes
+     * with the same time.
+     */
+    private long tieBreakKey(TieBreakPolicy policy, int slot) {
+        switch (policy) {
+            case ARRIVAL:
+                return slot;
+            case SEEDED:
+                return Seeds.derive(seed, finishLanes.get(slot));
+            default:
+                return finishLanes.get(slot);
+        }
+    }
+
+    /**
+     * Gets the finishes recorded from the given report onwards, in the order
+     * they were reported. Lets readers follow a round by reading only the new
+     * finishes; use Finish.compareTo to place them in the ranking.
      *
-     * @return Swimmer object corresponding to the index.
+     * @param from number of finishes already read.
+     * @return the finishes reported after them.
      */
-    public synchronized List<Swimmer> getSwimmerRanking() {
-        return finishSwimmers;
+    public List<Finish> getFinishesSince(int from) {
+        TieBreakPolicy policy = tieBreakPolicy;
+        int count = recordedPrefix();
+        List<Finish> finishes = new ArrayList<>(Math.max(0, count - from));
+        for (int slot = from; slot < count; slot++) {
+            finishes.add(new Finish(finishSwimmers.get(slot), finishLanes.get(slot),
+                                    finishTimes.get(slot), tieBreakKey(policy, slot)));
+        }
+        return finishes;
     }
 
-    @Override
-    public void notifyObservers(Observable o, Object arg) {
-        for (Observer observer : observers) {
-            observer.update(o, arg);
+    /**
+     * Returns the finishes recorded so far in the winning order. The swimmers
+     * and their times are taken at once, so they agree with each other even
+     * while swimmers are finishing; the other snapshots are made from it.
+     *
+     * @return A snapshot of the ranked finishes, which cannot be modified.
+     */
+    public List<Finish> getRankedFinishes() {
+        TieBreakPolicy policy = tieBreakPolicy;
+        List<Finish> ranked = new ArrayList<>();
+        for (int slot : rankedSlots(policy)) {
+            ranked.add(new Finish(finishSwimmers.get(slot), finishLanes.get(slot),
+                                  finishTimes.get(slot), tieBreakKey(policy, slot)));
+        }
+        return Collections.unmodifiableList(ranked);
+    }
+
+    /**
+     * Returns finish times for all swimmers finished so far in the winning
+     * order.
+     *
+     * @return A snapshot of the finish times, which cannot be modified.
+     */
+    public List<Date> getFinishTimes() {
+        long startMillis = startTime.getTime();
+        List<Date> times = new ArrayList<>();
+        for (Finish finish : getRankedFinishes()) {
+            times.add(new Date(startMillis + finish.getElapsedNanos() / 1000000L));
+        }
+        return Collections.unmodifiableList(times);
+    }
+
+    /**
+     * Returns the time taken by each swimmer finished so far in the winning
+     * order.
+     *
+     * @return A snapshot of the times taken in nanoseconds.
+     */
+    public long[] getElapsedTimes() {
+        List<Finish> ranked = getRankedFinishes();
+        long[] times = new long[ranked.size()];
+        for (int rank = 0; rank < times.length; rank++) {
+            times[rank] = ranked.get(rank).getElapsedNanos();
+        }
+        return times;
+    }
+
+    /**
+     * Returns the swimmers finished so far in the winning order.
+     *
+     * @return A snapshot of the ranking, which cannot be modified.
+     */
+    public List<Swimmer> getSwimmerRanking() {
+        List<Swimmer> ranking = new ArrayList<>();
+        for (Finish finish : getRankedFinishes()) {
+            ranking.add(finish.getSwimmer());
+        }
+        return Collections.unmodifiableList(ranking);
+    }
+
+    /**
+     * A finish recorded on the scoreboard. Finishes are ordered as in the
+     * ranking of the scoreboard.
+     */
+    public static class Finish implements Comparable<Finish> {
+
+        private final Swimmer swimmer;
+        private final int lane;
+        private final long elapsedNanos;
+        private final long tieBreakKey;
+
+        private Finish(Swimmer swimmer, int lane, long elapsedNanos, long tieBreakKey) {
+            this.swimmer = swimmer;
+            this.lane = lane;
+            this.elapsedNanos = elapsedNanos;
+            this.tieBreakKey = tieBreakKey;
+        }
+
+        /**
+         * Gets the swimmer who finished.
+         *
+         * @return the swimmer.
+         */
+        public Swimmer getSwimmer() {
+            return swimmer;
         }
 
+        /**
+         * Gets the lane of the swimmer.
+         *
+         * @return lane index, or -1 if not known.
+         */
+        public int getLane() {
+            return lane;
+        }
+
+        /**
+         * Gets the time taken by the swimmer.
+         *
+         * @return time taken in nanoseconds.
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        @Override
+        public int compareTo(Finish other) {
+            int byTime = Long.compare(elapsedNanos, other.elapsedNanos);
+            return byTime != 0 ? byTime : Long.compare(tieBreakKey, other.tieBreakKey);
+        }
+    }
+
+    @Override // Only finishes are notified.
+    public void notifyObservers(Observable o, Object arg) {
+        Subscribers subscribers = getSubscribers(Topic.FINISH);
+        ObserverDispatcher dispatcher = this.dispatcher;
+        if (dispatcher != null) {
+            dispatcher.dispatch(o, arg, subscribers);
+            return;
+        }
+        subscribers.deliver(o, arg);
     }
 
 }
@@ -0,0 +1,50 @@
+/*
+ * Seeds.java
+ * Creates the seeds which make competition rounds reproducible.
+ * 
+ */
+package swimmingcompetition.simulator;
+
+import java.util.SplittableRandom;
+
+/**
+ *
+ * @author Wickramaranga
+ */
+public final class Seeds {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private static final SplittableRandom SOURCE = new SplittableRandom();
+
+    private Seeds() {
+    }
+
+    /**
+     * Creates a new master seed for a round.
+     *
+     * @return a seed.
+     */
+    public static long newSeed() {
+        synchronized (SOURCE) { // Called once per round, not per step.
+            return SOURCE.nextLong();
+        }
+    }
+
+    /**
+     * Derives the seed of the given sub stream from a master seed. The result
+     * only depends on the two arguments, so replicas are reproducible no matter
+     * in which order or on which thread they are run.
+     *
+     * @param seed master seed.
+     * @param index index of the sub stream.
+     * @return the seed for the sub stream.
+     */
+    public static long derive(long seed, long index) {
+        long z = seed + (index + 1) * GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+}
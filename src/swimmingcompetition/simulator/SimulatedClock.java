@@ -0,0 +1,51 @@
+/*
+ * SimulatedClock.java
+ * Simulation clock which only moves forward when it is told to.
+ * 
+ */
+package swimmingcompetition.simulator;
+
+/**
+ *
+ * @author Wickramaranga
+ */
+public class SimulatedClock implements SimulationClock {
+
+    private final long startMillis;
+    private long nanos; // Time advanced since the start.
+
+    /**
+     * Creates a simulated clock.
+     *
+     * @param startMillis initial time in milliseconds since the epoch.
+     */
+    public SimulatedClock(long startMillis) {
+        this.startMillis = startMillis;
+    }
+
+    /**
+     * Moves the clock forward.
+     *
+     * @param millis amount of time to advance in milliseconds.
+     */
+    public void advance(long millis) {
+        assert millis >= 0; // Time does not go backwards.
+        nanos += millis * 1000000L;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return startMillis + nanos / 1000000L;
+    }
+
+    @Override
+    public long nanoTime() {
+        return nanos;
+    }
+
+    @Override
+    public boolean isRealTime() {
+        return false;
+    }
+
+}
@@ -0,0 +1,37 @@
+/*
+ * SimulationClock.java
+ * Source of time for a competition round. Lets a round run either on the wall
+ * clock or on simulated time.
+ */
+package swimmingcompetition.simulator;
+
+/**
+ *
+ * @author Wickramaranga
+ */
+public interface SimulationClock {
+
+    /**
+     * Gets the current time of this clock.
+     *
+     * @return current time in milliseconds since the epoch.
+     */
+    long currentTimeMillis();
+
+    /**
+     * Gets the current value of a monotonic time source, for measuring
+     * durations. The value has no meaning on its own and is only compared with
+     * other values of the same clock.
+     *
+     * @return current time in nanoseconds.
+     */
+    long nanoTime();
+
+    /**
+     * Gets whether this clock follows the wall clock. Rounds on a real time
+     * clock are run by lane threads, so the scoreboard must not block them.
+     *
+     * @return whether the clock is a real time clock.
+     */
+    boolean isRealTime();
+}
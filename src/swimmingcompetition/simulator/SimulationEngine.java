@@ -0,0 +1,180 @@
+/*
+ * SimulationEngine.java
+ * Runs a competition round on a single thread by advancing every lane of the
+ * swimming pool in lockstep, using simulated time instead of sleeping.
+ */
+package swimmingcompetition.simulator;
+
+/**
+ *
+ * @author Wickramaranga
+ */
+public class SimulationEngine {
+
+    private final Scoreboard scoreboard;
+    private final SimulatedClock clock; // Null when paced by a scaled clock.
+    private final ScaledClock pace; // Null when run in simulated time.
+    private final RaceEventBus eventBus;
+    private final RaceKernel kernel;
+    private final SwimmingLane[] lanes;
+    private final boolean[] crossed; // Lanes finished during the current step.
+    private final int activeCount;
+
+    private boolean started;
+    private long ticks;
+    private int finishedCount;
+
+    /**
+     * Creates an engine for the round prepared in the given pool. Simulated
+     * time starts from the current time.
+     *
+     * @param pool The swimming pool with a prepared round.
+     */
+    public SimulationEngine(SwimmingPool pool) {
+        this(pool, new SimulatedClock(System.currentTimeMillis()));
+    }
+
+    /**
+     * Creates an engine for the round prepared in the given pool. The pool must
+     * already have its swimmers and the scoreboard set. The scoreboard is
+     * switched to the given clock.
+     *
+     * @param pool The swimming pool with a prepared round.
+     * @param clock Clock advanced by the engine on every step.
+     */
+    public SimulationEngine(SwimmingPool pool, SimulatedClock clock) {
+        this(pool, clock, null);
+        scoreboard.setClock(clock);
+    }
+
+    private SimulationEngine(SwimmingPool pool, SimulatedClock clock, ScaledClock pace) {
+        this.scoreboard = pool.getScoreboard();
+        assert scoreboard != null; // Scoreboard is set when preparing the round.
+        this.clock = clock;
+        this.pace = pace;
+
+        this.eventBus = pool.getEventBus();
+        this.kernel = pool.getKernel();
+        this.lanes = pool.getLanes();
+        this.crossed = new boolean[lanes.length];
+        int used = 0;
+        for (SwimmingLane lane : lanes) {
+            if (lane.isUsed()) {
+                used++;
+            }
+        }
+        this.activeCount = used;
+    }
+
+    /**
+     * Creates an engine which takes the steps due by the clock of the pool
+     * whenever stepDue() is called. The scoreboard is already on that clock.
+     *
+     * @param pool The swimming pool with a prepared round.
+     * @return the engine.
+     */
+    /*package*/ static SimulationEngine paced(SwimmingPool pool) {
+        return new SimulationEngine(pool, null, pool.getClock());
+    }
+
+    /**
+     * Starts the round and runs it until every swimmer has finished.
+     */
+    public void run() {
+        start();
+        while (!isFinished()) {
+            step();
+        }
+    }
+
+    /**
+     * Notifies the scoreboard of the start of the round.
+     */
+    public void start() {
+        started = true;
+        scoreboard.notifyStart();
+    }
+
+    /**
+     * Advances every swimmer who is still swimming by one simulation step.
+     * Swimmers who reach the end of the lane during the same step are reported
+     * to the scoreboard in the lane order.
+     *
+     * @return whether all swimmers have finished.
+     */
+    public boolean step() {
+        if (!started) {
+            start();
+        }
+
+        int crossedCount = kernel.advanceAll(crossed);
+        // A lane thread sleeps once per step before checking the position.
+        ticks++;
+        if (clock != null) {
+            clock.advance(SwimmingLane.TICK_MILLIS);
+        }
+        if (eventBus != null) {
+            eventBus.publishPositions(-1); // All lanes moved.
+        }
+
+        // Finishes are stamped with the time the step was due, whenever it
+        // was taken.
+        long stepNanos = scoreboard.getStartNanos() + ticks * SwimmingLane.TICK_NANOS;
+        for (int i = 0; crossedCount > 0 && i < lanes.length; i++) {
+            if (crossed[i]) {
+                crossedCount--;
+                finishedCount++;
+                lanes[i].touchpad(stepNanos);
+            }
+        }
+        return isFinished();
+    }
+
+    /**
+     * Takes every step due by the scaled clock, each step being a tick of
+     * its time, and jumps the clock to each step at the INSTANT scale.
+     *
+     * @return whether all swimmers have finished.
+     */
+    /*package*/ boolean stepDue() {
+        if (!started) {
+            start();
+        }
+        while (!isFinished()) {
+            long due = scoreboard.getStartNanos() + (ticks + 1) * SwimmingLane.TICK_NANOS;
+            if (!pace.reach(due)) {
+                break;
+            }
+            step();
+        }
+        return isFinished();
+    }
+
+    /**
+     * Gets whether all swimmers have finished.
+     *
+     * @return whether the round is over.
+     */
+    public boolean isFinished() {
+        return finishedCount == activeCount;
+    }
+
+    /**
+     * Gets the number of simulation steps run so far.
+     *
+     * @return number of steps.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Gets the simulated time elapsed since the start of the round.
+     *
+     * @return elapsed time in milliseconds.
+     */
+    public long getElapsedMillis() {
+        return ticks * SwimmingLane.TICK_MILLIS;
+    }
+
+}
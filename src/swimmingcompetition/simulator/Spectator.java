@@ -5,11 +5,13 @@
  */
 package swimmingcompetition.simulator;
 
+import java.util.List;
+
 /**
  *
  * @author Wickramaranga
  */
-public class Spectator extends Person implements Observer {
+public class Spectator extends Person implements BatchObserver {
 
     private static int count = 0;
 
@@ -56,4 +58,14 @@ public class Spectator extends Person implements Observer {
         System.out.println(this.getName() + " recieved finishing of " + arg.toString());
     }
 
+    @Override
+    public void updateAll(Observable sender, List<Object> args) {
+        StringBuilder lines = new StringBuilder(); // Printed at once.
+        for (Object arg : args) {
+            lines.append(this.getName()).append(" recieved finishing of ")
+                    .append(arg).append(System.lineSeparator());
+        }
+        System.out.print(lines);
+    }
+
 }
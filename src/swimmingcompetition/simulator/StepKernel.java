@@ -0,0 +1,25 @@
+/*
+ * StepKernel.java
+ * Moves the swimmers of all lanes forward in one bulk operation. Allows the
+ * race kernel to use a vectorized implementation when one is available.
+ */
+package swimmingcompetition.simulator;
+
+/**
+ *
+ * @author Wickramaranga
+ */
+public interface StepKernel {
+
+    /**
+     * Adds factor * velocities[i] to positions[i] for every i below count.
+     * Implementations must give the same result as the scalar loop, bit for
+     * bit, so rounds can be replayed with any kernel.
+     *
+     * @param positions positions of the swimmers.
+     * @param velocities velocities of the swimmers for the step.
+     * @param factor fraction of the velocity covered in the step.
+     * @param count number of lanes to advance.
+     */
+    void accumulate(double[] positions, double[] velocities, double factor, int count);
+}
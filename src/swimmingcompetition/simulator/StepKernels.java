@@ -0,0 +1,119 @@
+/*
+ * StepKernels.java
+ * Picks the step kernel to be used by race kernels.
+ * 
+ */
+package swimmingcompetition.simulator;
+
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ *
+ * @author Wickramaranga
+ */
+public final class StepKernels {
+
+    /**
+     * Kernel using jdk.incubator.vector. It is built separately (see the
+     * benchmarks module), since the application targets Java 8. It is used
+     * when it is on the class path and the JVM runs with
+     * --add-modules jdk.incubator.vector.
+     */
+    public static final String VECTOR_KERNEL = "swimmingcompetition.simulator.VectorStepKernel";
+
+    private static final StepKernel SCALAR = new ScalarStepKernel();
+    private static final StepKernel BEST = load();
+
+    private StepKernels() {
+    }
+
+    /**
+     * Gets the kernel which advances lanes one at a time.
+     *
+     * @return the scalar kernel.
+     */
+    public static StepKernel scalar() {
+        return SCALAR;
+    }
+
+    /**
+     * Gets the fastest kernel available in this JVM.
+     *
+     * @return the vector kernel if available, the scalar kernel otherwise.
+     */
+    public static StepKernel best() {
+        return BEST;
+    }
+
+    private static StepKernel load() {
+        try {
+            StepKernel kernel = (StepKernel) Class.forName(VECTOR_KERNEL)
+                    .getDeclaredConstructor().newInstance();
+            // Fail here rather than in the middle of a round.
+            if (!agreesWithScalar(kernel)) {
+                Logger.getLogger(StepKernels.class.getName()).log(Level.WARNING,
+                        "Vector kernel disagrees with scalar kernel, using scalar kernel.");
+                return SCALAR;
+            }
+            return kernel;
+        } catch (ClassNotFoundException ex) {
+            return SCALAR; // Not built in, the usual case.
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException ex) {
+            Logger.getLogger(StepKernels.class.getName())
+                    .log(Level.INFO, "Vector kernel not usable, using scalar kernel.", ex);
+            return SCALAR;
+        }
+    }
+
+    /**
+     * Runs a kernel and the scalar kernel on the same input and compares the
+     * results bit for bit. The input has every lane count up to a few times
+     * the widest vector, so both the vector loop and the tail loop are run,
+     * and has repeated values, finished lanes and positions at the pool end.
+     *
+     * @param kernel the kernel to check.
+     * @return whether every result was the same.
+     */
+    /*package*/ static boolean agreesWithScalar(StepKernel kernel) {
+        final int maxCount = 67; // Not a multiple of any vector length.
+        final double poolEnd = 50.0;
+        double[] positions = new double[maxCount + 1];
+        double[] velocities = new double[maxCount + 1];
+        Random random = new Random(maxCount);
+        for (int i = 0; i < positions.length; i++) {
+            switch (i % 4) {
+                case 0: // Finished: stays where it is.
+                    positions[i] = poolEnd;
+                    velocities[i] = 0.0;
+                    break;
+                case 1: // Tied with the lane before.
+                    positions[i] = positions[i - 1];
+                    velocities[i] = velocities[i - 1] == 0.0 ? 1.5 : velocities[i - 1];
+                    break;
+                case 2: // About to reach the pool end.
+                    positions[i] = Math.nextDown(poolEnd);
+                    velocities[i] = random.nextDouble() * 3;
+                    break;
+                default:
+                    positions[i] = random.nextDouble() * poolEnd;
+                    velocities[i] = random.nextDouble() * 3;
+            }
+        }
+        for (int count = 0; count <= maxCount; count++) {
+            double[] expected = positions.clone();
+            double[] actual = positions.clone();
+            SCALAR.accumulate(expected, velocities, SwimmingLane.STEP_FACTOR, count);
+            kernel.accumulate(actual, velocities, SwimmingLane.STEP_FACTOR, count);
+            for (int i = 0; i < expected.length; i++) {
+                if (Double.doubleToRawLongBits(expected[i])
+                        != Double.doubleToRawLongBits(actual[i])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Subscribers.java
+ * The observers and observer groups subscribed to an observable at one time.
+ */
+package swimmingcompetition.simulator;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Never changed once created. Subscribing or unsubscribing makes a new
+ * snapshot, so notifications iterate one without locking, and observers
+ * subscribed or unsubscribed meanwhile only affect later notifications. An
+ * observer or group is in a snapshot at most once, however often it is
+ * subscribed, so it is notified once and one unsubscribe removes it.
+ *
+ * @author Wickramaranga
+ */
+public final class Subscribers implements Serializable {
+
+    /**
+     * The snapshot with no subscribers.
+     */
+    public static final Subscribers NONE
+            = new Subscribers(new Observer[0], new ObserverGroup[0]);
+
+    private final Observer[] observers;
+    private final ObserverGroup[] groups;
+
+    private Subscribers(Observer[] observers, ObserverGroup[] groups) {
+        this.observers = observers;
+        this.groups = groups;
+    }
+
+    /**
+     * Notifies every observer of the snapshot on this thread, those
+     * subscribed alone first and then those of each group.
+     *
+     * @param sender the sender of the notification.
+     * @param arg the argument of the notification.
+     */
+    public void deliver(Observable sender, Object arg) {
+        for (Observer observer : observers) {
+            observer.update(sender, arg);
+        }
+        for (ObserverGroup group : groups) {
+            for (Observer observer : group.getObservers()) {
+                observer.update(sender, arg);
+            }
+        }
+    }
+
+    /**
+     * Checks whether there is nobody to notify.
+     *
+     * @return true if no observer or group is subscribed.
+     */
+    public boolean isEmpty() {
+        return observers.length == 0 && groups.length == 0;
+    }
+
+    /*package*/ Observer[] getObservers() {
+        return observers;
+    }
+
+    /*package*/ ObserverGroup[] getGroups() {
+        return groups;
+    }
+
+    /*package*/ Subscribers with(Observer observer) {
+        if (indexOf(observers, observer) >= 0) {
+            return this;
+        }
+        Observer[] more = Arrays.copyOf(observers, observers.length + 1);
+        more[observers.length] = observer;
+        return new Subscribers(more, groups);
+    }
+
+    /*package*/ Subscribers with(ObserverGroup group) {
+        if (indexOf(groups, group) >= 0) {
+            return this;
+        }
+        ObserverGroup[] more = Arrays.copyOf(groups, groups.length + 1);
+        more[groups.length] = group;
+        return new Subscribers(observers, more);
+    }
+
+    /*package*/ Subscribers without(Observer observer) {
+        int index = indexOf(observers, observer);
+        return index < 0 ? this : new Subscribers(remove(observers, index), groups);
+    }
+
+    /*package*/ Subscribers without(ObserverGroup group) {
+        int index = indexOf(groups, group);
+        return index < 0 ? this : new Subscribers(observers, remove(groups, index));
+    }
+
+    // By identity: distinct spectators may have the same name, and so be equal.
+    private static int indexOf(Object[] items, Object item) {
+        for (int i = 0; i < items.length; i++) {
+            if (items[i] == item) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static <T> T[] remove(T[] items, int index) {
+        T[] fewer = Arrays.copyOf(items, items.length - 1);
+        System.arraycopy(items, index + 1, fewer, index, items.length - index - 1);
+        return fewer;
+    }
+
+}
@@ -5,7 +5,8 @@
  */
 package swimmingcompetition.simulator;
 
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  *
@@ -28,11 +29,8 @@ public abstract class Swimmer extends Person implements Swimmable {
     private final Gender gender;
     private final Color color;
     private final double playerSpeedFactor; // skill level
-
-    // Cannot save circular association
-    transient private SwimmingLane lane; // TODO Do we need bidirectional access here? 
-    private Stroke stroke;
-    private double roundSpeedFactor; // current condition
+    // Round specific state (lane, stroke and current condition) is kept by the
+    // lane, so one swimmer object can swim in many rounds at the same time.
 
     /**
      * Creates abstract swimmer fields and methods.
@@ -42,53 +40,90 @@ public abstract class Swimmer extends Person implements Swimmable {
      * @param name Name of the swimmer.
      */
     public Swimmer(Gender gender, Color color, String name) {
+        // Assigns a speed with a player. 1 > Speed >= 0.5
+        this(gender, color, name, (1.0 + ThreadLocalRandom.current().nextDouble()) / 2.0);
+    }
+
+    /**
+     * Creates a swimmer with a known skill level, such as a swimmer loaded
+     * from a file.
+     *
+     * @param gender Gender of the swimmer. (Male/Female)
+     * @param color Uniform color.
+     * @param name Name of the swimmer.
+     * @param playerSpeedFactor Skill level of the swimmer.
+     */
+    protected Swimmer(Gender gender, Color color, String name, double playerSpeedFactor) {
         super(name);
         this.gender = gender;
         this.color = color;
-        // Assigns a speed with a player. 1 > Speed >= 0.5
-        playerSpeedFactor = (1.0 + new Random().nextDouble()) / 2.0;
+        this.playerSpeedFactor = playerSpeedFactor;
         System.out.println("New " + gender.toString() + " swimmer: " + name);
         count++;
 
     }
 
     /**
-     * Gets ready to swim in the given lane using current stroke.
+     * Gets a random speed factor representing the condition of the swimmer for
+     * a round.
      *
-     * @param lane Lane which this swimmer uses to swim.
-     * @param stroke Stroke for the current round.
+     * @param random Random stream of the lane.
+     * @return A speed factor for a round.
      */
-    protected /*+package*/ void prepare(SwimmingLane lane, Stroke stroke) {
-        this.lane = lane;
-        this.stroke = stroke;
+    public double nextRoundSpeedFactor(SplittableRandom random) {
         // Ensures the speed factor for the round be > -0.1 and < 0.1 
-        this.roundSpeedFactor = (new Random().nextDouble() - 0.5) / 5.0;
+        return (random.nextDouble() - 0.5) / 5.0;
     }
 
     /**
      * Performs swim and returns current velocity of the swimmer.
      *
+     * @param stroke Stroke for the current round.
+     * @param roundSpeedFactor Condition of the swimmer for the current round.
+     * @param random Random stream of the lane.
      * @return A double representing current velocity of the swimmer.
      */
-    public double swim() {
+    public double swim(Stroke stroke, double roundSpeedFactor, SplittableRandom random) {
+        return velocity(playerSpeedFactor + roundSpeedFactor, performStroke(stroke), random);
+    }
+
+    /**
+     * Calculates the velocity of a swimmer for one step.
+     *
+     * @param conditionFactor Sum of the skill and the round condition.
+     * @param strokeFactor Speed factor of the stroke.
+     * @param random Random stream of the lane.
+     * @return the velocity.
+     */
+    /*package*/ static double velocity(double conditionFactor, double strokeFactor,
+                                       SplittableRandom random) {
         // Random speed factor is the factor for a small amount of time.
         // (Sampling time. It is > -0.05 and < 0.05)
-        double randomSpeedFactor = (new Random().nextDouble() - 0.5) / 10.0;
-        return (playerSpeedFactor + roundSpeedFactor + randomSpeedFactor)
-               * performStroke();
+        double randomSpeedFactor = (random.nextDouble() - 0.5) / 10.0;
+        return (conditionFactor + randomSpeedFactor) * strokeFactor;
         // (fs m best) 0.65 > finalFactor >= 0.245 (bk f worst)
     }
 
+    /**
+     * Gets the skill level of the swimmer.
+     *
+     * @return the speed factor of the swimmer.
+     */
+    public double getPlayerSpeedFactor() {
+        return playerSpeedFactor;
+    }
+
     /**
      * Performs stroke and returns a value representing the relative speed of
      * the stroke.
      *
+     * @param stroke Stroke to perform.
      * @return The speed factor resulting from the stroke.
      */
-    protected double performStroke() {
+    protected double performStroke(Stroke stroke) {
         // Return double representing strokeSpeedFactor affected by gender. 
         // Overriding methods give the effect of genderSpeedFactor. 
-        switch (this.stroke) {
+        switch (stroke) {
             case FREESTYLE:
                 return performFreeStroke();
             case BUTTERFLYSTROKE:
@@ -98,7 +133,7 @@ public abstract class Swimmer extends Person implements Swimmable {
             case BACKSTROKE:
                 return performBackStroke();
             default:
-                assert false : this.stroke.name(); // Never happens.
+                assert false : stroke.name(); // Never happens.
                 return 0.0;
         }
     }
@@ -124,24 +159,6 @@ public abstract class Swimmer extends Person implements Swimmable {
         return color;
     }
 
-    /**
-     * Gets the lane in which the swimmer swims.
-     *
-     * @return The lane in which the swimmer swims.
-     */
-    public SwimmingLane getLane() {
-        return lane;
-    }
-
-    /**
-     * Gets the swimming stroke used by the swimmer for current round.
-     *
-     * @return The stroke which is used by the swimmer for the current round.
-     */
-    public Stroke getStroke() {
-        return stroke;
-    }
-
     @Override
     public String toString() {
         return String.format("%s (%s)",
@@ -7,6 +7,7 @@ package swimmingcompetition.simulator;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
@@ -27,11 +28,20 @@ public class SwimmingCompetition implements Serializable {
 
     private final Pavilion pavilion;
     private final SwimmingPool pool;
-    private final List<Scoreboard> oldScoreboards;
+    private final RoundHistory oldScoreboards;
 
     private Scoreboard scoreboard;
+    private TieBreakPolicy tieBreakPolicy = TieBreakPolicy.LANE;
+    transient private RaceEventBus eventBus; // Observers are not saved.
+    transient private ObserverDispatcher dispatcher;
+    transient private LaneExecutionStrategy laneExecutionStrategy;
+    transient private RaceScheduler scheduler;
+    transient private ScheduledRace race; // Of the current round, if scheduled.
 
-    private CompetitionState state;
+    private double timeScale = 1;
+    transient private ScaledClock clock; // Of the current round, if started.
+
+    private volatile CompetitionState state; // Changed by the scheduler too.
 
     /**
      * Creates and initializes the swimming competition class.
@@ -49,6 +59,17 @@ public class SwimmingCompetition implements Serializable {
                                List<SupportingStaffMember> staff,
                                int swimLaneCount,
                                int poolLength) {
+        this(judges, spectators, swimmers, staff, swimLaneCount, poolLength,
+             new ListRoundHistory());
+    }
+
+    private SwimmingCompetition(List<Judge> judges,
+                                List<Spectator> spectators,
+                                List<Swimmer> swimmers,
+                                List<SupportingStaffMember> staff,
+                                int swimLaneCount,
+                                int poolLength,
+                                RoundHistory oldScoreboards) {
         System.out.println("+ Creating competition...");
 
         System.out.println("  Adding people...");
@@ -88,7 +109,7 @@ public class SwimmingCompetition implements Serializable {
         pavilion = new Pavilion(spectators);
         // Scoreboard initialized when getting ready for a round.
         // scoreboard = new Scoreboard();
-        oldScoreboards = new ArrayList<>();
+        this.oldScoreboards = oldScoreboards;
         pool = new SwimmingPool(swimLaneCount, poolLength);
 
         state = CompetitionState.INITIAL; // State change
@@ -96,6 +117,75 @@ public class SwimmingCompetition implements Serializable {
                            + this.toString());
     }
 
+    /**
+     * Restores a competition with the rounds already conducted, such as one
+     * loaded from a file. The last round becomes the current round.
+     *
+     * @param judges List of judges.
+     * @param spectators List of spectators.
+     * @param swimmers List of swimmers.
+     * @param staff List of supporting staff members.
+     * @param swimLaneCount Number of lanes in the swimming pool.
+     * @param poolLength Length of the swimming pool.
+     * @param tieBreakPolicy how swimmers with the same time are ranked.
+     * @param rounds scoreboards of the finished rounds, oldest first.
+     * @return the competition, finished if it has rounds.
+     */
+    public static SwimmingCompetition restore(List<Judge> judges,
+                                              List<Spectator> spectators,
+                                              List<Swimmer> swimmers,
+                                              List<SupportingStaffMember> staff,
+                                              int swimLaneCount,
+                                              int poolLength,
+                                              TieBreakPolicy tieBreakPolicy,
+                                              List<Scoreboard> rounds) {
+        if (rounds.isEmpty()) {
+            return restore(judges, spectators, swimmers, staff, swimLaneCount,
+                           poolLength, tieBreakPolicy, new ListRoundHistory(), null);
+        }
+        return restore(judges, spectators, swimmers, staff, swimLaneCount, poolLength,
+                       tieBreakPolicy,
+                       new ListRoundHistory(rounds.subList(0, rounds.size() - 1)),
+                       rounds.get(rounds.size() - 1));
+    }
+
+    /**
+     * Restores a competition whose previous rounds are kept in the given
+     * history, such as one read lazily from a file.
+     *
+     * @param judges List of judges.
+     * @param spectators List of spectators.
+     * @param swimmers List of swimmers.
+     * @param staff List of supporting staff members.
+     * @param swimLaneCount Number of lanes in the swimming pool.
+     * @param poolLength Length of the swimming pool.
+     * @param tieBreakPolicy how swimmers with the same time are ranked.
+     * @param oldRounds the rounds before the current round.
+     * @param current scoreboard of the current round, or null if no round
+     * has been conducted.
+     * @return the competition, finished if it has a current round.
+     */
+    public static SwimmingCompetition restore(List<Judge> judges,
+                                              List<Spectator> spectators,
+                                              List<Swimmer> swimmers,
+                                              List<SupportingStaffMember> staff,
+                                              int swimLaneCount,
+                                              int poolLength,
+                                              TieBreakPolicy tieBreakPolicy,
+                                              RoundHistory oldRounds,
+                                              Scoreboard current) {
+        SwimmingCompetition competition = new SwimmingCompetition(
+                judges, spectators, swimmers, staff, swimLaneCount, poolLength,
+                oldRounds);
+        competition.setTieBreakPolicy(tieBreakPolicy);
+        if (current != null) {
+            competition.scoreboard = current;
+            competition.scoreboard.subscribe(competition.pavilion, Topic.FINISH);
+            competition.state = CompetitionState.FINISHED; // State change
+        }
+        return competition;
+    }
+
     /**
      * Gets the lane count.
      *
@@ -181,8 +271,23 @@ public class SwimmingCompetition implements Serializable {
      * @param swimmers a list of swimmers to participate in this competition.
      */
     public void prepare(Gender gender, Stroke stroke, List<Swimmer> swimmers) {
+        prepare(gender, stroke, swimmers, Seeds.newSeed());
+    }
+
+    /**
+     * Prepares the competition for a new round which can be reproduced from
+     * the given seed.
+     *
+     * @param gender gender filter.
+     * @param stroke stroke selection.
+     * @param swimmers a list of swimmers to participate in this competition.
+     * @param seed master seed for the round.
+     */
+    public void prepare(Gender gender, Stroke stroke, List<Swimmer> swimmers,
+                        long seed) {
         if (getState() != CompetitionState.INITIAL
-            && getState() != CompetitionState.FINISHED) {
+            && getState() != CompetitionState.FINISHED
+            && getState() != CompetitionState.CANCELLED) {
             throw new InvalidStateException();
         }
 
@@ -194,24 +299,26 @@ public class SwimmingCompetition implements Serializable {
         }
         // Try to add swimmers to the round. 
         // This takes care of swimmer count and gender based validation. 
-        pool.prepare(gender, stroke, swimmers);
+        pool.prepare(gender, stroke, swimmers, seed);
 
-        // Keep records of rounds.                         
-        if (scoreboard != null) { // scoreboard == null means first round.
+        // Keep records of rounds, but not of a cancelled one.
+        if (scoreboard != null // scoreboard == null means first round.
+            && getState() == CompetitionState.FINISHED) {
             oldScoreboards.add(scoreboard);
         }
-        scoreboard = new Scoreboard(swimmers.size(), new Runnable() {
+        scoreboard = new Scoreboard(swimmers.size(), seed, stroke, new Runnable() {
             @Override // Push notification of competition ending.
             public void run() {
                 stop();
                 System.out.println("Round ended. ");
             }
         });
-        // This looks stupid. >:(
-        for (Spectator spectator : pavilion.getSpectators()) {
-            scoreboard.subscribe(spectator);
-        }
+        scoreboard.subscribe(pavilion, Topic.FINISH); // The whole audience at once.
 
+        scoreboard.setTieBreakPolicy(tieBreakPolicy);
+        scoreboard.setEventBus(eventBus);
+        scoreboard.setDispatcher(getDispatcher());
+        scoreboard.setCallbackExecutor(getScheduler());
         pool.setScoreboard(scoreboard);
 
         state = CompetitionState.READY; // State change
@@ -230,10 +337,180 @@ public class SwimmingCompetition implements Serializable {
         judges.get(0).blowWhistle();
 
         state = CompetitionState.ONGOING; // State change
-        pool.start(); // Start all swimmers. 
+        clock = new ScaledClock(timeScale);
+        pool.setClock(clock);
+        LaneExecutionStrategy strategy = getLaneExecutionStrategy();
+        if (strategy == LaneExecutionStrategy.SCHEDULED) {
+            race = null;
+            try {
+                race = getScheduler().schedule(pool, new Runnable() {
+                    @Override // The round failed or its scheduler shut down.
+                    public void run() {
+                        roundCancelled();
+                    }
+                }); // Start all swimmers. 
+            } catch (IllegalOperationException ex) { // Shut down meanwhile.
+                state = CompetitionState.READY; // State change
+                throw ex;
+            }
+        } else {
+            race = null;
+            pool.start(strategy); // Start all swimmers. 
+        }
         //return true; // If starting was possible. 
     }
 
+    /**
+     * Runs the round as fast as possible in simulated time, without waiting
+     * for the wall clock. Returns once all swimmers have finished.
+     *
+     * @return list of finishing times of the swimmers in the winning order.
+     */
+    public List<Date> runHeadless() {
+        if (this.getState() != CompetitionState.READY) {
+            throw new InvalidStateException();
+        }
+
+        judges.get(0).blowWhistle();
+
+        state = CompetitionState.ONGOING; // State change
+        pool.simulate(); // Ends the round synchronously.
+        assert state == CompetitionState.FINISHED;
+        return scoreboard.getFinishTimes();
+    }
+
+    /**
+     * Gets the bus on which the moves and finishes of the swimmers and the
+     * end of each round are published. Subscribe to it to follow rounds
+     * without polling.
+     *
+     * @return the event bus of the competition.
+     */
+    public RaceEventBus getEventBus() {
+        if (eventBus == null) { // Not saved with the competition.
+            eventBus = new RaceEventBus();
+            pool.setEventBus(eventBus);
+            if (scoreboard != null) {
+                scoreboard.setEventBus(eventBus);
+            }
+        }
+        return eventBus;
+    }
+
+    /**
+     * Gets the dispatcher which notifies the spectators and the other
+     * observers of the scoreboard of each finish, away from the lanes.
+     *
+     * @return the dispatcher of the competition.
+     */
+    public ObserverDispatcher getDispatcher() {
+        if (dispatcher == null) { // Not saved with the competition.
+            dispatcher = new ObserverDispatcher();
+        }
+        return dispatcher;
+    }
+
+    /**
+     * Sets the dispatcher which notifies the observers of the scoreboard,
+     * from the next round on. Choose its queue capacity and overflow policy
+     * for the number of spectators of the competition.
+     *
+     * @param dispatcher the dispatcher.
+     */
+    public void setDispatcher(ObserverDispatcher dispatcher) {
+        if (dispatcher == null) {
+            throw new IllegalOperationException();
+        }
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Gets how the lanes swim when the competition is started: stepped by the
+     * race scheduler, which is the default, or each on a thread of its own.
+     *
+     * @return the lane execution strategy.
+     */
+    public LaneExecutionStrategy getLaneExecutionStrategy() {
+        if (laneExecutionStrategy == null) { // Not saved with the competition.
+            laneExecutionStrategy = LaneExecutionStrategy.SCHEDULED;
+        }
+        return laneExecutionStrategy;
+    }
+
+    /**
+     * Sets how the lanes swim, from the next start on. Scheduled rounds and
+     * virtual threads let one JVM run many more competitions at once.
+     *
+     * @param laneExecutionStrategy the lane execution strategy.
+     */
+    public void setLaneExecutionStrategy(LaneExecutionStrategy laneExecutionStrategy) {
+        if (laneExecutionStrategy == null) {
+            throw new IllegalOperationException();
+        }
+        this.laneExecutionStrategy = laneExecutionStrategy;
+    }
+
+    /**
+     * Gets the scheduler which steps scheduled rounds and runs the end of
+     * every real time round. The shared scheduler replaces one which was
+     * shut down.
+     *
+     * @return the race scheduler of the competition.
+     */
+    public RaceScheduler getScheduler() {
+        if (scheduler == null || scheduler.isShutdown()) { // Not saved either.
+            scheduler = RaceScheduler.getShared();
+        }
+        return scheduler;
+    }
+
+    /**
+     * Sets the scheduler of the competition, from the next round on.
+     *
+     * @param scheduler the race scheduler.
+     */
+    public void setScheduler(RaceScheduler scheduler) {
+        if (scheduler == null) {
+            throw new IllegalOperationException();
+        }
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Gets the current round as stepped by the race scheduler. Pausing or
+     * resuming it directly pauses or resumes its clock too, but the state of
+     * the competition is only changed by pause() and resume() of the
+     * competition.
+     *
+     * @return the scheduled round, or null if the current round was not
+     * started on the scheduler.
+     */
+    public ScheduledRace getScheduledRace() {
+        return race;
+    }
+
+    /**
+     * Gets how swimmers who finish at the same time are ranked.
+     *
+     * @return the tie break policy.
+     */
+    public TieBreakPolicy getTieBreakPolicy() {
+        return tieBreakPolicy;
+    }
+
+    /**
+     * Sets how swimmers who finish at the same time are ranked, from the next
+     * round on.
+     *
+     * @param tieBreakPolicy the tie break policy.
+     */
+    public void setTieBreakPolicy(TieBreakPolicy tieBreakPolicy) {
+        if (tieBreakPolicy == null) {
+            throw new IllegalOperationException();
+        }
+        this.tieBreakPolicy = tieBreakPolicy;
+    }
+
     /**
      * Gets the list of swimmers who are currently swimming in the order.
      *
@@ -246,6 +523,30 @@ public class SwimmingCompetition implements Serializable {
         return pool.getActiveSwimmers();
     }
 
+    /**
+     * Gets the stroke used in the current round.
+     *
+     * @return the stroke for the current round.
+     */
+    public Stroke getStroke() {
+        if (state == CompetitionState.INITIAL) {
+            throw new InvalidStateException();
+        }
+        return pool.getStroke();
+    }
+
+    /**
+     * Gets the master seed of the current round.
+     *
+     * @return the seed for the current round.
+     */
+    public long getSeed() {
+        if (state == CompetitionState.INITIAL) {
+            throw new InvalidStateException();
+        }
+        return scoreboard.getSeed();
+    }
+
     /**
      * Gets positions of swimmers.
      *
@@ -253,23 +554,146 @@ public class SwimmingCompetition implements Serializable {
      */
     public List<Double> getPositions() {
         if (!(state == CompetitionState.ONGOING
-              || state == CompetitionState.FINISHED)) {
+              || state == CompetitionState.PAUSED
+              || state == CompetitionState.FINISHED
+              || state == CompetitionState.CANCELLED)) {
             throw new InvalidStateException();
         }
         return pool.getPositions();
     }
 
     /**
-     * Signals stopping of the competition.
+     * Gets a view over the positions of swimmers, which can be polled without
+     * allocating.
      *
-     * @return Whether stopping the competition was possible.
+     * @return Current positions of swimmers in lane order.
      */
-    public boolean stop() {
+    public PositionView getPositionView() {
+        if (!(state == CompetitionState.ONGOING
+              || state == CompetitionState.PAUSED
+              || state == CompetitionState.FINISHED
+              || state == CompetitionState.CANCELLED)) {
+            throw new InvalidStateException();
+        }
+        return pool.getPositionView();
+    }
+
+    /**
+     * Stops the clock of the running round. The swimmers stay where they
+     * are until the round is resumed. Refused if the round has ended, even
+     * just now, as ending takes the same lock.
+     */
+    public synchronized void pause() {
         if (this.getState() != CompetitionState.ONGOING) {
             throw new InvalidStateException();
         }
+        clock.pause();
+        if (race != null) {
+            race.pause();
+        }
+        state = CompetitionState.PAUSED; // State change
+    }
+
+    /**
+     * Starts the clock of the paused round again.
+     */
+    public synchronized void resume() {
+        if (this.getState() != CompetitionState.PAUSED) {
+            throw new InvalidStateException();
+        }
+        state = CompetitionState.ONGOING; // State change
+        clock.resume();
+        if (race != null) {
+            race.resume();
+        }
+    }
+
+    /**
+     * Gets how many times faster than real time rounds run.
+     *
+     * @return the time scale, or ScaledClock.INSTANT.
+     */
+    public double getTimeScale() {
+        return timeScale;
+    }
+
+    /**
+     * Sets how many times faster than real time rounds run, from 0 to
+     * ScaledClock.MAX_SCALE, or ScaledClock.INSTANT to finish them at once.
+     * Applies to the running round at once. A scale of 0 pauses the running
+     * round, leaves a paused round paused and is not kept for later rounds;
+     * it is refused when no round is running. Any other scale leaves a paused
+     * round paused.
+     *
+     * @param timeScale the time scale.
+     */
+    public synchronized void setTimeScale(double timeScale) {
+        ScaledClock.checkScale(timeScale);
+        if (timeScale == 0) {
+            if (this.getState() != CompetitionState.PAUSED) {
+                pause(); // Refused unless ONGOING.
+            }
+            return;
+        }
+        this.timeScale = timeScale;
+        if (clock != null) {
+            clock.setScale(timeScale);
+        }
+    }
+
+    /**
+     * Cancels the running round, paused or not. The swimmers stop where they
+     * are and the round is not kept with the finished rounds; a new round
+     * can be prepared at once.
+     */
+    public synchronized void cancel() {
+        if (this.getState() != CompetitionState.ONGOING
+            && this.getState() != CompetitionState.PAUSED) {
+            throw new InvalidStateException();
+        }
+        if (race != null) {
+            race.cancel(); // Calls roundCancelled() too.
+        } else {
+            pool.cancel();
+        }
+        roundCancelled();
+    }
+
+    // Also called when a scheduled round fails or its scheduler is shut
+    // down, on the thread which ended it.
+    private synchronized void roundCancelled() {
+        if (this.getState() != CompetitionState.ONGOING
+            && this.getState() != CompetitionState.PAUSED) {
+            return; // Finished or cancelled already.
+        }
+        state = CompetitionState.CANCELLED; // State change
+        if (eventBus != null) {
+            eventBus.publishRoundCancelled();
+        }
+    }
+
+    /**
+     * Signals stopping of the competition.
+     *
+     * @return Whether stopping the competition was possible, false if the
+     * round was cancelled.
+     */
+    public synchronized boolean stop() {
+        if (this.getState() == CompetitionState.CANCELLED) {
+            return false; // A lane finished as the round was cancelled.
+        }
+        // The last swimmer may finish just as the round is paused.
+        if (this.getState() != CompetitionState.ONGOING
+            && this.getState() != CompetitionState.PAUSED) {
+            throw new InvalidStateException();
+        }
 
+        // All lanes are done, keep what happened for replaying later.
+        scoreboard.setRaceLog(pool.createRaceLog());
         state = CompetitionState.FINISHED; // State change
+        if (eventBus != null) {
+            eventBus.publishRoundEnd();
+        }
         return true;
     }
 
@@ -280,7 +704,9 @@ public class SwimmingCompetition implements Serializable {
      */
     public Date getStartTime() {
         if (!(state == CompetitionState.ONGOING
-              || state == CompetitionState.FINISHED)) {
+              || state == CompetitionState.PAUSED
+              || state == CompetitionState.FINISHED
+              || state == CompetitionState.CANCELLED)) {
             throw new InvalidStateException();
         }
         return scoreboard.getStartTime();
@@ -293,12 +719,80 @@ public class SwimmingCompetition implements Serializable {
      */
     public List<Date> getTimecard() {
         if (!(state == CompetitionState.ONGOING
-              || state == CompetitionState.FINISHED)) {
+              || state == CompetitionState.PAUSED
+              || state == CompetitionState.FINISHED
+              || state == CompetitionState.CANCELLED)) {
             throw new InvalidStateException();
         }
         return scoreboard.getFinishTimes();
     }
 
+    /**
+     * Gets the times taken by the swimmers to finish the current round, in
+     * the winning order.
+     *
+     * @return times taken in nanoseconds.
+     */
+    public long[] getElapsedTimes() {
+        if (!(state == CompetitionState.ONGOING
+              || state == CompetitionState.PAUSED
+              || state == CompetitionState.FINISHED
+              || state == CompetitionState.CANCELLED)) {
+            throw new InvalidStateException();
+        }
+        return scoreboard.getElapsedTimes();
+    }
+
+    /**
+     * Gets the finishes of the current round in the winning order. Use it
+     * rather than getRanking() and getElapsedTimes() to show both while the
+     * round runs, as two calls may see different finishes.
+     *
+     * @return the ranked finishes, each with its swimmer and time.
+     */
+    public List<Scoreboard.Finish> getRankedFinishes() {
+        if (!(state == CompetitionState.ONGOING
+              || state == CompetitionState.PAUSED
+              || state == CompetitionState.FINISHED
+              || state == CompetitionState.CANCELLED)) {
+            throw new InvalidStateException();
+        }
+        return scoreboard.getRankedFinishes();
+    }
+
+    /**
+     * Gets the finishes of the current round reported after the given number
+     * of finishes, in the order they were reported.
+     *
+     * @param from number of finishes already read.
+     * @return the new finishes.
+     */
+    public List<Scoreboard.Finish> getFinishesSince(int from) {
+        if (!(state == CompetitionState.ONGOING
+              || state == CompetitionState.PAUSED
+              || state == CompetitionState.FINISHED
+              || state == CompetitionState.CANCELLED)) {
+            throw new InvalidStateException();
+        }
+        return scoreboard.getFinishesSince(from);
+    }
+
+    /**
+     * Gets the number of swimmers who have finished the current round. Does
+     * not block the swimmers who are finishing.
+     *
+     * @return number of finished swimmers.
+     */
+    public int getFinishedCount() {
+        if (!(state == CompetitionState.ONGOING
+              || state == CompetitionState.PAUSED
+              || state == CompetitionState.FINISHED
+              || state == CompetitionState.CANCELLED)) {
+            throw new InvalidStateException();
+        }
+        return scoreboard.getFinishedCount();
+    }
+
     /**
      * Gets the ranking of the swimmers.
      *
@@ -306,12 +800,60 @@ public class SwimmingCompetition implements Serializable {
      */
     public List<Swimmer> getRanking() {
         if (!(state == CompetitionState.ONGOING
-              || state == CompetitionState.FINISHED)) {
+              || state == CompetitionState.PAUSED
+              || state == CompetitionState.FINISHED
+              || state == CompetitionState.CANCELLED)) {
             throw new InvalidStateException();
         }
         return scoreboard.getSwimmerRanking();
     }
 
+    /**
+     * Gets the race log of the current round, which can be replayed with
+     * RaceReplay.
+     *
+     * @return the race log of the finished round.
+     */
+    public RaceLog getRaceLog() {
+        if (state != CompetitionState.FINISHED) {
+            throw new InvalidStateException();
+        }
+        return raceLogOf(scoreboard);
+    }
+
+    /**
+     * Gets the number of finished rounds, including the current round once it
+     * has finished.
+     *
+     * @return the number of finished rounds.
+     */
+    public int getRoundCount() {
+        return oldScoreboards.size() + (state == CompetitionState.FINISHED ? 1 : 0);
+    }
+
+    /**
+     * Gets the scoreboard of a finished round.
+     *
+     * @param index index of the round, the current round being the last.
+     * @return the scoreboard of the given round.
+     */
+    public Scoreboard getRoundScoreboard(int index) {
+        if (index < 0 || index >= getRoundCount()) {
+            throw new IllegalOperationException();
+        }
+        return index < oldScoreboards.size() ? oldScoreboards.get(index) : scoreboard;
+    }
+
+    /**
+     * Gets the history keeping the previous rounds, such as one read from a
+     * file.
+     *
+     * @return the previous rounds.
+     */
+    public RoundHistory getRoundHistory() {
+        return oldScoreboards;
+    }
+
     /**
      * Gets the number of previous rounds conducted.
      *
@@ -347,6 +889,46 @@ public class SwimmingCompetition implements Serializable {
         return oldScoreboards.get(index).getFinishTimes();
     }
 
+    /**
+     * Gets the times taken by the swimmers to finish the given round, in the
+     * winning order.
+     *
+     * @param index index of the round to be retrieved.
+     * @return times taken in nanoseconds.
+     */
+    public long[] getOldElapsedTimes(int index) {
+        if (state == CompetitionState.INITIAL) {
+            throw new InvalidStateException();
+        }
+        return oldScoreboards.get(index).getElapsedTimes();
+    }
+
+    /**
+     * Gets the master seed of a previous round.
+     *
+     * @param index index of the round to be retrieved.
+     * @return the seed of the given round.
+     */
+    public long getOldSeed(int index) {
+        if (state == CompetitionState.INITIAL) {
+            throw new InvalidStateException();
+        }
+        return oldScoreboards.get(index).getSeed();
+    }
+
+    /**
+     * Gets the race log of a previous round.
+     *
+     * @param index index of the round to be retrieved.
+     * @return the race log of the given round.
+     */
+    public RaceLog getOldRaceLog(int index) {
+        if (state == CompetitionState.INITIAL) {
+            throw new InvalidStateException();
+        }
+        return raceLogOf(oldScoreboards.get(index));
+    }
+
     /**
      * Gets the ranking information of the swimmers in a previous round.
      *
@@ -360,4 +942,31 @@ public class SwimmingCompetition implements Serializable {
         return oldScoreboards.get(index).getSwimmerRanking();
     }
 
+    // Rounds loaded from a file have no race log, but are simulated again
+    // from their seed when it is needed.
+    private RaceLog raceLogOf(Scoreboard round) {
+        if (round.getRaceLog() != null || round.getStroke() == null) {
+            return round.getRaceLog();
+        }
+        List<Scoreboard.Finish> finishes = round.getFinishesSince(0);
+        Swimmer[] byLane = new Swimmer[finishes.size()];
+        for (Scoreboard.Finish finish : finishes) {
+            if (finish.getLane() < 0 || finish.getLane() >= byLane.length) {
+                return null; // Lanes not recorded.
+            }
+            byLane[finish.getLane()] = finish.getSwimmer();
+        }
+        if (Arrays.asList(byLane).contains(null)) {
+            return null; // Not one finish per lane.
+        }
+        List<Swimmer> roster = Arrays.asList(byLane);
+        SwimmingPool replayPool = new SwimmingPool(pool.getLaneCount(), pool.getPoolLength());
+        replayPool.prepare(byLane[0].getGender(), round.getStroke(), roster, round.getSeed());
+        replayPool.setScoreboard(new Scoreboard(byLane.length, round.getSeed(),
+                                                round.getStroke(), null));
+        replayPool.simulate();
+        round.setRaceLog(replayPool.createRaceLog());
+        return round.getRaceLog();
+    }
+
 }
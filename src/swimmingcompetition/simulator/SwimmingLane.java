@@ -6,6 +6,7 @@
 package swimmingcompetition.simulator;
 
 import java.io.Serializable;
+import java.util.SplittableRandom;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -15,20 +16,40 @@ import java.util.logging.Logger;
  */
 public class SwimmingLane implements Serializable {
 
-    private final int length;
+    /**
+     * Duration of one simulation step in milliseconds.
+     */
+    public static final long TICK_MILLIS = 70;
+
+    /**
+     * Duration of one simulation step in nanoseconds.
+     */
+    public static final long TICK_NANOS = TICK_MILLIS * 1000000L;
+
+    /**
+     * Fraction of the swimmer velocity covered in one simulation step.
+     */
+    public static final double STEP_FACTOR = 0.25;
+
+    // Position, speed and finish state are kept by the kernel of the pool.
+    private final RaceKernel kernel;
+    private final int index;
 
     private Swimmer swimmer;
+    private Stroke stroke;
     private Scoreboard scoreboard;
-
-    private volatile double swimmerPosition; // Thread-safe
+    transient private RaceEventBus eventBus;
+    transient private ScaledClock clock;
 
     /**
      * Creates a swimming lane.
      *
-     * @param length Length of the swimming pool
+     * @param kernel Kernel of the swimming pool.
+     * @param index Index of the lane in the pool.
      */
-    public SwimmingLane(int length) {
-        this.length = length;
+    public SwimmingLane(RaceKernel kernel, int index) {
+        this.kernel = kernel;
+        this.index = index;
     }
 
     /**
@@ -41,14 +62,43 @@ public class SwimmingLane implements Serializable {
     }
 
     /**
-     * Sets the swimmer to swim in this lane. Set to null if the lane is not
-     * used.
+     * Sets the bus on which the lane publishes its moves.
+     *
+     * @param eventBus event bus of the competition, or null.
+     */
+    public void setEventBus(RaceEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    /**
+     * Sets the clock the lane waits on between steps.
+     *
+     * @param clock clock of the round.
+     */
+    /*package*/ void setClock(ScaledClock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Sets the swimmer to swim in this lane using the given stroke. Set the
+     * swimmer to null if the lane is not used.
      *
      * @param swimmer The swimmer who swims in this lane.
+     * @param stroke Stroke for the current round.
+     * @param random Random stream for this lane in the current round.
      */
-    public void setSwimmer(Swimmer swimmer) {
+    public void setSwimmer(Swimmer swimmer, Stroke stroke, SplittableRandom random) {
         this.swimmer = swimmer;
-        this.swimmerPosition = 0;
+        this.stroke = stroke;
+        if (swimmer != null) {
+            double roundSpeedFactor = swimmer.nextRoundSpeedFactor(random);
+            kernel.prepare(index,
+                           swimmer.getPlayerSpeedFactor() + roundSpeedFactor,
+                           swimmer.performStroke(stroke),
+                           random);
+        } else {
+            kernel.prepare(index, 0, 0, null);
+        }
     }
 
     /**
@@ -60,6 +110,15 @@ public class SwimmingLane implements Serializable {
         return swimmer;
     }
 
+    /**
+     * Gets the stroke used in this lane for the current round.
+     *
+     * @return The stroke used by the swimmer in this lane.
+     */
+    public Stroke getStroke() {
+        return stroke;
+    }
+
     /**
      * Gets whether this lane is used currently.
      *
@@ -70,28 +129,58 @@ public class SwimmingLane implements Serializable {
     }
 
     /**
-     * Starts the swimmer in the lane using a new thread.
+     * Starts the swimmer in the lane using a new platform thread.
      */
     public void start() {
-        Thread runner = new Thread(new Runnable() {
+        start(LaneExecutionStrategy.PLATFORM_THREADS);
+    }
+
+    /**
+     * Starts the swimmer in the lane using a new thread of the given kind.
+     *
+     * @param strategy the kind of thread to swim on, not SCHEDULED.
+     */
+    public void start(LaneExecutionStrategy strategy) {
+        // A lane started on its own keeps time by itself at 1x.
+        final ScaledClock clock = this.clock != null ? this.clock : new ScaledClock(1);
+        final boolean onRoundClock = this.clock != null; // Shared with the scoreboard.
+        final long start = onRoundClock ? scoreboard.getStartNanos() : clock.nanoTime();
+        Thread runner = strategy.newThread(new Runnable() {
 
             @Override
             public void run() {
                 // TODO Adjust two constants to make it run not more than 1000 
                 // maintaing natural feeling. What is swim()'s max?
-                while (swimmerPosition < length) {
-                    swimmerPosition += (0.25) * swimmer.swim();
+                long due = start; // Time of the step.
+                // A stopped clock means the round was cancelled.
+                while (!isFinished() && !clock.isStopped()) {
+                    advance();
+                    if (eventBus != null) {
+                        eventBus.publishPositions(index);
+                    }
+                    due += TICK_NANOS;
                     try {
-                        Thread.sleep(70);
+                        clock.sleepUntil(due);
                     } catch (InterruptedException ex) {
                         Logger.getLogger(SwimmingLane.class.getName())
                                 .log(Level.SEVERE, null, ex);
                     }
-                    System.out.println(swimmer.getName() + " loc: " + swimmerPosition);
+                    Logger log = Logger.getLogger(SwimmingLane.class.getName());
+                    if (log.isLoggable(Level.FINE)) {
+                        log.fine(swimmer.getName() + " loc: " + getSwimmerPosition());
+                    }
+                }
+                if (clock.isStopped()) {
+                    return;
+                }
+                if (onRoundClock) {
+                    touchpad(due);
+                } else { // Stamped by the scoreboard, less how late the step was.
+                    scoreboard.notifyFinish(swimmer, index, getOvershootNanos()
+                                            + Math.max(0, clock.nanoTime() - due));
                 }
-                touchpad();
             }
-        });
+        }, "Lane " + index);
         runner.start();
     }
 
@@ -101,11 +190,45 @@ public class SwimmingLane implements Serializable {
      * @return Swimmers current position in the swimming lane.
      */
     public double getSwimmerPosition() {
-        return swimmerPosition;
+        return kernel.getPosition(index);
+    }
+
+    /**
+     * Moves the swimmer forward by a single simulation step.
+     *
+     * @return whether the swimmer has reached the end of the lane.
+     */
+    /*package*/ boolean advance() {
+        return kernel.advance(index);
+    }
+
+    /*package*/ double[] getSamples() {
+        return kernel.getSamples(index);
+    }
+
+    /*package*/ int getSampleCount() {
+        return kernel.getSampleCount(index);
+    }
+
+    /**
+     * Gets whether the swimmer has reached the end of the lane.
+     *
+     * @return whether the swimmer has finished.
+     */
+    public boolean isFinished() {
+        return kernel.isFinished(index);
+    }
+
+    /*package*/ void touchpad(long stepNanos) {
+        // The swimmer touched the end part way through the last step, which
+        // was due at the given time of the clock of the scoreboard. The clock
+        // is not read again, as other lanes may have moved it since.
+        this.scoreboard.recordFinish(swimmer, index, stepNanos - getOvershootNanos());
     }
 
-    private void touchpad() {
-        this.scoreboard.notifyFinish(swimmer);
+    // How long before the end of the last step the swimmer touched the end.
+    private long getOvershootNanos() {
+        return (long) (kernel.getOvershoot(index) * TICK_NANOS);
     }
 
 }
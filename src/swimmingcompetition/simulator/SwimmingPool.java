@@ -8,6 +8,7 @@ package swimmingcompetition.simulator;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
 
 import swimmingcompetition.simulator.exceptions.IllegalOperationException;
 import swimmingcompetition.simulator.exceptions.WrongPersonCountException;
@@ -18,10 +19,15 @@ import swimmingcompetition.simulator.exceptions.WrongPersonCountException;
  */
 public class SwimmingPool implements Serializable {
 
+    private final RaceKernel kernel;
     private final SwimmingLane[] lanes;
     private final int poolLength;
 
     private Scoreboard scoreboard;
+    private Stroke stroke;
+    private long seed;
+    transient private RaceEventBus eventBus;
+    transient private ScaledClock clock;
 
     /**
      * Creates a new swimming pool for the competition.
@@ -30,9 +36,10 @@ public class SwimmingPool implements Serializable {
      * @param poolLength Length of the swimming pool.
      */
     public SwimmingPool(int laneCount, int poolLength) {
+        this.kernel = new RaceKernel(laneCount, poolLength);
         this.lanes = new SwimmingLane[laneCount];
         for (int i = 0; i < laneCount; i++) {
-            this.lanes[i] = new SwimmingLane(poolLength);
+            this.lanes[i] = new SwimmingLane(kernel, i);
         }
         this.poolLength = poolLength;
     }
@@ -62,6 +69,18 @@ public class SwimmingPool implements Serializable {
         }
     }
 
+    /**
+     * Sets the bus on which the lanes publish the moves of the swimmers.
+     *
+     * @param eventBus event bus of the competition, or null.
+     */
+    public void setEventBus(RaceEventBus eventBus) {
+        this.eventBus = eventBus;
+        for (SwimmingLane lane : lanes) {
+            lane.setEventBus(eventBus);
+        }
+    }
+
     /**
      * Sets swimmers for the current round.
      *
@@ -72,6 +91,22 @@ public class SwimmingPool implements Serializable {
     public void prepare(Gender genderFilter,
                         Stroke stroke,
                         List<Swimmer> swimmers) {
+        prepare(genderFilter, stroke, swimmers, Seeds.newSeed());
+    }
+
+    /**
+     * Sets swimmers for the current round. Every lane gets its own random
+     * stream split from the seed, so the round can be reproduced from it.
+     *
+     * @param genderFilter The gender of the swimmers in the competition round.
+     * @param stroke The stroke which is to be used by swimmers.
+     * @param swimmers A list of participants.
+     * @param seed Master seed for the round.
+     */
+    public void prepare(Gender genderFilter,
+                        Stroke stroke,
+                        List<Swimmer> swimmers,
+                        long seed) {
         if (swimmers == null) {
             throw new WrongPersonCountException();
             // A list of swimmers must be specified. 
@@ -82,19 +117,39 @@ public class SwimmingPool implements Serializable {
             // Cannot have swimmers more than the maximum available lane count. 
         }
 
+        SplittableRandom master = new SplittableRandom(seed);
         for (int i = 0; i < swimmers.size(); i++) {
             Swimmer swimmer = swimmers.get(i);
             if (swimmer.getGender() != genderFilter) {
                 throw new IllegalOperationException();
                 // Cannot have competition rounds with genders mixed. 
             }
-            swimmer.prepare(lanes[i], stroke);
-            lanes[i].setSwimmer(swimmer);
+            lanes[i].setSwimmer(swimmer, stroke, master.split());
         }
         // Nullify swimmers for unused lanes. 
         for (int i = swimmers.size(); i < lanes.length; i++) {
-            lanes[i].setSwimmer(null);
+            lanes[i].setSwimmer(null, null, null);
         }
+        this.stroke = stroke;
+        this.seed = seed;
+    }
+
+    /**
+     * Gets the master seed of the current round.
+     *
+     * @return the seed for the round.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the stroke used in the current round.
+     *
+     * @return the stroke for the round.
+     */
+    public Stroke getStroke() {
+        return stroke;
     }
 
     /**
@@ -113,17 +168,106 @@ public class SwimmingPool implements Serializable {
     }
 
     /**
-     * Tells all swimmers to start swimming.
+     * Sets the clock which paces the lanes and stamps the scoreboard of the
+     * current round.
+     *
+     * @param clock clock of the round.
+     */
+    public void setClock(ScaledClock clock) {
+        this.clock = clock;
+        if (scoreboard != null) {
+            scoreboard.setClock(clock);
+        }
+        for (SwimmingLane lane : lanes) {
+            lane.setClock(clock);
+        }
+    }
+
+    // The round runs at 1x unless a clock was set.
+    /*package*/ ScaledClock getClock() {
+        if (clock == null) {
+            setClock(new ScaledClock(1));
+        }
+        return clock;
+    }
+
+    /**
+     * Tells all swimmers to start swimming, each on a platform thread.
      */
     public void start() {
+        start(LaneExecutionStrategy.PLATFORM_THREADS);
+    }
+
+    /**
+     * Tells all swimmers to start swimming, each on a thread of the given
+     * kind.
+     *
+     * @param strategy the kind of thread the lanes swim on, not SCHEDULED.
+     */
+    public void start(LaneExecutionStrategy strategy) {
+        scoreboard.setClock(getClock());
         scoreboard.notifyStart();
         for (SwimmingLane lane : lanes) {
             if (lane.isUsed()) { // Ask to start only if the lane is used. 
-                lane.start();
+                lane.start(strategy);
             }
         }
     }
 
+    /**
+     * Stops the lane threads of the current round without finishing it, by
+     * stopping its clock. They leave the scoreboard as it is. The next round
+     * gets a new clock.
+     */
+    public void cancel() {
+        if (clock != null) {
+            clock.stop(); // Wakes lanes waiting for their next step.
+            clock = null;
+        }
+    }
+
+    /**
+     * Runs the whole round on the calling thread in simulated time.
+     */
+    public void simulate() {
+        new SimulationEngine(this).run();
+    }
+
+    /**
+     * Creates the race log of the current round from the velocities recorded
+     * by the lanes.
+     *
+     * @return the race log of the round.
+     */
+    public RaceLog createRaceLog() {
+        return RaceLog.record(seed, stroke, poolLength, lanes);
+    }
+
+    /**
+     * Sets the step kernel used when all lanes are advanced together.
+     *
+     * @param stepKernel the step kernel.
+     */
+    public void setStepKernel(StepKernel stepKernel) {
+        kernel.setStepKernel(stepKernel);
+    }
+
+    /*package*/ RaceEventBus getEventBus() {
+        return eventBus;
+    }
+
+    /*package*/ RaceKernel getKernel() {
+        return kernel;
+    }
+
+    /*package*/ SwimmingLane[] getLanes() {
+        return lanes;
+    }
+
+    /*package*/ Scoreboard getScoreboard() {
+        return scoreboard;
+    }
+
     /**
      * Gets the positions of swimmers.
      *
@@ -131,10 +275,20 @@ public class SwimmingPool implements Serializable {
      */
     public List<Double> getPositions() {
         List<Double> positions = new ArrayList<>();
-        for (SwimmingLane lane : lanes) {
-            positions.add(lane.getSwimmerPosition());
+        kernel.getVersion(); // See the latest positions of all lanes.
+        for (int i = 0; i < lanes.length; i++) {
+            positions.add(kernel.getPosition(i));
         }
         return positions;
     }
 
+    /**
+     * Gets a view over the positions of swimmers which does not copy them.
+     *
+     * @return Positions of the swimmers in lane order.
+     */
+    public PositionView getPositionView() {
+        return kernel;
+    }
+
 }
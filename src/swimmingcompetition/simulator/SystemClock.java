@@ -0,0 +1,37 @@
+/*
+ * SystemClock.java
+ * Simulation clock which follows the wall clock.
+ * 
+ */
+package swimmingcompetition.simulator;
+
+/**
+ *
+ * @author Wickramaranga
+ */
+public class SystemClock implements SimulationClock {
+
+    /**
+     * Shared instance. The system clock has no state.
+     */
+    public static final SystemClock INSTANCE = new SystemClock();
+
+    private SystemClock() {
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public boolean isRealTime() {
+        return true;
+    }
+
+}
@@ -0,0 +1,30 @@
+/*
+ * TieBreakPolicy.java
+ * Enumerates the ways of ranking swimmers who finish at the same time.
+ * 
+ */
+package swimmingcompetition.simulator;
+
+import java.io.Serializable;
+
+/**
+ *
+ * @author Wickramaranga
+ */
+public enum TieBreakPolicy implements Serializable {
+
+    /**
+     * The swimmer reported to the scoreboard first is ranked first.
+     */
+    ARRIVAL,
+    /**
+     * The swimmer in the lower lane is ranked first.
+     */
+    LANE,
+    /**
+     * Lanes are ranked in an order drawn from the seed of the round, which
+     * is fair to every lane and the same whenever the round is replayed.
+     */
+    SEEDED;
+
+}
@@ -0,0 +1,28 @@
+/*
+ * Topic.java
+ * Enumerates the kinds of notifications an observer can subscribe to alone.
+ */
+package swimmingcompetition.simulator;
+
+/**
+ * Observers subscribed without a topic get every notification. Observers
+ * subscribed to topics get only the notifications of those topics.
+ *
+ * @author Wickramaranga
+ */
+public enum Topic {
+
+    /**
+     * A round started.
+     */
+    START,
+    /**
+     * Swimmers moved.
+     */
+    POSITION,
+    /**
+     * A swimmer finished.
+     */
+    FINISH;
+
+}
@@ -9,6 +9,7 @@ import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import javax.swing.DefaultListModel;
 import javax.swing.JOptionPane;
+import javax.swing.SpinnerNumberModel;
 
 import swimmingcompetition.simulator.SwimmingCompetition;
 import swimmingcompetition.ux.viewmodels.ModelCreateCompetition;
@@ -35,6 +36,8 @@ public class DialogCreateCompetition extends javax.swing.JDialog {
         okay = false;
 
         initComponents();
+        ((SpinnerNumberModel) jSpinnerLanes.getModel())
+                .setMaximum(competitionModel.getMaxSwimLaneCount());
 
         // Set list models. 
         jListSwimmers.setModel(new DefaultListModel());
@@ -7,14 +7,15 @@ package swimmingcompetition.ux;
 
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.io.IOException;
 import java.util.List;
 import javax.swing.ImageIcon;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.SpinnerNumberModel;
-import javax.swing.table.DefaultTableModel;
 
 import swimmingcompetition.simulator.Color;
+import swimmingcompetition.simulator.ScaledClock;
 import swimmingcompetition.simulator.Stroke;
 import swimmingcompetition.ux.viewmodels.ModelCompetition;
 import swimmingcompetition.ux.viewmodels.ModelPrepareRound;
@@ -27,6 +28,8 @@ import swimmingcompetition.ux.viewmodels.UIUpdater;
 public class FrameCompetition extends javax.swing.JFrame {
 
     private final ModelCompetition competitionModel;
+    private final SwimmingPoolView poolView;
+    private int[] swimmerPositions = new int[0]; // Reused on every frame.
 
     /**
      * Creates new form FrameCompetition
@@ -36,6 +39,13 @@ public class FrameCompetition extends javax.swing.JFrame {
     public FrameCompetition(ModelCompetition compModel) {
         this.competitionModel = compModel;
         initComponents();
+        // Swimmers are painted by the pool view, above the pool picture.
+        poolView = new SwimmingPoolView();
+        jPanelSwimmingPool.add(poolView,
+                               new org.netbeans.lib.awtextra.AbsoluteConstraints(0, 0, 854, 503), 0);
+        competitionModel.setRefreshRate(SwimmingPoolView.getRefreshRate(getGraphicsConfiguration()));
+        // Rows are inserted one finish at a time.
+        jTableScorecards.setModel(competitionModel.getScoreboardTableModel());
         final JLabel[] swimmerLabels = {jLabelS1, jLabelS2, jLabelS3, jLabelS4, jLabelS5, jLabelS6,
                                         jLabelS7, jLabelS8, jLabelS9, jLabelS10, jLabelS11,
                                         jLabelS12};
@@ -65,6 +75,9 @@ public class FrameCompetition extends javax.swing.JFrame {
                     case "buttons":
                         jButtonPrepare.setEnabled(competitionModel.canPrepare());
                         jButtonStart.setEnabled(competitionModel.canStart());
+                        jButtonPause.setEnabled(competitionModel.canPause()
+                                                || competitionModel.canResume());
+                        jButtonPause.setText(competitionModel.canResume() ? "Resume" : "Pause");
                         jButtonSave.setEnabled(competitionModel.canSave());
                         break;
                     case "poolbegin":
@@ -83,22 +96,11 @@ public class FrameCompetition extends javax.swing.JFrame {
                         // Information needed to set swimmer names
                         List<String> swimmerNames = competitionModel.getActiveSwimmerNames();
 
-                        int laneCount = competitionModel.getActiveLaneCount();
-                        for (int i = 0; i < laneCount; i++) {
-                            swimmerLabels[i].setVisible(true);
-                            swimmerLabels[i].setIcon(icon);
-                            swimmerLabels[i].setToolTipText(swimmerNames.get(i));
-                            swimmerLabels[i].setLocation(competitionModel.getInitialX(),
-                                                         swimmerLabels[i].getY());
-                        }
-                        for (int i = laneCount; i < 12; i++) {
-                            swimmerLabels[i].setVisible(false);
-                        }
+                        poolView.setSwimmers(icon, swimmerNames, competitionModel.getInitialX());
+                        swimmerPositions = new int[swimmerNames.size()];
                         break;
                     case "poolend":
-                        for (JLabel swimmerLabel : swimmerLabels) {
-                            swimmerLabel.setVisible(false);
-                        }
+                        poolView.clearSwimmers();
                         break;
                     case "message":
                         jLabelMsg.setText(competitionModel.getMessage());
@@ -113,11 +115,9 @@ public class FrameCompetition extends javax.swing.JFrame {
 
             @Override
             public void updateUI(String partToUpdate) {
-                int laneCount = competitionModel.getActiveLaneCount();
-                for (int i = 0; i < laneCount; i++) {
-                    swimmerLabels[i].setLocation(competitionModel.getSwimmerPositions().get(i),
-                                                 swimmerLabels[i].getY());
-                }
+                // One snapshot of all lanes, painted in one pass.
+                competitionModel.getSwimmerPositions(swimmerPositions);
+                poolView.setPositions(swimmerPositions);
             }
         });
 
@@ -125,7 +125,6 @@ public class FrameCompetition extends javax.swing.JFrame {
 
             @Override
             public void updateUI(String partToUpdate) {
-                DefaultTableModel model = (DefaultTableModel) jTableScorecards.getModel();
                 switch (partToUpdate) {
                     case "refresh": // Load saved data if any. 
                         if (competitionModel.getOldTimecardCount() > 0) {
@@ -149,44 +148,9 @@ public class FrameCompetition extends javax.swing.JFrame {
                         jSpinnerOld.setEnabled(true);
                         jButtonShowRound.setEnabled(true);
                         break;
-                    case "clear":
-                        model.setRowCount(0);
-                        break;
-                    case "swimmers":
-                        model.setRowCount(0);
-
-                        List<String> ranking = competitionModel.getRanking();
-                        List<String> timesTaken = competitionModel.getTimesTaken();
-
-                        for (int i = 0; i < ranking.size(); i++) {
-                            model.addRow(new String[]{ranking.get(i), timesTaken.get(i)});
-                        }
-                        break;
                     case "show":
-                        model.setRowCount(0);
-
                         SpinnerNumberModel snm1 = (SpinnerNumberModel) jSpinnerOld.getModel();
-                        int selectedIndex = (int) snm1.getNumber() - 1;
-
-                        // Get data of current round instead of old one.
-                        if (selectedIndex == (int) snm1.getMaximum() - 1) {
-                            List<String> ranking0 = competitionModel.getRanking();
-                            List<String> timesTaken0 = competitionModel.getTimesTaken();
-
-                            for (int i = 0; i < ranking0.size(); i++) {
-                                model.addRow(new String[]{ranking0.get(i), timesTaken0.get(i)});
-                            }
-                            break; // Exit from switch immediately
-                        }
-
-                        List<String> rankingOld
-                                = competitionModel.getOldRanking((int) snm1.getNumber() - 1);
-                        List<String> timesTakenOld
-                                = competitionModel.getOldTimesTaken((int) snm1.getNumber() - 1);
-
-                        for (int i = 0; i < rankingOld.size(); i++) {
-                            model.addRow(new String[]{rankingOld.get(i), timesTakenOld.get(i)});
-                        }
+                        competitionModel.showRound((int) snm1.getNumber() - 1);
                         break;
                     default:
                         break;
@@ -237,8 +201,8 @@ public class FrameCompetition extends javax.swing.JFrame {
             staffLabels[index].setToolTipText(competitionModel.getStaffMemberNames().get(i));
         }
 
-        for (int i = competitionModel.getLaneCount(); i < 12; i++) {
-            swimmerLabels[i].setVisible(false);
+        for (JLabel swimmerLabel : swimmerLabels) {
+            swimmerLabel.setVisible(false); // Replaced by the pool view.
         }
     }
 
@@ -356,6 +320,8 @@ public class FrameCompetition extends javax.swing.JFrame {
         jButtonShowRound = new javax.swing.JButton();
         jButtonPrepare = new javax.swing.JButton();
         jButtonStart = new javax.swing.JButton();
+        jButtonPause = new javax.swing.JButton();
+        jComboSpeed = new javax.swing.JComboBox();
         jButtonSave = new javax.swing.JButton();
         jLabelMsg = new javax.swing.JLabel();
         jPanel1 = new javax.swing.JPanel();
@@ -758,6 +724,22 @@ public class FrameCompetition extends javax.swing.JFrame {
             }
         });
 
+        jButtonPause.setText("Pause");
+        jButtonPause.setEnabled(false);
+        jButtonPause.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jButtonPauseActionPerformed(evt);
+            }
+        });
+
+        jComboSpeed.setModel(new javax.swing.DefaultComboBoxModel(new String[] { "0.5x", "1x", "2x", "5x", "10x", "100x", "Instant" }));
+        jComboSpeed.setSelectedIndex(1);
+        jComboSpeed.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jComboSpeedActionPerformed(evt);
+            }
+        });
+
         jButtonSave.setText("Save");
         jButtonSave.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
@@ -832,6 +814,10 @@ public class FrameCompetition extends javax.swing.JFrame {
                         .addComponent(jButtonPrepare)
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                         .addComponent(jButtonStart, javax.swing.GroupLayout.PREFERRED_SIZE, 87, javax.swing.GroupLayout.PREFERRED_SIZE)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(jButtonPause, javax.swing.GroupLayout.PREFERRED_SIZE, 87, javax.swing.GroupLayout.PREFERRED_SIZE)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(jComboSpeed, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
                         .addComponent(jButtonSave, javax.swing.GroupLayout.PREFERRED_SIZE, 87, javax.swing.GroupLayout.PREFERRED_SIZE)))
                 .addContainerGap())
@@ -848,6 +834,8 @@ public class FrameCompetition extends javax.swing.JFrame {
                                 .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
                                     .addComponent(jButtonPrepare)
                                     .addComponent(jButtonStart)
+                                    .addComponent(jButtonPause)
+                                    .addComponent(jComboSpeed, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
                                     .addComponent(jButtonSave))
                                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
                                 .addComponent(jLabelMsg))
@@ -889,11 +877,34 @@ public class FrameCompetition extends javax.swing.JFrame {
         }
     }//GEN-LAST:event_jButtonStartActionPerformed
 
+    private void jButtonPauseActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButtonPauseActionPerformed
+        if (competitionModel.canPause()) {
+            competitionModel.pause();
+        } else if (competitionModel.canResume()) {
+            competitionModel.resume();
+        }
+    }//GEN-LAST:event_jButtonPauseActionPerformed
+
+    private void jComboSpeedActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jComboSpeedActionPerformed
+        String speed = jComboSpeed.getSelectedItem().toString();
+        competitionModel.setTimeScale(speed.equals("Instant")
+                                      ? ScaledClock.INSTANT
+                                      : Double.parseDouble(speed.substring(0, speed.length() - 1)));
+    }//GEN-LAST:event_jComboSpeedActionPerformed
+
     private void jButtonSaveActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButtonSaveActionPerformed
         if (competitionModel.canSave()) {
             String fileName = JOptionPane.showInputDialog("Enter file name: ");
             if (fileName != null && !fileName.trim().isEmpty()) {
-                competitionModel.save(fileName);
+                try {
+                    competitionModel.save(fileName);
+                } catch (IOException ex) {
+                    JOptionPane.showMessageDialog(this,
+                                                  "Cannot save " + fileName + ": "
+                                                  + ex.getMessage(),
+                                                  "Save",
+                                                  JOptionPane.ERROR_MESSAGE);
+                }
             }
         }
 
@@ -906,10 +917,12 @@ public class FrameCompetition extends javax.swing.JFrame {
     }//GEN-LAST:event_jButtonShowRoundActionPerformed
 
     // Variables declaration - do not modify//GEN-BEGIN:variables
+    private javax.swing.JButton jButtonPause;
     private javax.swing.JButton jButtonPrepare;
     private javax.swing.JButton jButtonSave;
     private javax.swing.JButton jButtonShowRound;
     private javax.swing.JButton jButtonStart;
+    private javax.swing.JComboBox jComboSpeed;
     private javax.swing.JLabel jLabel1;
     private javax.swing.JLabel jLabel10;
     private javax.swing.JLabel jLabel11;
@@ -7,10 +7,21 @@ package swimmingcompetition.ux;
 
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
 import javax.swing.DefaultListModel;
 import javax.swing.JOptionPane;
+import javax.swing.ProgressMonitor;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 
+import swimmingcompetition.persistence.CompetitionSummary;
 import swimmingcompetition.persistence.Persistence;
+import swimmingcompetition.persistence.ProgressListener;
+import swimmingcompetition.simulator.Observable;
+import swimmingcompetition.simulator.Observer;
 import swimmingcompetition.simulator.SwimmingCompetition;
 import swimmingcompetition.ux.viewmodels.ModelCompetition;
 
@@ -25,14 +36,52 @@ public class Loader extends javax.swing.JFrame {
      */
     public Loader() {
         initComponents();
-        reloadFileList();
+        // Subscribed first, so a scan finishing meanwhile is not missed.
+        Persistence.getCatalog().subscribe(new Observer() {
+            @Override // Saved competitions changed, maybe by another program.
+            public void update(Observable sender, Object arg) {
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        reloadFileList();
+                    }
+                });
+            }
+        });
+        reloadFileList(); // Filled in when a cold catalog has been scanned.
     }
 
     private void reloadFileList() {
-        this.jListFiles.setModel(new DefaultListModel<String>());
-        for (String file : Persistence.listFiles()) {
-            ((DefaultListModel<String>) this.jListFiles.getModel()).addElement(file);
+        String selected = jListFiles.getSelectedValue() == null
+                          ? null : getSelectedFileName();
+        DefaultListModel<CompetitionSummary> files = new DefaultListModel<>();
+        for (CompetitionSummary summary : Persistence.listSummaries()) {
+            files.addElement(summary); // From the catalog, without reading files.
         }
+        this.jListFiles.setModel(files);
+        for (int i = 0; i < files.size(); i++) {
+            if (files.get(i).getName().equals(selected)) {
+                jListFiles.setSelectedIndex(i);
+            }
+        }
+    }
+
+    private String getSelectedFileName() {
+        return ((CompetitionSummary) jListFiles.getSelectedValue()).getName();
+    }
+
+    private void showCompetition(SwimmingCompetition competition) {
+        FrameCompetition frameCompetition
+                = new FrameCompetition(new ModelCompetition(competition));
+        frameCompetition.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                reloadFileList();
+                setVisible(true); // Show Loader again.
+            }
+        });
+        frameCompetition.setVisible(true);
+        setVisible(false); // Loader hidden. 
     }
 
     /**
@@ -124,21 +173,61 @@ public class Loader extends javax.swing.JFrame {
             return;
         }
 
-        SwimmingCompetition competition
-                = (SwimmingCompetition) Persistence.loadFile(
-                        jListFiles.getSelectedValue().toString());
+        final String fileName = getSelectedFileName();
+        final ProgressMonitor progressMonitor
+                = new ProgressMonitor(this, "Loading " + fileName + "...", null, 0, 100);
+        jButtonLoad.setEnabled(false);
 
-        FrameCompetition frameCompetition
-                = new FrameCompetition(new ModelCompetition(competition));
-        frameCompetition.addWindowListener(new WindowAdapter() {
+        // Load away from the event dispatch thread, keeping the loader responsive.
+        SwingWorker<SwimmingCompetition, Void> worker
+                = new SwingWorker<SwimmingCompetition, Void>() {
             @Override
-            public void windowClosed(WindowEvent e) {
-                reloadFileList();
-                setVisible(true); // Show Loader again.
+            protected SwimmingCompetition doInBackground() throws IOException {
+                return Persistence.loadFile(fileName, new ProgressListener() {
+                    @Override
+                    public void progressed(long done, long total) {
+                        setProgress((int) Math.min(100, done * 100 / Math.max(1, total)));
+                    }
+                });
+            }
+
+            @Override
+            protected void done() {
+                progressMonitor.close();
+                jButtonLoad.setEnabled(true);
+                SwimmingCompetition competition;
+                String error = null;
+                try {
+                    competition = get();
+                } catch (InterruptedException ex) {
+                    competition = null;
+                } catch (ExecutionException ex) {
+                    competition = null;
+                    error = ex.getCause().getMessage();
+                }
+                if (progressMonitor.isCanceled()) {
+                    return;
+                }
+                if (competition == null) {
+                    JOptionPane.showMessageDialog(Loader.this,
+                                                  "Cannot load " + fileName + ": "
+                                                  + (error == null ? "interrupted" : error),
+                                                  "Load",
+                                                  JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                showCompetition(competition);
+            }
+        };
+        worker.addPropertyChangeListener(new PropertyChangeListener() {
+            @Override
+            public void propertyChange(PropertyChangeEvent evt) {
+                if ("progress".equals(evt.getPropertyName())) {
+                    progressMonitor.setProgress((Integer) evt.getNewValue());
+                }
             }
         });
-        frameCompetition.setVisible(true);
-        setVisible(false); // Loader hidden. 
+        worker.execute();
     }//GEN-LAST:event_jButtonLoadActionPerformed
 
     private void jButtonDeleteActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButtonDeleteActionPerformed
@@ -149,7 +238,7 @@ public class Loader extends javax.swing.JFrame {
                                           "Are you sure?",
                                           "Delete?",
                                           JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION) {
-            Persistence.removeFile(jListFiles.getSelectedValue().toString());
+            Persistence.removeFile(getSelectedFileName());
             reloadFileList();
         }
     }//GEN-LAST:event_jButtonDeleteActionPerformed
@@ -162,17 +251,7 @@ public class Loader extends javax.swing.JFrame {
             @Override
             public void windowClosed(WindowEvent e) {
                 if (competitionCreator.isOkay()) {
-                    SwimmingCompetition competition = competitionCreator.getCompetition();
-                    FrameCompetition frameCompetition = new FrameCompetition(new ModelCompetition(competition));
-                    frameCompetition.addWindowListener(new WindowAdapter() {
-                        @Override
-                        public void windowClosed(WindowEvent e) {
-                            reloadFileList();
-                            setVisible(true); // Show Loader again.
-                        }
-                    });
-                    frameCompetition.setVisible(true);
-                    setVisible(false); // Loader hidden. 
+                    showCompetition(competitionCreator.getCompetition());
                 }
             }
         });
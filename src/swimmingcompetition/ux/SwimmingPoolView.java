@@ -0,0 +1,173 @@
+/*
+ * SwimmingPoolView.java
+ * Paints the swimmers of a competition round over the swimming pool in one
+ * pass, from a snapshot of their positions.
+ */
+package swimmingcompetition.ux;
+
+import java.awt.DisplayMode;
+import java.awt.Graphics;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Toolkit;
+import java.awt.event.MouseEvent;
+import java.util.List;
+import javax.swing.ImageIcon;
+import javax.swing.JComponent;
+import javax.swing.ToolTipManager;
+
+/**
+ * Transparent, so the pool drawn below it shows through. Positions are pixel
+ * offsets from the left, in lane order.
+ *
+ * @author Wickramaranga
+ */
+public class SwimmingPoolView extends JComponent {
+
+    /**
+     * Refresh rate assumed when the display does not tell its own.
+     */
+    public static final int DEFAULT_REFRESH_RATE = 60;
+
+    // Top of each lane of the pool picture, from the middle lane outwards.
+    private static final int[] LANE_Y = {216, 257, 175, 298, 134, 339,
+                                         93, 380, 52, 421, 11, 462};
+    private static final int LANE_HEIGHT = 30;
+
+    private ImageIcon icon;
+    private String[] names = new String[0];
+    private int[] positions = new int[0];
+
+    /**
+     * Creates an empty pool view.
+     */
+    public SwimmingPoolView() {
+        setOpaque(false);
+        ToolTipManager.sharedInstance().registerComponent(this);
+    }
+
+    /**
+     * Gets the refresh rate of the display showing the given configuration.
+     *
+     * @param configuration graphics configuration of a window, or null for the
+     * default screen.
+     * @return refresh rate in frames per second.
+     */
+    public static int getRefreshRate(GraphicsConfiguration configuration) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return DEFAULT_REFRESH_RATE;
+        }
+        DisplayMode mode = configuration != null
+                           ? configuration.getDevice().getDisplayMode()
+                           : GraphicsEnvironment.getLocalGraphicsEnvironment()
+                           .getDefaultScreenDevice().getDisplayMode();
+        int rate = mode.getRefreshRate();
+        return rate == DisplayMode.REFRESH_RATE_UNKNOWN ? DEFAULT_REFRESH_RATE : rate;
+    }
+
+    /**
+     * Places the swimmers of a new round at the start.
+     *
+     * @param icon picture of a swimmer.
+     * @param swimmerNames names of the swimmers in lane order.
+     * @param initialX starting position in pixels.
+     */
+    public void setSwimmers(ImageIcon icon, List<String> swimmerNames, int initialX) {
+        this.icon = icon;
+        this.names = swimmerNames.toArray(new String[swimmerNames.size()]);
+        this.positions = new int[names.length];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = initialX;
+        }
+        repaint();
+    }
+
+    /**
+     * Removes the swimmers from the pool.
+     */
+    public void clearSwimmers() {
+        icon = null;
+        names = new String[0];
+        positions = new int[0];
+        repaint();
+    }
+
+    /**
+     * Moves the swimmers. Only the changed area is painted again, at the next
+     * paint of the window.
+     *
+     * @param snapshot positions in pixels in lane order. Copied.
+     */
+    public void setPositions(int[] snapshot) {
+        System.arraycopy(snapshot, 0, positions, 0,
+                         Math.min(snapshot.length, positions.length));
+        repaint();
+    }
+
+    /**
+     * Gets the number of swimmers in the pool.
+     *
+     * @return number of swimmers.
+     */
+    public int getSwimmerCount() {
+        return positions.length;
+    }
+
+    private int laneY(int lane) {
+        if (positions.length <= LANE_Y.length) {
+            return LANE_Y[lane];
+        }
+        return lane * getHeight() / positions.length; // More lanes than drawn.
+    }
+
+    private int laneHeight() {
+        if (positions.length <= LANE_Y.length) {
+            return LANE_HEIGHT;
+        }
+        return Math.max(1, getHeight() / positions.length);
+    }
+
+    // Pictures are shrunk to fit narrow lanes.
+    private int iconHeight() {
+        return Math.min(icon.getIconHeight(), laneHeight());
+    }
+
+    private int iconWidth() {
+        return icon.getIconWidth() * iconHeight() / Math.max(1, icon.getIconHeight());
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (icon == null) {
+            return;
+        }
+        int height = laneHeight();
+        int iconHeight = iconHeight();
+        int iconWidth = iconWidth();
+        for (int lane = 0; lane < positions.length; lane++) {
+            int y = laneY(lane) + (height - iconHeight) / 2;
+            // Passing this as the observer repaints animated pictures.
+            g.drawImage(icon.getImage(), positions[lane], y, iconWidth, iconHeight, this);
+        }
+        Toolkit.getDefaultToolkit().sync(); // Show the frame now, not buffered.
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent event) {
+        if (icon == null) {
+            return null;
+        }
+        int height = laneHeight();
+        for (int lane = 0; lane < positions.length; lane++) {
+            int y = laneY(lane);
+            if (event.getY() >= y && event.getY() < y + height
+                && event.getX() >= positions[lane]
+                && event.getX() < positions[lane] + iconWidth()) {
+                return names[lane];
+            }
+        }
+        return null;
+    }
+
+}
@@ -5,22 +5,31 @@
  */
 package swimmingcompetition.ux.viewmodels;
 
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 
 import swimmingcompetition.persistence.Persistence;
 import swimmingcompetition.simulator.Color;
 import swimmingcompetition.simulator.CompetitionState;
 import swimmingcompetition.simulator.Gender;
 import swimmingcompetition.simulator.Judge;
+import swimmingcompetition.simulator.Observable;
+import swimmingcompetition.simulator.Observer;
+import swimmingcompetition.simulator.PositionView;
+import swimmingcompetition.simulator.RaceEvent;
+import swimmingcompetition.simulator.Scoreboard;
 import swimmingcompetition.simulator.Spectator;
 import swimmingcompetition.simulator.Stroke;
 import swimmingcompetition.simulator.SupportingStaffMember;
 import swimmingcompetition.simulator.Swimmer;
 import swimmingcompetition.simulator.SwimmingCompetition;
+import swimmingcompetition.simulator.exceptions.InvalidStateException;
 
 /**
  *
@@ -33,25 +42,48 @@ public class ModelCompetition {
     private final int initialX; // Initial position of swimmers in the GUI. 
     private final int finalX; // Final position of swimmers in the GUI.
     private final double lengthFactor; // Ratio between swimming lane and the GUI lane in pixels. 
-    private final int refreshFactor; // Determines the millisecond wait for pulling data.
+    private int refreshFactor; // Shortest time between two updates of the GUI.
 
     private String message;
     private UIUpdater generalUpdater;
     private UIUpdater poolUpdater;
     private UIUpdater scoreboardUpdater;
 
-    private Timer pullTimer;
+    // Race events waiting for the next update of the GUI. Set by the
+    // simulator threads, cleared on the event dispatch thread.
+    private final AtomicBoolean positionsChanged = new AtomicBoolean();
+    private final AtomicBoolean swimmersFinished = new AtomicBoolean();
+    private final AtomicBoolean roundEnded = new AtomicBoolean();
+    private final AtomicBoolean roundCancelled = new AtomicBoolean();
+    private final AtomicBoolean updateScheduled = new AtomicBoolean();
+    private final Timer frameTimer; // Delays an update to the next frame.
+    private long lastUpdateNanos;
+
+    private final ScoreboardTableModel scoreboardTable;
+    private int shownFinishes; // Finishes of the current round in the table.
 
     public ModelCompetition(SwimmingCompetition competition) {
         this.competition = competition;
         this.initialX = 10;
         this.lengthFactor = 1.0 * 760 / competition.getPoolLength(); // double
         this.finalX = 760;
-        this.refreshFactor = 70;
-        // TODO Calculate precise timing
-        // Sync with the sleep value in swim lane to make it pixel perfect.  
-        // Infer-pull hybrid
+        this.refreshFactor = 16; // About 60 updates per second until told.
         message = "Click 'New Round' to get started. ";
+        scoreboardTable = new ScoreboardTableModel();
+
+        frameTimer = new Timer(refreshFactor, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                updateFromEvents();
+            }
+        });
+        frameTimer.setRepeats(false);
+        competition.getEventBus().subscribe(new Observer() {
+            @Override
+            public void update(Observable sender, Object arg) {
+                onRaceEvent((RaceEvent) arg);
+            }
+        });
     }
 
     /**
@@ -81,6 +113,25 @@ public class ModelCompetition {
         this.scoreboardUpdater = scoreboardUpdater;
     }
 
+    /**
+     * Limits updates of the GUI to the refresh rate of the display.
+     *
+     * @param framesPerSecond refresh rate of the display.
+     */
+    public void setRefreshRate(int framesPerSecond) {
+        this.refreshFactor = Math.max(1, 1000 / Math.max(1, framesPerSecond));
+    }
+
+    /**
+     * Gets the table model of the scoreboard, which follows the current round
+     * or shows a previous round.
+     *
+     * @return the scoreboard table model.
+     */
+    public ScoreboardTableModel getScoreboardTableModel() {
+        return scoreboardTable;
+    }
+
     /**
      * Gets the informative message.
      *
@@ -184,8 +235,7 @@ public class ModelCompetition {
      * @return the stroke for current round.
      */
     public Stroke getStroke() {
-        // Fetch stroke from the first active swimmer. 
-        return competition.getActiveSwimmers().get(0).getStroke();
+        return competition.getStroke();
     }
 
     /**
@@ -208,13 +258,32 @@ public class ModelCompetition {
      * @return swimmer positions.
      */
     public List<Integer> getSwimmerPositions() {
-        List<Integer> positions = new ArrayList<>();
-        for (double pos : competition.getPositions()) {
+        int[] snapshot = new int[competition.getPositionView().getLaneCount()];
+        getSwimmerPositions(snapshot);
+        List<Integer> positions = new ArrayList<>(snapshot.length);
+        for (int position : snapshot) {
+            positions.add(position);
+        }
+        return positions;
+    }
+
+    /**
+     * Copies the GUI locations of the active swimmers into the given array,
+     * without creating objects.
+     *
+     * @param positions array to fill, in the order of active swimmers.
+     * @return number of locations copied.
+     */
+    public int getSwimmerPositions(int[] positions) {
+        PositionView view = competition.getPositionView();
+        view.getVersion(); // See the latest positions of all lanes.
+        int count = Math.min(positions.length, view.getLaneCount());
+        for (int i = 0; i < count; i++) {
             // Approximate location to the next smallest pixel. 
             // Take minimum with finalX, so swimmers won't end up going farther.
-            positions.add((int) Math.min(finalX, Math.ceil(pos * lengthFactor)));
+            positions[i] = (int) Math.min(finalX, Math.ceil(view.getPosition(i) * lengthFactor));
         }
-        return positions;
+        return count;
     }
 
     /**
@@ -236,11 +305,10 @@ public class ModelCompetition {
      * @return finish times.
      */
     public List<String> getTimesTaken() {
-        Date startTime = competition.getStartTime();
         List<String> formattedTimes = new ArrayList<>();
 
-        for (Date date : competition.getTimecard()) {
-            formattedTimes.add(formatTimeSpan(date.getTime() - startTime.getTime()));
+        for (long nanos : competition.getElapsedTimes()) {
+            formattedTimes.add(formatTimeSpan(nanos / 1000000L));
         }
         return formattedTimes;
     }
@@ -277,6 +345,41 @@ public class ModelCompetition {
         scoreboardUpdater.updateUI("show");
     }
 
+    /**
+     * Shows a round on the scoreboard table.
+     *
+     * @param i round index from the beginning. The index after the last
+     * previous round is the current round.
+     */
+    public void showRound(int i) {
+        if (i < getOldTimecardCount()) {
+            scoreboardTable.setRows(getOldRanking(i), getOldTimesTaken(i));
+        } else {
+            showCurrentRound();
+        }
+    }
+
+    private void showCurrentRound() {
+        scoreboardTable.clear();
+        shownFinishes = 0;
+        if (competition.getState() == CompetitionState.ONGOING
+            || competition.getState() == CompetitionState.PAUSED
+            || competition.getState() == CompetitionState.FINISHED
+            || competition.getState() == CompetitionState.CANCELLED) {
+            showNewFinishes();
+        }
+    }
+
+    /**
+     * Adds the finishes reported since the last call to the scoreboard table.
+     */
+    private void showNewFinishes() {
+        for (Scoreboard.Finish finish : competition.getFinishesSince(shownFinishes)) {
+            scoreboardTable.addFinish(finish, formatTimeSpan(finish.getElapsedNanos() / 1000000L));
+            shownFinishes++;
+        }
+    }
+
     /**
      * Gets the ranking in the ith round.
      *
@@ -298,11 +401,10 @@ public class ModelCompetition {
      * @return times taken by each swimmer to complete ith round.
      */
     public List<String> getOldTimesTaken(int i) {
-        Date startTime = competition.getOldStartTime(i);
         List<String> formattedTimes = new ArrayList<>();
 
-        for (Date date : competition.getOldTimecard(i)) {
-            formattedTimes.add(formatTimeSpan(date.getTime() - startTime.getTime()));
+        for (long nanos : competition.getOldElapsedTimes(i)) {
+            formattedTimes.add(formatTimeSpan(nanos / 1000000L));
         }
         return formattedTimes;
     }
@@ -323,6 +425,7 @@ public class ModelCompetition {
      */
     public boolean canPrepare() {
         return competition.getState() == CompetitionState.FINISHED
+               || competition.getState() == CompetitionState.CANCELLED
                || competition.getState() == CompetitionState.INITIAL;
     }
 
@@ -339,7 +442,7 @@ public class ModelCompetition {
         message = "Click start to start the competition. ";
         generalUpdater.updateUI("message");
         generalUpdater.updateUI("poolbegin");
-        scoreboardUpdater.updateUI("clear");
+        showCurrentRound(); // Empty until swimmers finish.
     }
 
     /**
@@ -360,35 +463,145 @@ public class ModelCompetition {
         scoreboardUpdater.updateUI("roundbegin");
         message = "Wait until the competition round is finished. ";
         generalUpdater.updateUI("message");
-        startPullingData();
+        // The GUI is updated by race events from now on.
+    }
+
+    /**
+     * Gets whether the running round can be paused.
+     *
+     * @return whether pausing is possible.
+     */
+    public boolean canPause() {
+        return competition.getState() == CompetitionState.ONGOING;
+    }
+
+    /**
+     * Gets whether the round is paused.
+     *
+     * @return whether resuming is possible.
+     */
+    public boolean canResume() {
+        return competition.getState() == CompetitionState.PAUSED;
+    }
+
+    /**
+     * Pauses the running round. The GUI shows where the swimmers stopped and
+     * is not updated again until the round is resumed. Nothing happens if the
+     * round ended meanwhile; its end is shown by its race event.
+     */
+    public void pause() {
+        try {
+            competition.pause();
+        } catch (InvalidStateException ex) { // Ended since canPause().
+            generalUpdater.updateUI("buttons");
+            return;
+        }
+        frameTimer.stop();
+        updateFromEvents(); // Nothing moves until resumed.
+        generalUpdater.updateUI("buttons");
+        message = "Paused. Click resume to go on. ";
+        generalUpdater.updateUI("message");
     }
 
-    private void startPullingData() {
-        pullTimer = new Timer();
-        // Start a thread to periodically update the GUI. 
+    /**
+     * Resumes the paused round. Nothing happens if the round ended meanwhile.
+     */
+    public void resume() {
+        try {
+            competition.resume();
+        } catch (InvalidStateException ex) { // Cancelled since canResume().
+            generalUpdater.updateUI("buttons");
+            return;
+        }
+        generalUpdater.updateUI("buttons");
+        message = "Wait until the competition round is finished. ";
+        generalUpdater.updateUI("message");
+    }
 
-        pullTimer.scheduleAtFixedRate(new TimerTask() {
-            private int finishedSwimmers = 0;
+    /**
+     * Sets how many times faster than real time rounds run, the running one
+     * included. The GUI is updated as the swimmers move, at most once a
+     * frame, so it follows any scale.
+     *
+     * @param timeScale the time scale, or ScaledClock.INSTANT.
+     */
+    public void setTimeScale(double timeScale) {
+        try {
+            competition.setTimeScale(timeScale);
+        } catch (InvalidStateException ex) {
+            // Pausing with 0 when the round ended meanwhile.
+        }
+        generalUpdater.updateUI("buttons");
+    }
 
-            @Override
-            public void run() {
-                if (competition.getState() == CompetitionState.FINISHED) {
-                    pullTimer.cancel();
-                    generalUpdater.updateUI("buttons");
-                    scoreboardUpdater.updateUI("roundend");
-                    generalUpdater.updateUI("poolend");
-                    message = "Click 'New Round' to get started. ";
-                    generalUpdater.updateUI("message");
-                }
-                if (finishedSwimmers < competition.getRanking().size()) {
-                    finishedSwimmers++;
-                    scoreboardUpdater.updateUI("swimmers");
+    /**
+     * Takes note of a race event and schedules an update of the GUI. Called on
+     * simulator threads. Events arriving before the update runs are merged
+     * into it.
+     */
+    private void onRaceEvent(RaceEvent event) {
+        switch (event.getType()) {
+            case START:
+                return; // Nothing shown changes until swimmers move.
+            case POSITIONS:
+                positionsChanged.set(true);
+                break;
+            case FINISH:
+                swimmersFinished.set(true);
+                break;
+            case ROUND_END:
+                roundEnded.set(true);
+                break;
+            case ROUND_CANCELLED:
+                roundCancelled.set(true);
+                break;
+            default:
+                assert false;
+        }
+        if (updateScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    scheduleUpdate();
                 }
-                poolUpdater.updateUI("swimmers");
+            });
+        }
+    }
 
-            }
-        }, 0, refreshFactor);
+    /**
+     * Updates the GUI now, or at the next frame if it was updated less than a
+     * frame ago. Runs on the event dispatch thread.
+     */
+    private void scheduleUpdate() {
+        long sinceLast = (System.nanoTime() - lastUpdateNanos) / 1000000L;
+        if (sinceLast < refreshFactor) {
+            frameTimer.setInitialDelay((int) (refreshFactor - sinceLast));
+            frameTimer.restart();
+        } else {
+            updateFromEvents();
+        }
+    }
+
+    private void updateFromEvents() {
+        lastUpdateNanos = System.nanoTime();
+        // Events from now on need another update.
+        updateScheduled.set(false);
 
+        if (positionsChanged.getAndSet(false)) {
+            poolUpdater.updateUI("swimmers");
+        }
+        if (swimmersFinished.getAndSet(false)) {
+            showNewFinishes();
+        }
+        boolean cancelled = roundCancelled.getAndSet(false);
+        if (roundEnded.getAndSet(false) || cancelled) {
+            generalUpdater.updateUI("buttons");
+            scoreboardUpdater.updateUI("roundend");
+            generalUpdater.updateUI("poolend");
+            message = cancelled ? "The round was cancelled. Click 'New Round' to get started. "
+                      : "Click 'New Round' to get started. ";
+            generalUpdater.updateUI("message");
+        }
     }
 
     /**
@@ -398,15 +611,17 @@ public class ModelCompetition {
      */
     public boolean canSave() {
         return competition.getState() == CompetitionState.INITIAL
-               || competition.getState() == CompetitionState.FINISHED;
+               || competition.getState() == CompetitionState.FINISHED
+               || competition.getState() == CompetitionState.CANCELLED;
     }
 
     /**
-     * Serializes the competition into a file.
+     * Saves the competition into a file.
      *
      * @param filePath path to save competition.
+     * @throws IOException if the competition cannot be saved.
      */
-    public void save(String filePath) {
+    public void save(String filePath) throws IOException {
         Persistence.saveFile(competition, filePath);
     }
 
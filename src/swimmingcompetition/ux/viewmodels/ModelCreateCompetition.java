@@ -28,6 +28,7 @@ public class ModelCreateCompetition implements CreatorDialogModel<SwimmingCompet
     private static final int MIN_POOL = 5; // Minimum possible length for the pool.
     private static final int DEFAULT_POOL = 25; // Default length for the pool. 
     private static final int DEFAULT_LANES = 5; // Default lane count;
+    private static final int MAX_LANES = 64; // Maximum lane count the pool view can show.
 
     private final List<Judge> judges;
     private final List<Spectator> spectators;
@@ -72,7 +73,7 @@ public class ModelCreateCompetition implements CreatorDialogModel<SwimmingCompet
                         && ((femaleSwimmerCount == 0 && maleSwimmerCount >= MIN_SWIM)
                             || (maleSwimmerCount == 0 && femaleSwimmerCount >= MIN_SWIM)
                             || (maleSwimmerCount >= MIN_SWIM && femaleSwimmerCount >= MIN_SWIM))
-                        && swimLaneCount >= MIN_SWIM
+                        && swimLaneCount >= MIN_SWIM && swimLaneCount <= MAX_LANES
                         && poolLength >= MIN_POOL && poolLength <= MAX_POOL;
         message = valid ? "" : "Add at least 2 swimmers with the same gender and a judge. ";
         updater.updateUI("Message");
@@ -94,6 +95,15 @@ public class ModelCreateCompetition implements CreatorDialogModel<SwimmingCompet
         return swimLaneCount;
     }
 
+    /**
+     * Gets the largest number of lanes a competition can have.
+     *
+     * @return the maximum lane count.
+     */
+    public int getMaxSwimLaneCount() {
+        return MAX_LANES;
+    }
+
     /**
      * Sets the number of lanes in this SwimmingCompetition.
      *
@@ -0,0 +1,108 @@
+/*
+ * ScoreboardTableModel.java
+ * Table model of the scoreboard which is updated one finish at a time.
+ *
+ */
+package swimmingcompetition.ux.viewmodels;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.table.AbstractTableModel;
+
+import swimmingcompetition.simulator.Scoreboard;
+
+/**
+ * Each row keeps the time taken already formatted, so adding a finish only
+ * formats and inserts that row.
+ *
+ * @author Wickramaranga
+ */
+public class ScoreboardTableModel extends AbstractTableModel {
+
+    private static final String[] COLUMNS = {"Name", "Time"};
+
+    private final List<Scoreboard.Finish> finishes; // Ranking of the live round.
+    private final List<String> names;
+    private final List<String> times;
+
+    /**
+     * Creates an empty scoreboard table.
+     */
+    public ScoreboardTableModel() {
+        finishes = new ArrayList<>();
+        names = new ArrayList<>();
+        times = new ArrayList<>();
+    }
+
+    /**
+     * Adds a finish of the current round at its place in the ranking. Usually
+     * that is the last row.
+     *
+     * @param finish the finish reported by the scoreboard.
+     * @param time the formatted time taken.
+     */
+    public void addFinish(Scoreboard.Finish finish, String time) {
+        int row = finishes.size();
+        while (row > 0 && finishes.get(row - 1).compareTo(finish) > 0) {
+            row--; // Reported late but finished earlier.
+        }
+        finishes.add(row, finish);
+        names.add(row, finish.getSwimmer().getName());
+        times.add(row, time);
+        fireTableRowsInserted(row, row);
+    }
+
+    /**
+     * Replaces all rows, for showing a finished round.
+     *
+     * @param ranking names of the swimmers in the winning order.
+     * @param timesTaken formatted times in the winning order.
+     */
+    public void setRows(List<String> ranking, List<String> timesTaken) {
+        finishes.clear();
+        names.clear();
+        names.addAll(ranking);
+        times.clear();
+        times.addAll(timesTaken);
+        fireTableDataChanged();
+    }
+
+    /**
+     * Removes all rows.
+     */
+    public void clear() {
+        int rowCount = names.size();
+        finishes.clear();
+        names.clear();
+        times.clear();
+        if (rowCount > 0) {
+            fireTableRowsDeleted(0, rowCount - 1);
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return names.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return String.class;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        return column == 0 ? names.get(row) : times.get(row);
+    }
+
+}
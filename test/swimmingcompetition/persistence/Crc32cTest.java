@@ -0,0 +1,99 @@
+/*
+ * Crc32cTest.java
+ * Checks the CRC-32C used when the platform has none against known values.
+ */
+package swimmingcompetition.persistence;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.Checksum;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The vectors are those of RFC 3720, appendix B.4, and the usual check value
+ * of "123456789".
+ *
+ * @author Wickramaranga
+ */
+public class Crc32cTest {
+
+    @Test
+    public void emptyInput() {
+        assertEquals(0x00000000L, crc(new byte[0]));
+    }
+
+    @Test
+    public void checkValue() {
+        assertEquals(0xE3069283L, crc("123456789".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    public void rfc3720Vectors() {
+        byte[] zeros = new byte[32];
+        byte[] ones = new byte[32];
+        byte[] ascending = new byte[32];
+        byte[] descending = new byte[32];
+        for (int i = 0; i < 32; i++) {
+            ones[i] = (byte) 0xFF;
+            ascending[i] = (byte) i;
+            descending[i] = (byte) (31 - i);
+        }
+        assertEquals(0x8A9136AAL, crc(zeros));
+        assertEquals(0x62A8AB43L, crc(ones));
+        assertEquals(0x46DD794EL, crc(ascending));
+        assertEquals(0x113FDB5CL, crc(descending));
+    }
+
+    @Test
+    public void sameInAnyPieces() {
+        // Pieces of every length cross the eight byte loop at every offset.
+        byte[] data = new byte[1000];
+        new Random(7).nextBytes(data);
+        long whole = crc(data);
+        for (int piece = 1; piece <= 17; piece++) {
+            Checksum checksum = new Crc32c();
+            for (int off = 0; off < data.length; off += piece) {
+                checksum.update(data, off, Math.min(piece, data.length - off));
+            }
+            assertEquals("pieces of " + piece, whole, checksum.getValue());
+        }
+        Checksum bytes = new Crc32c();
+        for (byte b : data) {
+            bytes.update(b);
+        }
+        assertEquals(whole, bytes.getValue());
+    }
+
+    @Test
+    public void resetStartsAgain() {
+        Checksum checksum = new Crc32c();
+        checksum.update(new byte[]{1, 2, 3}, 0, 3);
+        checksum.reset();
+        byte[] check = "123456789".getBytes(StandardCharsets.US_ASCII);
+        checksum.update(check, 0, check.length);
+        assertEquals(0xE3069283L, checksum.getValue());
+    }
+
+    @Test
+    public void platformChecksumAgrees() {
+        byte[] data = new byte[4099];
+        new Random(11).nextBytes(data);
+        Checksum created = Crc32c.create();
+        ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+        direct.put(data);
+        direct.flip();
+        Crc32c.update(created, direct);
+        assertEquals(crc(data), created.getValue());
+    }
+
+    private static long crc(byte[] data) {
+        Checksum checksum = new Crc32c();
+        checksum.update(data, 0, data.length);
+        return checksum.getValue();
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * LzCodecTest.java
+ * Round trips through the LZ codec, and damaged blocks.
+ */
+package swimmingcompetition.persistence;
+
+import java.io.StreamCorruptedException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ *
+ * @author Wickramaranga
+ */
+public class LzCodecTest {
+
+    @Test
+    public void roundTripsShortInput() throws Exception {
+        for (int length = 0; length <= 20; length++) {
+            byte[] data = new byte[length];
+            for (int i = 0; i < length; i++) {
+                data[i] = (byte) (i % 3);
+            }
+            assertRoundTrip(data);
+        }
+    }
+
+    @Test
+    public void roundTripsRandomInput() throws Exception {
+        Random random = new Random(1);
+        for (int length : new int[]{1, 255, 256, 4096, 70000}) {
+            byte[] data = new byte[length];
+            random.nextBytes(data);
+            assertRoundTrip(data);
+        }
+    }
+
+    @Test
+    public void roundTripsLongRunsAndMatches() throws Exception {
+        // Lengths past 15 and 255 take extra length bytes, and matches
+        // overlap themselves; distances go up to the window.
+        byte[] data = new byte[200000];
+        Random random = new Random(2);
+        for (int i = 0; i < data.length; ) {
+            int run = 1 + random.nextInt(600);
+            byte value = (byte) random.nextInt(4);
+            for (int j = 0; j < run && i < data.length; j++, i++) {
+                data[i] = random.nextInt(10) == 0 ? (byte) random.nextInt() : value;
+            }
+        }
+        byte[] compressed = LzCodec.compress(data);
+        assertTrue("compressed " + compressed.length, compressed.length < data.length);
+        assertArrayEquals(data, LzCodec.decompress(compressed, data.length));
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void rejectsTruncatedBlock() throws Exception {
+        byte[] data = repeated(1000);
+        byte[] compressed = LzCodec.compress(data);
+        LzCodec.decompress(Arrays.copyOf(compressed, compressed.length - 3), data.length);
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void rejectsWrongLength() throws Exception {
+        byte[] data = repeated(1000);
+        LzCodec.decompress(LzCodec.compress(data), data.length + 1);
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void rejectsMatchBeforeStart() throws Exception {
+        // No literals, then a match one byte back from nothing.
+        LzCodec.decompress(new byte[]{0x00, 0x00, 0x01}, 4);
+    }
+
+    @Test
+    public void damagedBlocksFailCleanly() throws Exception {
+        byte[] data = repeated(5000);
+        byte[] compressed = LzCodec.compress(data);
+        Random random = new Random(3);
+        for (int trial = 0; trial < 5000; trial++) {
+            byte[] damaged = compressed.clone();
+            damaged[random.nextInt(damaged.length)] ^= (byte) (1 + random.nextInt(255));
+            try {
+                assertEquals(data.length, LzCodec.decompress(damaged, data.length).length);
+            } catch (StreamCorruptedException ex) {
+                // Expected for most damage.
+            } catch (RuntimeException ex) {
+                fail("trial " + trial + ": " + ex);
+            }
+        }
+    }
+
+    private static void assertRoundTrip(byte[] data) throws StreamCorruptedException {
+        byte[] compressed = LzCodec.compress(data);
+        assertArrayEquals("length " + data.length, data,
+                          LzCodec.decompress(compressed, data.length));
+    }
+
+    private static byte[] repeated(int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) "Freestyle 50 m, lane ".charAt(i % 21);
+        }
+        return data;
+    }
+
+}
@@ -0,0 +1,218 @@
+/*
+ * RoundJournalTest.java
+ * Saves competitions into a journal round by round, and reads them back
+ * after an interrupted save or damage.
+ */
+package swimmingcompetition.persistence;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import swimmingcompetition.simulator.Gender;
+import swimmingcompetition.simulator.Judge;
+import swimmingcompetition.simulator.MaleSwimmer;
+import swimmingcompetition.simulator.Scoreboard;
+import swimmingcompetition.simulator.Spectator;
+import swimmingcompetition.simulator.Stroke;
+import swimmingcompetition.simulator.SupportingStaffMember;
+import swimmingcompetition.simulator.Swimmer;
+import swimmingcompetition.simulator.SwimmingCompetition;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Wickramaranga
+ */
+public class RoundJournalTest {
+
+    private Path directory;
+    private Path journal;
+    private Path index;
+
+    @Before
+    public void createFiles() throws IOException {
+        directory = Files.createTempDirectory("journal");
+        journal = directory.resolve("competition" + Persistence.EXTENSION);
+        index = Paths.get(journal + Persistence.INDEX_EXTENSION);
+    }
+
+    @After
+    public void deleteFiles() throws IOException {
+        Files.deleteIfExists(index);
+        Files.deleteIfExists(journal);
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    public void appendsRoundsAndReadsThemBack() throws IOException {
+        SwimmingCompetition competition = newCompetition();
+        runRounds(competition, 3);
+        write(competition);
+        assertEquals(3, verify());
+
+        runRounds(competition, 2);
+        assertTrue(append(competition));
+        assertEquals(5, verify());
+        assertSameRounds(competition, RoundArchive.open(journal, index, null));
+    }
+
+    @Test
+    public void savedArchiveReadsNewRoundsFromJournal() throws IOException {
+        SwimmingCompetition competition = newCompetition();
+        runRounds(competition, 3);
+        write(competition);
+        SwimmingCompetition opened = RoundArchive.open(journal, index, null);
+        runRounds(opened, 3);
+        Scoreboard added = opened.getRoundScoreboard(3);
+        assertTrue(append(opened));
+
+        RoundArchive archive = (RoundArchive) opened.getRoundHistory();
+        archive.saved(journal, index);
+        assertEquals(5, archive.size());
+        assertTrue(archive.get(3) != added); // Read again, not kept.
+        assertSameRounds(opened, RoundArchive.open(journal, index, null));
+
+        runRounds(opened, 1);
+        assertTrue(append(opened));
+        archive.saved(journal, index);
+        assertEquals(6, archive.size());
+        assertSameRounds(opened, RoundArchive.open(journal, index, null));
+    }
+
+    @Test
+    public void tornTailIsIgnoredAndOverwritten() throws IOException {
+        SwimmingCompetition competition = newCompetition();
+        runRounds(competition, 4);
+        write(competition);
+        long committed = Files.size(journal);
+
+        // A save cut short leaves bytes the header does not count.
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 1, 0, 42, 42, 42}), committed);
+        }
+        assertEquals(4, verify());
+        assertSameRounds(competition, RoundArchive.open(journal, index, null));
+
+        runRounds(competition, 1);
+        assertTrue(append(competition));
+        assertEquals(5, verify());
+        assertSameRounds(competition, RoundArchive.open(journal, index, null));
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void verifyFindsDamagedRecord() throws IOException {
+        SwimmingCompetition competition = newCompetition();
+        runRounds(competition, 3);
+        write(competition);
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ,
+                                                    StandardOpenOption.WRITE)) {
+            // A byte in the last record, past its length and checksum.
+            long offset = Files.size(journal) - 2;
+            ByteBuffer one = ByteBuffer.allocate(1);
+            channel.read(one, offset);
+            one.put(0, (byte) ~one.get(0));
+            one.rewind();
+            channel.write(one, offset);
+        }
+        verify();
+    }
+
+    @Test
+    public void appendRefusesAnotherCompetition() throws IOException {
+        SwimmingCompetition competition = newCompetition();
+        runRounds(competition, 2);
+        write(competition);
+
+        List<Swimmer> others = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            others.add(new MaleSwimmer("Other " + i, 0.6));
+        }
+        SwimmingCompetition other = newCompetition(others);
+        runRounds(other, 2);
+        assertEquals(false, append(other));
+        assertEquals(2, verify());
+    }
+
+    private void write(SwimmingCompetition competition) throws IOException {
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            RoundJournal.write(competition, channel, Compression.LZ);
+        }
+    }
+
+    private boolean append(SwimmingCompetition competition) throws IOException {
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ,
+                                                    StandardOpenOption.WRITE)) {
+            return RoundJournal.append(competition, channel, Compression.DEFLATE);
+        }
+    }
+
+    private int verify() throws IOException {
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ)) {
+            return RoundJournal.verify(channel);
+        }
+    }
+
+    private static void assertSameRounds(SwimmingCompetition expected,
+                                         SwimmingCompetition actual) {
+        assertEquals(expected.getRoundCount(), actual.getRoundCount());
+        for (int round = 0; round < expected.getRoundCount(); round++) {
+            assertArrayEquals("round " + round,
+                              expected.getRoundScoreboard(round).getElapsedTimes(),
+                              actual.getRoundScoreboard(round).getElapsedTimes());
+            assertEquals("round " + round,
+                         names(expected.getRoundScoreboard(round).getSwimmerRanking()),
+                         names(actual.getRoundScoreboard(round).getSwimmerRanking()));
+        }
+    }
+
+    private static List<String> names(List<Swimmer> swimmers) {
+        List<String> names = new ArrayList<>();
+        for (Swimmer swimmer : swimmers) {
+            names.add(swimmer.getName());
+        }
+        return names;
+    }
+
+    private static void runRounds(SwimmingCompetition competition, int rounds) {
+        for (int i = 0; i < rounds; i++) {
+            long seed = competition.getRoundCount() + 1;
+            competition.prepare(Gender.MALE, Stroke.values()[(int) (seed % 4)],
+                                competition.getSwimmers(), seed);
+            competition.runHeadless();
+        }
+    }
+
+    private static SwimmingCompetition newCompetition() {
+        List<Swimmer> swimmers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            swimmers.add(new MaleSwimmer("Swimmer " + i, 0.5 + i * 0.05));
+        }
+        return newCompetition(swimmers);
+    }
+
+    private static SwimmingCompetition newCompetition(List<Swimmer> swimmers) {
+        List<Judge> judges = new ArrayList<>();
+        judges.add(new Judge("Judge"));
+        List<SupportingStaffMember> staff = new ArrayList<>();
+        staff.add(new SupportingStaffMember("Staff"));
+        return new SwimmingCompetition(judges, new ArrayList<Spectator>(), swimmers, staff,
+                                       8, 50);
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * LegacyFormatTest.java
+ * Imports competitions saved with Java serialization by the first versions.
+ */
+package swimmingcompetition.persistence.legacy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Test;
+
+import swimmingcompetition.simulator.CompetitionState;
+import swimmingcompetition.simulator.Person;
+import swimmingcompetition.simulator.Scoreboard;
+import swimmingcompetition.simulator.Swimmer;
+import swimmingcompetition.simulator.SwimmingCompetition;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The saves were made by the first version with three rounds: men, women,
+ * then men again. One was saved after the third round finished, the other
+ * after a fourth round was prepared.
+ *
+ * @author Wickramaranga
+ */
+public class LegacyFormatTest {
+
+    @Test
+    public void importsFinishedCompetition() throws IOException {
+        assertImported(read("legacy-finished.w-scs"));
+    }
+
+    @Test
+    public void dropsRoundNotFinished() throws IOException {
+        assertImported(read("legacy-ready.w-scs"));
+    }
+
+    @Test(expected = InvalidClassException.class)
+    public void refusesOtherClasses() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(new HashMap<String, String>());
+        }
+        LegacyFormat.read(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    private static void assertImported(SwimmingCompetition competition) {
+        assertEquals(CompetitionState.FINISHED, competition.getState());
+        assertEquals(4, competition.getLaneCount());
+        assertEquals(10, competition.getPoolLength());
+        assertEquals("[Ann Judge]", names(competition.getJudges()));
+        assertEquals("[Sam Spectator, Sue Spectator]", names(competition.getSpectators()));
+        assertEquals("[Sid Staff]", names(competition.getStaff()));
+        assertEquals("[Adam, Bob, Carl, Dina, Eve]", names(competition.getSwimmers()));
+
+        assertEquals(3, competition.getRoundCount());
+        assertRound(competition.getRoundScoreboard(0), "[Bob, Adam, Carl]",
+                    3707, 6254, 7382);
+        assertRound(competition.getRoundScoreboard(1), "[Eve, Dina]", 3384, 6970);
+        assertRound(competition.getRoundScoreboard(2), "[Bob, Adam, Carl]",
+                    4722, 9290, 9430);
+        assertEquals(null, competition.getOldRaceLog(0)); // No seed was kept.
+
+        // The same swimmers swim every round.
+        assertEquals(true, competition.getSwimmers().get(1)
+                           == competition.getRoundScoreboard(2).getSwimmerRanking().get(0));
+    }
+
+    private static void assertRound(Scoreboard round, String ranking, long... millis) {
+        long[] nanos = new long[millis.length];
+        for (int i = 0; i < millis.length; i++) {
+            nanos[i] = millis[i] * 1000000L;
+        }
+        assertEquals(ranking, names(round.getSwimmerRanking()));
+        assertArrayEquals(nanos, round.getElapsedTimes());
+    }
+
+    private static String names(List<? extends Person> people) {
+        List<String> names = new ArrayList<>();
+        for (Person person : people) {
+            names.add(person.getName());
+        }
+        return names.toString();
+    }
+
+    private static SwimmingCompetition read(String resource) throws IOException {
+        try (InputStream in = LegacyFormatTest.class.getResourceAsStream(resource)) {
+            return LegacyFormat.read(in);
+        }
+    }
+
+}
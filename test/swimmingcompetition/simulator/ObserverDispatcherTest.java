@@ -0,0 +1,118 @@
+/*
+ * ObserverDispatcherTest.java
+ * Delivers notifications to observers on executors, in order, one at a time
+ * for each observer.
+ */
+package swimmingcompetition.simulator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Wickramaranga
+ */
+public class ObserverDispatcherTest {
+
+    private static final int NOTIFICATIONS = 500;
+
+    private final Logger logger = Logger.getLogger(ObserverDispatcher.class.getName());
+    private ExecutorService executor;
+    private ExecutorService fanOutExecutor;
+    private Level level;
+
+    @Before
+    public void createExecutors() {
+        executor = Executors.newFixedThreadPool(4);
+        fanOutExecutor = Executors.newSingleThreadExecutor();
+        level = logger.getLevel();
+        logger.setLevel(Level.OFF); // The failing observer is logged.
+    }
+
+    @After
+    public void shutdownExecutors() {
+        logger.setLevel(level);
+        executor.shutdownNow();
+        fanOutExecutor.shutdownNow();
+    }
+
+    @Test
+    public void deliversInOrderDespiteFailingObserver() throws InterruptedException {
+        ObserverDispatcher dispatcher = new ObserverDispatcher(
+                executor, fanOutExecutor, NOTIFICATIONS, OverflowPolicy.BLOCK);
+        final List<Object> received = Collections.synchronizedList(new ArrayList<Object>());
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger overlaps = new AtomicInteger();
+        final CountDownLatch delivered = new CountDownLatch(NOTIFICATIONS);
+        Observer observer = new Observer() {
+            @Override
+            public void update(Observable o, Object arg) {
+                if (running.incrementAndGet() > 1) {
+                    overlaps.incrementAndGet();
+                }
+                received.add(arg);
+                running.decrementAndGet();
+                delivered.countDown();
+                if ((Integer) arg % 3 == 0) {
+                    throw new IllegalStateException("Observer failed.");
+                }
+            }
+        };
+
+        Scoreboard sender = new Scoreboard(1, 0, Stroke.FREESTYLE, null);
+        Subscribers subscribers = Subscribers.NONE.with(observer);
+        for (int i = 0; i < NOTIFICATIONS; i++) {
+            dispatcher.dispatch(sender, i, subscribers);
+        }
+
+        assertTrue(delivered.await(30, TimeUnit.SECONDS));
+        assertEquals(0, overlaps.get());
+        for (int i = 0; i < NOTIFICATIONS; i++) {
+            assertEquals(i, received.get(i));
+        }
+        assertEquals(0, dispatcher.getDroppedCount());
+    }
+
+    @Test
+    public void notifiesObserverSubscribedTwiceOnce() throws InterruptedException {
+        ObserverDispatcher dispatcher = new ObserverDispatcher(
+                executor, fanOutExecutor, NOTIFICATIONS, OverflowPolicy.BLOCK);
+        final AtomicInteger updates = new AtomicInteger();
+        final CountDownLatch last = new CountDownLatch(1);
+        Observer observer = new Observer() {
+            @Override
+            public void update(Observable o, Object arg) {
+                updates.incrementAndGet();
+                if ("last".equals(arg)) {
+                    last.countDown();
+                }
+            }
+        };
+
+        Subscribers subscribers = Subscribers.NONE.with(observer).with(observer);
+        assertEquals(1, subscribers.getObservers().length);
+        Scoreboard sender = new Scoreboard(1, 0, Stroke.FREESTYLE, null);
+        dispatcher.dispatch(sender, "first", subscribers);
+        dispatcher.dispatch(sender, "last", subscribers);
+
+        assertTrue(last.await(30, TimeUnit.SECONDS));
+        assertEquals(2, updates.get());
+        assertEquals(true, subscribers.without(observer).isEmpty());
+    }
+
+}
@@ -0,0 +1,217 @@
+/*
+ * RoundExecutionTest.java
+ * Runs rounds on the race scheduler and on lane threads, at every speed, and
+ * checks that they finish as the same rounds run headless do.
+ */
+package swimmingcompetition.simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A round is decided by its seed alone: the lanes step in simulated time,
+ * so neither the threads they run on, the time scale nor pausing changes the
+ * times recorded.
+ *
+ * @author Wickramaranga
+ */
+public class RoundExecutionTest {
+
+    private static final long TIMEOUT_MILLIS = 60000;
+
+    @Test
+    public void scheduledInstantRoundsMatchHeadless() throws InterruptedException {
+        assertSameAsHeadless(LaneExecutionStrategy.SCHEDULED, ScaledClock.INSTANT, false);
+    }
+
+    @Test
+    public void threadedInstantRoundsMatchHeadless() throws InterruptedException {
+        assertSameAsHeadless(LaneExecutionStrategy.PLATFORM_THREADS, ScaledClock.INSTANT,
+                             false);
+    }
+
+    @Test
+    public void scheduledPausedRoundsMatchHeadless() throws InterruptedException {
+        assertSameAsHeadless(LaneExecutionStrategy.SCHEDULED, ScaledClock.MAX_SCALE, true);
+    }
+
+    @Test
+    public void threadedPausedRoundsMatchHeadless() throws InterruptedException {
+        assertSameAsHeadless(LaneExecutionStrategy.PLATFORM_THREADS, ScaledClock.MAX_SCALE,
+                             true);
+    }
+
+    @Test
+    public void scheduledRoundCanBePreparedAgainAfterCancel() throws InterruptedException {
+        assertCancelThenPrepare(LaneExecutionStrategy.SCHEDULED);
+    }
+
+    @Test
+    public void threadedRoundCanBePreparedAgainAfterCancel() throws InterruptedException {
+        assertCancelThenPrepare(LaneExecutionStrategy.PLATFORM_THREADS);
+    }
+
+    @Test
+    public void pausedScheduledRaceStopsItsClock() throws InterruptedException {
+        RaceScheduler scheduler = new RaceScheduler(1, 10);
+        try {
+            SwimmingCompetition competition = newCompetition();
+            SwimmingPool pool = new SwimmingPool(8, 50);
+            pool.prepare(Gender.MALE, Stroke.FREESTYLE, competition.getSwimmers(), 1);
+            pool.setScoreboard(new Scoreboard(6, 1, Stroke.FREESTYLE, null));
+            ScaledClock clock = new ScaledClock(ScaledClock.MAX_SCALE);
+            pool.setClock(clock);
+            ScheduledRace race = scheduler.schedule(pool);
+
+            assertTrue(race.pause());
+            assertTrue(race.isPaused());
+            assertTrue(clock.isPaused());
+            long paused = clock.nanoTime();
+            Thread.sleep(100); // 10 s of the round, were the clock running.
+            assertEquals(paused, clock.nanoTime());
+            assertEquals(false, race.pause());
+
+            assertTrue(race.resume());
+            assertEquals(false, clock.isPaused());
+            long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            while (!race.isDone()) {
+                assertTrue("Round did not finish.", System.currentTimeMillis() < deadline);
+                Thread.sleep(5);
+            }
+            assertEquals(false, race.resume());
+            assertTrue(clock.nanoTime() > paused);
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void scoreboardRanksFinishesRecordedConcurrently() throws InterruptedException {
+        final int lanes = 8;
+        final Scoreboard scoreboard = new Scoreboard(lanes, 0, Stroke.FREESTYLE, null);
+        scoreboard.setTieBreakPolicy(TieBreakPolicy.LANE);
+        scoreboard.notifyStart();
+        final long startNanos = scoreboard.getStartNanos();
+        List<Thread> threads = new ArrayList<>();
+        for (int lane = 0; lane < lanes; lane++) {
+            final int finishLane = lane;
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    // Lanes 0 and 1 tie, and are ranked by lane.
+                    long elapsed = finishLane < 2 ? 1000 : 1000 + lanes - finishLane;
+                    scoreboard.recordFinish(new MaleSwimmer("Lane " + finishLane, 0.5),
+                                            finishLane, startNanos + elapsed);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(lanes, scoreboard.getFinishedCount());
+        List<Scoreboard.Finish> ranked = scoreboard.getRankedFinishes();
+        int[] expectedLanes = {0, 1, 7, 6, 5, 4, 3, 2};
+        long[] elapsed = scoreboard.getElapsedTimes();
+        for (int i = 0; i < lanes; i++) {
+            assertEquals(expectedLanes[i], ranked.get(i).getLane());
+            assertEquals(ranked.get(i).getElapsedNanos(), elapsed[i]);
+            assertEquals(true, ranked.get(i).getSwimmer()
+                               == scoreboard.getSwimmerRanking().get(i));
+        }
+    }
+
+    private static void assertSameAsHeadless(LaneExecutionStrategy strategy, double scale,
+                                             boolean pause) throws InterruptedException {
+        SwimmingCompetition headless = newCompetition();
+        SwimmingCompetition competition = newCompetition();
+        competition.setLaneExecutionStrategy(strategy);
+        competition.setTimeScale(scale);
+        for (long seed = 1; seed <= 3; seed++) {
+            prepare(headless, seed);
+            headless.runHeadless();
+
+            prepare(competition, seed);
+            competition.start();
+            if (pause && pauseIfRunning(competition)) {
+                Thread.sleep(100); // 10 s of the round, were the clock running.
+                competition.resume();
+            }
+            awaitFinished(competition);
+
+            assertArrayEquals(headless.getElapsedTimes(), competition.getElapsedTimes());
+            assertEquals(headless.getRanking(), competition.getRanking());
+        }
+    }
+
+    private static void assertCancelThenPrepare(LaneExecutionStrategy strategy)
+            throws InterruptedException {
+        SwimmingCompetition headless = newCompetition();
+        prepare(headless, 7);
+        headless.runHeadless();
+
+        SwimmingCompetition competition = newCompetition();
+        competition.setLaneExecutionStrategy(strategy);
+        competition.setTimeScale(ScaledClock.MAX_SCALE);
+        prepare(competition, 7);
+        competition.start();
+        competition.cancel();
+        assertEquals(CompetitionState.CANCELLED, competition.getState());
+
+        competition.setTimeScale(ScaledClock.INSTANT);
+        prepare(competition, 7);
+        competition.start();
+        awaitFinished(competition);
+
+        assertEquals(1, competition.getRoundCount()); // The cancelled round is not kept.
+        assertArrayEquals(headless.getElapsedTimes(), competition.getElapsedTimes());
+    }
+
+    // A round at the INSTANT scale may finish before it can be paused.
+    private static boolean pauseIfRunning(SwimmingCompetition competition) {
+        synchronized (competition) {
+            if (competition.getState() != CompetitionState.ONGOING) {
+                return false;
+            }
+            competition.pause();
+            return true;
+        }
+    }
+
+    private static void awaitFinished(SwimmingCompetition competition)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (competition.getState() != CompetitionState.FINISHED) {
+            assertTrue("Round did not finish.", System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private static void prepare(SwimmingCompetition competition, long seed) {
+        competition.prepare(Gender.MALE, Stroke.values()[(int) (seed % 4)],
+                            competition.getSwimmers(), seed);
+    }
+
+    private static SwimmingCompetition newCompetition() {
+        List<Swimmer> swimmers = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            swimmers.add(new MaleSwimmer("Swimmer " + i, 0.5 + i * 0.05));
+        }
+        List<Judge> judges = new ArrayList<>();
+        judges.add(new Judge("Judge"));
+        List<SupportingStaffMember> staff = new ArrayList<>();
+        staff.add(new SupportingStaffMember("Staff"));
+        return new SwimmingCompetition(judges, new ArrayList<Spectator>(), swimmers, staff,
+                                       8, 50);
+    }
+
+}